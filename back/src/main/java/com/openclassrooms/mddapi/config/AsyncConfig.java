@@ -0,0 +1,15 @@
+package com.openclassrooms.mddapi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Active l'exécution asynchrone (@Async).
+ *
+ * Les tâches utilisent l'exécuteur par défaut de Spring Boot (applicationTaskExecutor),
+ * configurable via spring.task.execution.*.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
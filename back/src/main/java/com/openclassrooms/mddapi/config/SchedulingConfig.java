@@ -0,0 +1,15 @@
+package com.openclassrooms.mddapi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Active les tâches planifiées (@Scheduled).
+ *
+ * Les tâches utilisent le planificateur par défaut de Spring Boot (taskScheduler),
+ * configurable via spring.task.scheduling.*.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
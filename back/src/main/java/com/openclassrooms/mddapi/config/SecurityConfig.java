@@ -1,9 +1,11 @@
 package com.openclassrooms.mddapi.config;
 
+import com.openclassrooms.mddapi.security.CalibratedPasswordEncoder;
 import com.openclassrooms.mddapi.security.JwtAuthenticationEntryPoint;
 import com.openclassrooms.mddapi.security.JwtAuthenticationFilter;
 import com.openclassrooms.mddapi.service.UserDetailsServiceImpl;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -13,7 +15,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -40,7 +41,8 @@ public class SecurityConfig {
      * Sessions stateless avec authentification JWT.
      */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           DaoAuthenticationProvider authenticationProvider) throws Exception {
         http.cors()
                 .and()
                 .csrf().disable()
@@ -56,7 +58,7 @@ public class SecurityConfig {
                         .anyRequest().authenticated()
                 );
 
-        http.authenticationProvider(authenticationProvider());
+        http.authenticationProvider(authenticationProvider);
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
         
         return http.build();
@@ -64,10 +66,14 @@ public class SecurityConfig {
 
     /**
      * Encodeur BCrypt pour les mots de passe.
+     * Coût calibré au démarrage pour respecter la latence cible sur le matériel courant.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.security.password.target-ms:250}") long targetMs,
+            @Value("${app.security.password.min-cost:10}") int minCost,
+            @Value("${app.security.password.max-cost:14}") int maxCost) {
+        return new CalibratedPasswordEncoder(targetMs, minCost, maxCost);
     }
 
     /**
@@ -80,12 +86,14 @@ public class SecurityConfig {
 
     /**
      * Provider d'authentification liant UserDetailsService et PasswordEncoder.
+     * Les hashes dont le coût diffère du coût calibré sont recalculés à la connexion.
      */
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsService);
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 }
\ No newline at end of file
@@ -1,32 +1,53 @@
 package com.openclassrooms.mddapi.controller;
 
 import com.openclassrooms.mddapi.dto.ArticleDTO;
+import com.openclassrooms.mddapi.dto.ArticleSummaryDTO;
+import com.openclassrooms.mddapi.dto.response.CursorPage;
+import com.openclassrooms.mddapi.dto.response.SlicePage;
+import com.openclassrooms.mddapi.exception.TooManyRequestsException;
 import com.openclassrooms.mddapi.service.ArticleService;
+import com.openclassrooms.mddapi.service.ArticleStreamService;
+import com.openclassrooms.mddapi.service.VersionStampService;
+import com.openclassrooms.mddapi.utils.ConditionalRequests;
 import com.openclassrooms.mddapi.utils.SecurityUtils;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.io.IOException;
 
 /**
  * Contrôleur REST pour la gestion des articles.
  * 
  * Endpoints : GET /api/articles, POST /api/articles, GET /api/articles/{id},
- * GET /api/articles/feed, GET /api/articles/subject/{subjectId}
+ * GET /api/articles/feed, GET /api/articles/subject/{subjectId},
+ * GET /api/articles/scroll, GET /api/articles/feed/scroll, GET /api/articles/subject/{subjectId}/scroll,
+ * GET /api/articles/stream
+ *
+ * Les GET paginés et le détail sont conditionnels (ETag / If-None-Match → 304).
+ * Le flux SSE notifie les nouveaux articles des sujets suivis (remplace l'interrogation du fil).
  */
 @RestController
+@Validated
 @RequestMapping("/api/articles")
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RequiredArgsConstructor
 public class ArticleController {
 
     private final ArticleService articleService;
+    private final VersionStampService versionStampService;
+    private final ArticleStreamService articleStreamService;
 
     /**
      * Liste paginée de tous les articles par ordre chronologique.
@@ -34,18 +55,41 @@ public class ArticleController {
      * @param page numéro de page (défaut: 0)
      * @param size taille de page (défaut: 20, max: 100)
      * @param sort tri chronologique ("desc" par défaut, "asc" possible)
-     * @return Page d'ArticleDTO
+     * @param request requête (If-None-Match)
+     * @return SlicePage d'ArticleSummaryDTO (total approximatif), ou 304 si inchangée
      */
     @GetMapping
-    public ResponseEntity<Page<ArticleDTO>> getAllArticles(
-            @RequestParam(defaultValue = "0") @Min(0) int page,
+    public ResponseEntity<SlicePage<ArticleSummaryDTO>> getAllArticles(
+            @RequestParam(defaultValue = "0") @Min(0) @Max(SlicePage.MAX_PAGE) int page,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            @RequestParam(defaultValue = "desc") String sort,
+            WebRequest request) {
+
+        Sort.Direction direction = "asc".equalsIgnoreCase(sort) ?
+                Sort.Direction.ASC : Sort.Direction.DESC;
+
+        return ConditionalRequests.ifNoneMatch(request, versionStampService.articlesTag(),
+                () -> articleService.getAllArticles(page, size, direction));
+    }
+
+    /**
+     * Liste de tous les articles en pagination par curseur.
+     * 
+     * @param cursor curseur retourné par la page précédente (absent pour la première page)
+     * @param size taille de page (défaut: 20, max: 100)
+     * @param sort tri chronologique ("desc" par défaut, "asc" possible)
+     * @return CursorPage d'ArticleSummaryDTO
+     */
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<ArticleSummaryDTO>> scrollAllArticles(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
             @RequestParam(defaultValue = "desc") String sort) {
 
         Sort.Direction direction = "asc".equalsIgnoreCase(sort) ?
                 Sort.Direction.ASC : Sort.Direction.DESC;
 
-        Page<ArticleDTO> articles = articleService.getAllArticles(page, size, direction);
+        CursorPage<ArticleSummaryDTO> articles = articleService.scrollAllArticles(cursor, size, direction);
         return ResponseEntity.ok(articles);
     }
 
@@ -53,12 +97,16 @@ public class ArticleController {
      * Récupère un article par son ID.
      * 
      * @param id ID de l'article
-     * @return ArticleDTO
+     * @param request requête (If-None-Match)
+     * @return ArticleDTO, ou 304 si inchangé
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ArticleDTO> getArticleById(@PathVariable Long id) {
-        ArticleDTO article = articleService.getArticleById(id);
-        return ResponseEntity.ok(article);
+    public ResponseEntity<ArticleDTO> getArticleById(@PathVariable Long id, WebRequest request) {
+        // Révision lue en base : le cache local peut ignorer une écriture d'une autre instance
+        ArticleDTO article = versionStampService.articleRevision(id)
+                .map(revision -> articleService.getArticleById(id, revision))
+                .orElseGet(() -> articleService.getArticleById(id));
+        return ConditionalRequests.ifNoneMatch(request, versionStampService.articleTag(article), () -> article);
     }
 
     /**
@@ -67,33 +115,92 @@ public class ArticleController {
      * 
      * @param page numéro de page (défaut: 0)
      * @param size taille de page (défaut: 20, max: 100)
-     * @return Page d'ArticleDTO du fil personnalisé
+     * @param request requête (If-None-Match)
+     * @return SlicePage d'ArticleSummaryDTO (total approximatif) du fil personnalisé, ou 304 si inchangée
      */
     @GetMapping("/feed")
-    public ResponseEntity<Page<ArticleDTO>> getPersonalizedFeed(
-            @RequestParam(defaultValue = "0") @Min(0) int page,
+    public ResponseEntity<SlicePage<ArticleSummaryDTO>> getPersonalizedFeed(
+            @RequestParam(defaultValue = "0") @Min(0) @Max(SlicePage.MAX_PAGE) int page,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            WebRequest request) {
+
+        Long userId = SecurityUtils.getCurrentUserId();
+        return ConditionalRequests.ifNoneMatch(request, versionStampService.feedTag(userId),
+                () -> articleService.getPersonalizedFeed(userId, page, size));
+    }
+
+    /**
+     * Fil d'actualité personnalisé en pagination par curseur.
+     * 
+     * @param cursor curseur retourné par la page précédente (absent pour la première page)
+     * @param size taille de page (défaut: 20, max: 100)
+     * @return CursorPage d'ArticleSummaryDTO du fil personnalisé
+     */
+    @GetMapping("/feed/scroll")
+    public ResponseEntity<CursorPage<ArticleSummaryDTO>> scrollPersonalizedFeed(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
 
-        String userEmail = SecurityUtils.getCurrentUserEmail();
-        Page<ArticleDTO> feed = articleService.getPersonalizedFeed(userEmail, page, size);
+        Long userId = SecurityUtils.getCurrentUserId();
+        CursorPage<ArticleSummaryDTO> feed = articleService.scrollPersonalizedFeed(userId, cursor, size);
         return ResponseEntity.ok(feed);
     }
 
+    /**
+     * Flux SSE des nouveaux articles publiés dans les sujets suivis par l'utilisateur connecté.
+     * Événements "article" : {articleId, subjectId, createdAt} ; les sujets sont ceux suivis à l'ouverture.
+     * La réponse est écrite en mode asynchrone par ArticleStreamService.
+     * Refus (429) sans corps : le client du flux n'accepte que text/event-stream.
+     * 
+     * @param request requête du flux
+     * @param response réponse du flux (429 + Retry-After si trop de flux ouverts)
+     * @throws IOException si les en-têtes ne peuvent pas être envoyés
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public void streamNewArticles(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            articleStreamService.open(SecurityUtils.getCurrentUserId(), request, response);
+        } catch (TooManyRequestsException e) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        }
+    }
+
     /**
      * Articles d'un sujet spécifique par ordre chronologique.
      * 
      * @param subjectId ID du sujet
      * @param page numéro de page (défaut: 0)
      * @param size taille de page (défaut: 20, max: 100)
-     * @return Page d'ArticleDTO du sujet
+     * @param request requête (If-None-Match)
+     * @return SlicePage d'ArticleSummaryDTO (total approximatif) du sujet, ou 304 si inchangée
      */
     @GetMapping("/subject/{subjectId}")
-    public ResponseEntity<Page<ArticleDTO>> getArticlesBySubject(
+    public ResponseEntity<SlicePage<ArticleSummaryDTO>> getArticlesBySubject(
+            @PathVariable Long subjectId,
+            @RequestParam(defaultValue = "0") @Min(0) @Max(SlicePage.MAX_PAGE) int page,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            WebRequest request) {
+
+        return ConditionalRequests.ifNoneMatch(request, versionStampService.subjectArticlesTag(subjectId),
+                () -> articleService.getArticlesBySubject(subjectId, page, size));
+    }
+
+    /**
+     * Articles d'un sujet spécifique en pagination par curseur.
+     * 
+     * @param subjectId ID du sujet
+     * @param cursor curseur retourné par la page précédente (absent pour la première page)
+     * @param size taille de page (défaut: 20, max: 100)
+     * @return CursorPage d'ArticleSummaryDTO du sujet
+     */
+    @GetMapping("/subject/{subjectId}/scroll")
+    public ResponseEntity<CursorPage<ArticleSummaryDTO>> scrollArticlesBySubject(
             @PathVariable Long subjectId,
-            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
 
-        Page<ArticleDTO> articles = articleService.getArticlesBySubject(subjectId, page, size);
+        CursorPage<ArticleSummaryDTO> articles = articleService.scrollArticlesBySubject(subjectId, cursor, size);
         return ResponseEntity.ok(articles);
     }
 
@@ -106,8 +213,8 @@ public class ArticleController {
      */
     @PostMapping
     public ResponseEntity<ArticleDTO> createArticle(@Valid @RequestBody ArticleDTO articleDTO) {
-        String userEmail = SecurityUtils.getCurrentUserEmail();
-        ArticleDTO createdArticle = articleService.createArticle(articleDTO, userEmail);
+        ArticleDTO createdArticle = articleService.createArticle(articleDTO,
+                SecurityUtils.getCurrentUserId(), SecurityUtils.getCurrentUsername());
         return new ResponseEntity<>(createdArticle, HttpStatus.CREATED);
     }
 }
\ No newline at end of file
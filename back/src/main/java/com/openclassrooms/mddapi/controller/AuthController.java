@@ -2,23 +2,33 @@ package com.openclassrooms.mddapi.controller;
 
 import com.openclassrooms.mddapi.dto.UserDTO;
 import com.openclassrooms.mddapi.dto.request.LoginRequest;
+import com.openclassrooms.mddapi.dto.request.RefreshTokenRequest;
 import com.openclassrooms.mddapi.dto.request.RegisterRequest;
 import com.openclassrooms.mddapi.dto.response.JwtResponse;
 import com.openclassrooms.mddapi.dto.response.MessageResponse;
-import com.openclassrooms.mddapi.entity.User;
-import com.openclassrooms.mddapi.repository.UserRepository;
+import com.openclassrooms.mddapi.exception.InvalidRefreshTokenException;
+import com.openclassrooms.mddapi.exception.ServiceUnavailableException;
+import com.openclassrooms.mddapi.exception.TooManyRequestsException;
+import com.openclassrooms.mddapi.security.AuthCookies;
 import com.openclassrooms.mddapi.security.JwtUtils;
+import com.openclassrooms.mddapi.security.LoginThrottle;
+import com.openclassrooms.mddapi.security.PasswordHashingExecutor;
+import com.openclassrooms.mddapi.security.TokenRevocationService;
+import com.openclassrooms.mddapi.security.UserPrincipal;
+import com.openclassrooms.mddapi.service.RefreshTokenService;
 import com.openclassrooms.mddapi.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import javax.persistence.EntityNotFoundException;
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
-import javax.servlet.http.Cookie;
-import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Contrôleur REST pour l'authentification des utilisateurs.
@@ -27,10 +37,17 @@ import javax.servlet.http.HttpServletResponse;
  * <ul>
  *     <li>POST /api/auth/register : Inscription d'un nouvel utilisateur.</li>
  *     <li>POST /api/auth/login : Authentification d'un utilisateur existant.</li>
+ *     <li>POST /api/auth/refresh : Renouvellement de la session par refresh token.</li>
+ *     <li>POST /api/auth/logout : Révocation de la session courante.</li>
  *     <li>GET /api/auth/status : Vérifie le statut du service d'authentification.</li>
  * </ul>
  *
- * <p>Le JWT est stocké dans un cookie HttpOnly et n'est pas géré côté frontend.</p>
+ * <p>Le JWT est stocké dans un cookie HttpOnly et n'est pas géré côté frontend.
+ * L'access token est de courte durée ; il est renouvelé par un refresh token à rotation
+ * (cookie HttpOnly limité à /api/auth), sans nouvelle vérification BCrypt.</p>
+ *
+ * <p>Les opérations BCrypt (inscription, connexion) s'exécutent sur un pool dédié et borné ;
+ * en cas de saturation, l'endpoint répond immédiatement 503 avec Retry-After.</p>
  */
 @RestController
 @RequestMapping("/api/auth")
@@ -38,87 +55,119 @@ import javax.servlet.http.HttpServletResponse;
 public class AuthController {
 
     private final AuthenticationManager authenticationManager;
-    private final UserRepository userRepository;
     private final JwtUtils jwtUtils;
     private final UserService userService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final RefreshTokenService refreshTokenService;
+    private final AuthCookies authCookies;
+    private final TokenRevocationService tokenRevocationService;
+    private final LoginThrottle loginThrottle;
 
     /**
      * Inscrit un nouvel utilisateur.
      *
-     * <p>Crée l'utilisateur en base, génère un JWT et le place dans un cookie HttpOnly.</p>
+     * <p>Crée l'utilisateur en base, génère un JWT et le place dans un cookie HttpOnly.
+     * Le hashage du mot de passe s'exécute sur le pool dédié, sans bloquer un thread Tomcat.</p>
      *
      * @param registerRequest DTO contenant email, username et mot de passe
-     * @param response        HttpServletResponse pour ajouter le cookie JWT
-     * @return ResponseEntity avec le JWT et les informations de l'utilisateur
-     * @throws EntityNotFoundException si l'utilisateur nouvellement créé n'est pas retrouvé en base
+     * @return ResponseEntity asynchrone avec le JWT et les informations de l'utilisateur
+     * @throws ServiceUnavailableException si le pool de hashage est saturé (503)
      */
     @PostMapping("/register")
-    public ResponseEntity<JwtResponse> register(@Valid @RequestBody RegisterRequest registerRequest, HttpServletResponse response) {
-        UserDTO userDTO = userService.createUser(registerRequest);
-
-        User user = userRepository.findByEmail(userDTO.getEmail())
-                .orElseThrow(() -> new EntityNotFoundException("Utilisateur créé introuvable"));
-
-        String jwt = jwtUtils.generateTokenFromUsername(user.getEmail());
-
-        Cookie cookie = new Cookie("jwt", jwt);
-        cookie.setHttpOnly(true);
-        cookie.setSecure(false); // temporaire pour dev local
-        cookie.setPath("/");
-        cookie.setMaxAge((int) jwtUtils.getJwtExpirationSeconds());
-        response.addCookie(cookie);
-
-        JwtResponse jwtResponse = JwtResponse.builder()
-                .token(jwt)
-                .type("Bearer")
-                .id(user.getId())
-                .email(user.getEmail())
-                .username(user.getUsername())
-                .expiresIn(jwtUtils.getJwtExpirationSeconds())
-                .build();
+    public CompletableFuture<ResponseEntity<JwtResponse>> register(@Valid @RequestBody RegisterRequest registerRequest) {
+        return passwordHashingExecutor.submit(() -> {
+            UserDTO userDTO = userService.createUser(registerRequest);
 
-        return ResponseEntity.status(201).body(jwtResponse);
+            return buildJwtResponse(userDTO.getId(), userDTO.getEmail(), userDTO.getUsername(),
+                    refreshTokenService.issue(userDTO.getId()), ResponseEntity.status(201));
+        });
     }
 
     /**
      * Authentifie un utilisateur existant.
      *
-     * <p>Vérifie les identifiants, génère un JWT et le place dans un cookie HttpOnly.</p>
+     * <p>Vérifie les identifiants, génère un JWT et le place dans un cookie HttpOnly.
+     * La vérification BCrypt s'exécute sur le pool dédié, sans bloquer un thread Tomcat.
+     * L'utilisateur est résolu (email ou username) en une seule requête par le provider
+     * d'authentification ; le JWT est construit à partir du principal retourné.</p>
+     *
+     * <p>Les tentatives sont limitées par compte et par adresse IP avant toute opération BCrypt.
+     * Derrière un proxy de confiance, l'adresse du client est celle de l'en-tête X-Forwarded-For
+     * (server.forward-headers-strategy=native).</p>
      *
      * @param loginRequest DTO contenant email ou username et mot de passe
-     * @param response     HttpServletResponse pour ajouter le cookie JWT
-     * @return ResponseEntity avec le JWT et les informations de l'utilisateur
-     * @throws EntityNotFoundException si l'utilisateur n'existe pas
+     * @param request      requête HTTP (adresse IP du client)
+     * @return ResponseEntity asynchrone avec le JWT et les informations de l'utilisateur
+     * @throws TooManyRequestsException si la limite de tentatives est atteinte (429)
+     * @throws BadCredentialsException si l'utilisateur n'existe pas ou si le mot de passe est incorrect (401)
+     * @throws ServiceUnavailableException si le pool de hashage est saturé (503)
      */
     @PostMapping("/login")
-    public ResponseEntity<JwtResponse> login(@Valid @RequestBody LoginRequest loginRequest, HttpServletResponse response) {
-        User user = userRepository.findByEmail(loginRequest.getEmailOrUsername())
-                .or(() -> userRepository.findByUsername(loginRequest.getEmailOrUsername()))
-                .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé"));
-
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(user.getEmail(), loginRequest.getPassword())
-        );
-
-        String jwt = jwtUtils.generateTokenFromUsername(user.getEmail());
-
-        Cookie cookie = new Cookie("jwt", jwt);
-        cookie.setHttpOnly(true);
-        cookie.setSecure(false); // temporaire pour dev local
-        cookie.setPath("/");
-        cookie.setMaxAge((int) jwtUtils.getJwtExpirationSeconds());
-        response.addCookie(cookie);
+    public CompletableFuture<ResponseEntity<JwtResponse>> login(@Valid @RequestBody LoginRequest loginRequest,
+                                                                HttpServletRequest request) {
+        loginThrottle.acquire(loginRequest.getEmailOrUsername(), request.getRemoteAddr());
+
+        return passwordHashingExecutor.submit(() -> {
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginRequest.getEmailOrUsername(), loginRequest.getPassword())
+            );
+            UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+            loginThrottle.reset(principal.getId(), loginRequest.getEmailOrUsername());
+            return buildJwtResponse(principal.getId(), principal.getEmail(), principal.getDisplayName(),
+                    refreshTokenService.issue(principal.getId()), ResponseEntity.ok());
+        });
+    }
 
-        JwtResponse jwtResponse = JwtResponse.builder()
-                .token(jwt)
-                .type("Bearer")
-                .id(user.getId())
-                .email(user.getEmail())
-                .username(user.getUsername())
-                .expiresIn(jwtUtils.getJwtExpirationSeconds())
-                .build();
+    /**
+     * Renouvelle la session à partir du refresh token.
+     *
+     * <p>Le refresh token est lu dans son cookie HttpOnly ou, à défaut, dans le corps de la requête.
+     * Il est révoqué et remplacé (rotation) ; seul son hash SHA-256 est vérifié, sans BCrypt,
+     * l'opération s'exécute donc directement sur le thread de la requête.</p>
+     *
+     * @param cookieToken refresh token issu du cookie (optionnel)
+     * @param request     DTO contenant le refresh token (optionnel)
+     * @return ResponseEntity avec le nouveau JWT et le nouveau refresh token
+     * @throws InvalidRefreshTokenException si le token est absent, inconnu, expiré ou révoqué (401)
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtResponse> refresh(
+            @CookieValue(name = AuthCookies.REFRESH_COOKIE, required = false) String cookieToken,
+            @RequestBody(required = false) RefreshTokenRequest request) {
+        String rawToken = cookieToken != null ? cookieToken
+                : request != null ? request.getRefreshToken() : null;
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(rawToken);
+        UserPrincipal principal = rotation.getPrincipal();
+
+        return buildJwtResponse(principal.getId(), principal.getEmail(), principal.getDisplayName(),
+                rotation.getRefreshToken(), ResponseEntity.ok());
+    }
 
-        return ResponseEntity.ok(jwtResponse);
+    /**
+     * Déconnecte la session courante : révoque l'access token présenté ainsi que
+     * la famille de refresh tokens, puis supprime les cookies.
+     *
+     * <p>Accessible sans access token valide, afin de pouvoir clore une session expirée.</p>
+     *
+     * @param cookieToken refresh token issu du cookie (optionnel)
+     * @param request     DTO contenant le refresh token (optionnel)
+     * @param httpRequest requête HTTP portant l'access token (en-tête ou cookie)
+     * @return MessageResponse de confirmation
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<MessageResponse> logout(
+            @CookieValue(name = AuthCookies.REFRESH_COOKIE, required = false) String cookieToken,
+            @RequestBody(required = false) RefreshTokenRequest request,
+            HttpServletRequest httpRequest) {
+        tokenRevocationService.revoke(jwtUtils.resolveToken(httpRequest));
+        refreshTokenService.revoke(cookieToken != null ? cookieToken
+                : request != null ? request.getRefreshToken() : null);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, authCookies.clearAccessCookie().toString())
+                .header(HttpHeaders.SET_COOKIE, authCookies.clearRefreshCookie().toString())
+                .body(MessageResponse.success("Déconnexion réussie"));
     }
 
     /**
@@ -135,4 +184,37 @@ public class AuthController {
                 "Service d'authentification MDD opérationnel. " + userCount + " utilisateurs inscrits."
         ));
     }
+
+    /**
+     * Génère le JWT de l'utilisateur et construit la réponse avec les cookies HttpOnly.
+     *
+     * <p>Les cookies sont transmis par en-tête Set-Cookie plutôt que via HttpServletResponse,
+     * la réponse pouvant être construite hors du thread de la requête.</p>
+     *
+     * @param userId       ID de l'utilisateur authentifié
+     * @param email        email de l'utilisateur
+     * @param username     nom d'utilisateur
+     * @param refreshToken refresh token de la session
+     * @param builder      statut de la réponse
+     * @return ResponseEntity avec le JWT et les informations de l'utilisateur
+     */
+    private ResponseEntity<JwtResponse> buildJwtResponse(Long userId, String email, String username,
+                                                         String refreshToken, ResponseEntity.BodyBuilder builder) {
+        String jwt = jwtUtils.generateToken(userId, email, username);
+
+        JwtResponse jwtResponse = JwtResponse.builder()
+                .token(jwt)
+                .type("Bearer")
+                .id(userId)
+                .email(email)
+                .username(username)
+                .expiresIn(jwtUtils.getJwtExpirationSeconds())
+                .refreshToken(refreshToken)
+                .build();
+
+        return builder
+                .header(HttpHeaders.SET_COOKIE, authCookies.accessCookie(jwt).toString())
+                .header(HttpHeaders.SET_COOKIE, authCookies.refreshCookie(refreshToken).toString())
+                .body(jwtResponse);
+    }
 }
@@ -1,18 +1,25 @@
 package com.openclassrooms.mddapi.controller;
 
 import com.openclassrooms.mddapi.dto.CommentDTO;
+import com.openclassrooms.mddapi.dto.response.CursorPage;
+import com.openclassrooms.mddapi.dto.response.SlicePage;
 import com.openclassrooms.mddapi.dto.response.MessageResponse;
 import com.openclassrooms.mddapi.service.CommentService;
+import com.openclassrooms.mddapi.service.CommentWriteBehindQueue;
+import com.openclassrooms.mddapi.service.VersionStampService;
+import com.openclassrooms.mddapi.utils.ConditionalRequests;
 import com.openclassrooms.mddapi.utils.SecurityUtils;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Contrôleur REST pour la gestion des commentaires.
@@ -23,12 +30,15 @@ import javax.validation.constraints.Min;
  * @version 1.0
  */
 @RestController
+@Validated
 @RequestMapping("/api")
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RequiredArgsConstructor
 public class CommentController {
 
     private final CommentService commentService;
+    private final VersionStampService versionStampService;
+    private final CommentWriteBehindQueue commentWriteBehindQueue;
 
     /**
      * Liste paginée des commentaires d'un article par ordre chronologique.
@@ -36,15 +46,60 @@ public class CommentController {
      * @param articleId ID de l'article
      * @param page numéro de page (défaut: 0)
      * @param size taille de page (défaut: 20, max: 100)
-     * @return Page de CommentDTO
+     * @param request requête (If-None-Match)
+     * @return SlicePage de CommentDTO (total approximatif), ou 304 si inchangée
      */
     @GetMapping("/articles/{articleId}/comments")
-    public ResponseEntity<Page<CommentDTO>> getCommentsByArticle(
+    public ResponseEntity<SlicePage<CommentDTO>> getCommentsByArticle(
             @PathVariable Long articleId,
-            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "0") @Min(0) @Max(SlicePage.MAX_PAGE) int page,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            WebRequest request) {
+
+        return ConditionalRequests.ifNoneMatch(request, versionStampService.commentsTag(articleId),
+                () -> commentService.getCommentsByArticle(articleId, page, size));
+    }
+
+    /**
+     * Nouveaux commentaires d'un article depuis un curseur (suivi d'un fil sans recharger les pages).
+     * 
+     * Le client repasse le nextCursor reçu à chaque interrogation ; hasNext indique
+     * que d'autres commentaires sont en attente.
+     * 
+     * Aucun commentaire n'est sauté, même validé après un commentaire plus récent :
+     * les commentaires sont retournés une fois passé le délai de grâce
+     * (app.comments.since.grace-seconds, voir CommentService.getCommentsSince).
+     * 
+     * @param articleId ID de l'article
+     * @param since curseur du dernier commentaire connu (vide pour le début du fil)
+     * @param size nombre maximal de commentaires (défaut: 20, max: 100)
+     * @return CursorPage de CommentDTO postérieurs au curseur
+     */
+    @GetMapping(value = "/articles/{articleId}/comments", params = "since")
+    public ResponseEntity<CursorPage<CommentDTO>> getCommentsSince(
+            @PathVariable Long articleId,
+            @RequestParam String since,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+
+        CursorPage<CommentDTO> comments = commentService.getCommentsSince(articleId, since, size);
+        return ResponseEntity.ok(comments);
+    }
+
+    /**
+     * Commentaires d'un article en pagination par curseur, par ordre chronologique.
+     * 
+     * @param articleId ID de l'article
+     * @param cursor curseur retourné par la page précédente (absent pour la première page)
+     * @param size taille de page (défaut: 20, max: 100)
+     * @return CursorPage de CommentDTO
+     */
+    @GetMapping("/articles/{articleId}/comments/scroll")
+    public ResponseEntity<CursorPage<CommentDTO>> scrollCommentsByArticle(
+            @PathVariable Long articleId,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
 
-        Page<CommentDTO> comments = commentService.getCommentsByArticle(articleId, page, size);
+        CursorPage<CommentDTO> comments = commentService.scrollCommentsByArticle(articleId, cursor, size);
         return ResponseEntity.ok(comments);
     }
 
@@ -52,18 +107,34 @@ public class CommentController {
      * Crée un commentaire sur un article.
      * Auteur défini automatiquement via l'utilisateur connecté.
      * 
+     * En mode d'écriture différée (app.comments.write-behind.enabled), le commentaire est mis en file :
+     * réponse 202 avec un identifiant provisoire, ou 201 après enregistrement si sync=true.
+     * 
      * @param articleId ID de l'article
      * @param commentDTO données du commentaire
-     * @return CommentDTO créé avec statut 201
+     * @param sync attendre l'enregistrement en mode d'écriture différée (défaut: false)
+     * @return CommentDTO créé avec statut 201, ou commentaire provisoire avec statut 202
      */
     @PostMapping("/articles/{articleId}/comments")
-    public ResponseEntity<CommentDTO> createComment(
+    public CompletableFuture<ResponseEntity<CommentDTO>> createComment(
             @PathVariable Long articleId,
-            @Valid @RequestBody CommentDTO commentDTO) {
+            @Valid @RequestBody CommentDTO commentDTO,
+            @RequestParam(defaultValue = "false") boolean sync) {
+
+        Long authorId = SecurityUtils.getCurrentUserId();
+        String authorUsername = SecurityUtils.getCurrentUsername();
+
+        if (!commentWriteBehindQueue.isEnabled()) {
+            CommentDTO createdComment = commentService.createComment(articleId, commentDTO, authorId, authorUsername);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(createdComment, HttpStatus.CREATED));
+        }
 
-        String userEmail = SecurityUtils.getCurrentUserEmail();
-        CommentDTO createdComment = commentService.createComment(articleId, commentDTO, userEmail);
-        return new ResponseEntity<>(createdComment, HttpStatus.CREATED);
+        CommentWriteBehindQueue.Ticket ticket = commentWriteBehindQueue.submit(
+                articleId, commentDTO.getContent(), authorId, authorUsername);
+        if (sync) {
+            return ticket.getResult().thenApply(created -> new ResponseEntity<>(created, HttpStatus.CREATED));
+        }
+        return CompletableFuture.completedFuture(new ResponseEntity<>(ticket.getAccepted(), HttpStatus.ACCEPTED));
     }
 
     /**
@@ -1,13 +1,19 @@
 package com.openclassrooms.mddapi.controller;
 
 import com.openclassrooms.mddapi.dto.SubjectDTO;
+import com.openclassrooms.mddapi.dto.response.CursorPage;
 import com.openclassrooms.mddapi.dto.response.MessageResponse;
+import com.openclassrooms.mddapi.dto.response.SlicePage;
 import com.openclassrooms.mddapi.service.SubjectService;
+import com.openclassrooms.mddapi.service.VersionStampService;
+import com.openclassrooms.mddapi.utils.ConditionalRequests;
 import com.openclassrooms.mddapi.utils.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
@@ -15,31 +21,54 @@ import javax.validation.constraints.Min;
 /**
  * Contrôleur REST pour la gestion des sujets et abonnements.
  * 
- * Endpoints : GET /api/subjects, GET /api/subjects/{id},
+ * Endpoints : GET /api/subjects, GET /api/subjects/scroll, GET /api/subjects/{id},
  * POST /api/subjects/{id}/subscribe, DELETE /api/subjects/{id}/subscribe
+ *
+ * La liste paginée et le détail sont conditionnels (ETag / If-None-Match → 304).
  */
 @RestController
+@Validated
 @RequestMapping("/api/subjects")
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RequiredArgsConstructor
 public class SubjectController {
 
     private final SubjectService subjectService;
+    private final VersionStampService versionStampService;
 
     /**
      * Liste paginée de tous les sujets avec statut d'abonnement pour l'utilisateur connecté.
      * 
      * @param page numéro de page (défaut: 0)
      * @param size taille de page (défaut: 20, max: 100)
-     * @return Page de SubjectDTO avec indicateur d'abonnement
+     * @param request requête (If-None-Match)
+     * @return Page de SubjectDTO avec indicateur d'abonnement, ou 304 si inchangée
      */
     @GetMapping
     public ResponseEntity<Page<SubjectDTO>> getAllSubjects(
-            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "0") @Min(0) @Max(SlicePage.MAX_PAGE) int page,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            WebRequest request) {
+
+        Long userId = SecurityUtils.getCurrentUserId();
+        return ConditionalRequests.ifNoneMatch(request, versionStampService.subjectsTag(userId),
+                () -> subjectService.getAllSubjects(userId, page, size));
+    }
+
+    /**
+     * Liste des sujets en pagination par curseur, triés par nom.
+     * 
+     * @param cursor curseur retourné par la page précédente (absent pour la première page)
+     * @param size taille de page (défaut: 20, max: 100)
+     * @return CursorPage de SubjectDTO avec indicateur d'abonnement
+     */
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<SubjectDTO>> scrollSubjects(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
 
-        String userEmail = SecurityUtils.getCurrentUserEmail();
-        Page<SubjectDTO> subjects = subjectService.getAllSubjects(userEmail, page, size);
+        Long userId = SecurityUtils.getCurrentUserId();
+        CursorPage<SubjectDTO> subjects = subjectService.scrollSubjects(userId, cursor, size);
         return ResponseEntity.ok(subjects);
     }
 
@@ -47,13 +76,14 @@ public class SubjectController {
      * Récupère un sujet par son ID avec statut d'abonnement.
      * 
      * @param id ID du sujet
-     * @return SubjectDTO avec indicateur d'abonnement
+     * @param request requête (If-None-Match)
+     * @return SubjectDTO avec indicateur d'abonnement, ou 304 si inchangé
      */
     @GetMapping("/{id}")
-    public ResponseEntity<SubjectDTO> getSubjectById(@PathVariable Long id) {
-        String userEmail = SecurityUtils.getCurrentUserEmail();
-        SubjectDTO subject = subjectService.getSubjectById(id, userEmail);
-        return ResponseEntity.ok(subject);
+    public ResponseEntity<SubjectDTO> getSubjectById(@PathVariable Long id, WebRequest request) {
+        Long userId = SecurityUtils.getCurrentUserId();
+        return ConditionalRequests.ifNoneMatch(request, versionStampService.subjectTag(id, userId),
+                () -> subjectService.getSubjectById(id, userId));
     }
 
     /**
@@ -64,8 +94,8 @@ public class SubjectController {
      */
     @PostMapping("/{id}/subscribe")
     public ResponseEntity<MessageResponse> subscribeToSubject(@PathVariable Long id) {
-        String userEmail = SecurityUtils.getCurrentUserEmail();
-        subjectService.subscribeToSubject(id, userEmail);
+        Long userId = SecurityUtils.getCurrentUserId();
+        subjectService.subscribeToSubject(id, userId);
         return ResponseEntity.ok(MessageResponse.success("Abonnement réussi"));
     }
 
@@ -77,8 +107,8 @@ public class SubjectController {
      */
     @DeleteMapping("/{id}/subscribe")
     public ResponseEntity<MessageResponse> unsubscribeFromSubject(@PathVariable Long id) {
-        String userEmail = SecurityUtils.getCurrentUserEmail();
-        subjectService.unsubscribeFromSubject(id, userEmail);
+        Long userId = SecurityUtils.getCurrentUserId();
+        subjectService.unsubscribeFromSubject(id, userId);
         return ResponseEntity.ok(MessageResponse.success("Désabonnement réussi"));
     }
 }
\ No newline at end of file
@@ -2,15 +2,22 @@ package com.openclassrooms.mddapi.controller;
 
 import com.openclassrooms.mddapi.dto.UserDTO;
 import com.openclassrooms.mddapi.dto.response.MessageResponse;
+import com.openclassrooms.mddapi.security.AuthCookies;
+import com.openclassrooms.mddapi.security.JwtUtils;
+import com.openclassrooms.mddapi.security.TokenRevocationService;
+import com.openclassrooms.mddapi.service.RefreshTokenService;
 import com.openclassrooms.mddapi.service.UserService;
+import com.openclassrooms.mddapi.utils.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 
 /**
@@ -29,6 +36,10 @@ public class UserController {
     private static final Logger log = LoggerFactory.getLogger(UserController.class);
 
     private final UserService userService;
+    private final RefreshTokenService refreshTokenService;
+    private final AuthCookies authCookies;
+    private final TokenRevocationService tokenRevocationService;
+    private final JwtUtils jwtUtils;
 
     /**
      * Récupère le profil de l'utilisateur connecté en utilisant le JWT.
@@ -89,14 +100,22 @@ public class UserController {
     }
 
     /**
-     * Déconnexion de l'utilisateur.
+     * Déconnexion de l'utilisateur sur tous ses appareils.
+     * Révoque l'access token courant et tous les refresh tokens, puis supprime les cookies
+     * d'authentification. La déconnexion de la seule session courante se fait via POST /api/auth/logout.
      *
+     * @param request requête HTTP portant l'access token (en-tête ou cookie)
      * @return MessageResponse de confirmation
      */
     @PostMapping("/logout")
-    public ResponseEntity<MessageResponse> logout() {
+    public ResponseEntity<MessageResponse> logout(HttpServletRequest request) {
         log.info("ℹ️ Demande de déconnexion reçue.");
-        return ResponseEntity.ok(MessageResponse.success("Déconnexion réussie"));
+        tokenRevocationService.revoke(jwtUtils.resolveToken(request));
+        refreshTokenService.revokeAll(SecurityUtils.getCurrentUserId());
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, authCookies.clearAccessCookie().toString())
+                .header(HttpHeaders.SET_COOKIE, authCookies.clearRefreshCookie().toString())
+                .body(MessageResponse.success("Déconnexion réussie"));
     }
 
     /**
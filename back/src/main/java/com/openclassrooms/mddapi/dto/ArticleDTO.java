@@ -1,5 +1,6 @@
 package com.openclassrooms.mddapi.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -37,6 +38,11 @@ public class ArticleDTO {
     private Long subjectId;
 
     private String subjectName;
+    private long commentCount;
+
+    /** Révision lue avec l'article : fraîcheur de l'entrée en cache et ETag du détail. */
+    @JsonIgnore
+    private long revision;
 
     public ArticleDTO(String title, String content, Long subjectId) {
         this.title = title;
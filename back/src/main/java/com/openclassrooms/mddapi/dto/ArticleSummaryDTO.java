@@ -0,0 +1,38 @@
+package com.openclassrooms.mddapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Article tel qu'affiché dans les listes (cartes) : sans le contenu complet.
+ *
+ * Construit directement par les requêtes de projection (SELECT new ...), qui ne
+ * lisent que les colonnes utiles et un extrait borné du contenu. Le contenu
+ * complet n'est chargé que par le détail d'un article (ArticleDTO).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArticleSummaryDTO {
+
+    /**
+     * Longueur maximale de l'extrait, en caractères.
+     * Supérieure à la troncature d'affichage pour que le client sache s'il y a une suite.
+     */
+    public static final int EXCERPT_LENGTH = 200;
+
+    private Long id;
+    private String title;
+    private String excerpt;
+    private LocalDateTime createdAt;
+    private Long authorId;
+    private String authorUsername;
+    private Long subjectId;
+    private String subjectName;
+    private long commentCount;
+}
@@ -29,7 +29,21 @@ public class CommentDTO {
     private Long articleId;
     private String articleTitle;
 
+    /**
+     * Identifiant provisoire d'un commentaire accepté par la file d'écriture différée
+     * (202), repris dans le commentaire enregistré.
+     */
+    private String provisionalId;
+
     public CommentDTO(String content) {
         this.content = content;
     }
+
+    /**
+     * Projection du fil des commentaires (voir CommentRepository.findThreadByArticleId).
+     */
+    public CommentDTO(Long id, String content, LocalDateTime createdAt, Long authorId,
+                      String authorUsername, Long articleId, String articleTitle) {
+        this(id, content, createdAt, authorId, authorUsername, articleId, articleTitle, null);
+    }
 }
@@ -0,0 +1,26 @@
+package com.openclassrooms.mddapi.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO pour le renouvellement de session.
+ *
+ * Optionnel pour le navigateur (le refresh token est lu dans son cookie HttpOnly),
+ * utilisé par les clients sans cookies.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshTokenRequest {
+
+    /**
+     * Refresh token reçu lors de la connexion ou du dernier renouvellement.
+     */
+    private String refreshToken;
+}
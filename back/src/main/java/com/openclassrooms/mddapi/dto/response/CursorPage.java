@@ -0,0 +1,63 @@
+package com.openclassrooms.mddapi.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Page de résultats en pagination par curseur.
+ *
+ * Contrairement à Page, ne porte ni numéro de page ni total : la page suivante
+ * est demandée avec nextCursor, stable même si de nouveaux éléments sont publiés.
+ *
+ * @param <T> type des éléments
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    /**
+     * Éléments de la page.
+     */
+    private List<T> content;
+
+    /**
+     * Curseur de la page suivante, null s'il n'y en a pas.
+     */
+    private String nextCursor;
+
+    /**
+     * Indique s'il existe une page suivante.
+     */
+    private boolean hasNext;
+
+    /**
+     * Construit une page à partir de size + 1 lignes lues : la ligne supplémentaire
+     * indique l'existence d'une page suivante sans requête de comptage.
+     *
+     * @param rows     lignes lues (au plus size + 1)
+     * @param size     taille de page demandée
+     * @param mapper   conversion vers le DTO
+     * @param cursorOf curseur encodé d'une ligne
+     * @param <E>      type des lignes
+     * @param <T>      type des éléments
+     * @return page de DTOs avec le curseur du dernier élément
+     */
+    public static <E, T> CursorPage<T> of(List<E> rows, int size,
+                                          Function<E, T> mapper, Function<E, String> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = hasNext ? cursorOf.apply(pageRows.get(pageRows.size() - 1)) : null;
+        List<T> content = pageRows.stream().map(mapper).collect(Collectors.toList());
+
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
+}
@@ -14,6 +14,7 @@ import lombok.Setter;
  * - Le type de token (Bearer)
  * - Les informations de base de l'utilisateur
  * - La durée de validité du token
+ * - Le refresh token de la session
  */
 @Getter
 @Setter
@@ -59,6 +60,12 @@ public class JwtResponse {
      */
     private Long expiresIn;
 
+    /**
+     * Refresh token permettant de renouveler la session via /api/auth/refresh.
+     * Également transmis en cookie HttpOnly pour le navigateur.
+     */
+    private String refreshToken;
+
     /**
      * Constructeur pour créer une réponse JWT avec les informations essentielles.
      * Le type est automatiquement défini à "Bearer".
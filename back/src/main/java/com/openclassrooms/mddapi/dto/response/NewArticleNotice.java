@@ -0,0 +1,25 @@
+package com.openclassrooms.mddapi.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notification compacte d'un nouvel article, poussée par le flux SSE (événement "article").
+ *
+ * Ne porte que les clés de l'article : le client recharge la première page
+ * de son fil (requête conditionnelle) ou l'article lui-même.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class NewArticleNotice {
+
+    private Long articleId;
+    private Long subjectId;
+    private LocalDateTime createdAt;
+}
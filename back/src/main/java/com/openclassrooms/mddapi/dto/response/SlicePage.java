@@ -0,0 +1,102 @@
+package com.openclassrooms.mddapi.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page de résultats sans requête de comptage.
+ *
+ * hasNext provient de la lecture de size + 1 lignes. totalElements et totalPages
+ * sont des estimations mises en cache (voir ApproximateCountService), corrigées
+ * par ce que la page elle-même prouve : exactes sur la dernière page, jamais
+ * inférieures au nombre d'éléments déjà parcourus. Une page vide au-delà de la fin
+ * ne prouve qu'un majorant (son offset) : l'estimation y est bornée par celui-ci.
+ *
+ * @param <T> type des éléments
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlicePage<T> {
+
+    /**
+     * Numéro de page maximal accepté par les listes paginées : l'offset
+     * (page × taille de page, 100 au plus) reste représentable en int pour JPA.
+     */
+    public static final int MAX_PAGE = 10_000_000;
+
+    /**
+     * Éléments de la page.
+     */
+    private List<T> content;
+
+    /**
+     * Numéro de page (0-based).
+     */
+    private int number;
+
+    /**
+     * Taille de page demandée.
+     */
+    private int size;
+
+    /**
+     * Nombre d'éléments de cette page.
+     */
+    private int numberOfElements;
+
+    private boolean first;
+
+    private boolean last;
+
+    /**
+     * Indique s'il existe une page suivante.
+     */
+    private boolean hasNext;
+
+    /**
+     * Nombre total d'éléments (approximatif).
+     */
+    private long totalElements;
+
+    /**
+     * Nombre total de pages (approximatif).
+     */
+    private int totalPages;
+
+    /**
+     * Construit la page à partir d'une Slice et d'un total estimé.
+     *
+     * @param slice          résultats lus sans comptage
+     * @param mapper         conversion vers le DTO
+     * @param estimatedTotal total mis en cache
+     * @param <E>            type des lignes
+     * @param <T>            type des éléments
+     * @return page de DTOs
+     */
+    public static <E, T> SlicePage<T> of(Slice<E> slice, Function<E, T> mapper, long estimatedTotal) {
+        long offset = (long) slice.getNumber() * slice.getSize();
+        long seen = offset + slice.getNumberOfElements();
+        long total;
+        if (slice.hasNext()) {
+            total = Math.max(estimatedTotal, seen + 1);
+        } else if (slice.hasContent() || slice.isFirst()) {
+            total = seen;
+        } else {
+            // Page au-delà de la fin : le total est inférieur à l'offset demandé, sans être connu
+            total = Math.min(estimatedTotal, offset);
+        }
+        int totalPages = slice.getSize() == 0 ? 1 : (int) Math.ceil((double) total / slice.getSize());
+
+        return new SlicePage<>(slice.map(mapper).getContent(), slice.getNumber(), slice.getSize(),
+                slice.getNumberOfElements(), slice.isFirst(), slice.isLast(), slice.hasNext(),
+                total, totalPages);
+    }
+}
@@ -20,9 +20,11 @@ import java.time.LocalDateTime;
  * **DB-FIRST** : Structure basée sur la table MySQL existante.
  *
  * Table: articles
- * - id: bigint AUTO_INCREMENT PRIMARY KEY
+ * - id: bigint PRIMARY KEY (attribué par l'application, voir IdGenerators)
  * - title: varchar(200) NOT NULL
- * - content: text NOT NULL
+ * - excerpt: varchar(200) NOT NULL (début du contenu, pour les listes)
+ * - revision: bigint NOT NULL DEFAULT 0 (base des ETag)
+ * - comment_count: bigint NOT NULL DEFAULT 0 (compteur dénormalisé des commentaires)
  * - created_at: timestamp DEFAULT CURRENT_TIMESTAMP
  * - updated_at: timestamp DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
  * - author_id: bigint NOT NULL (FK vers users)
@@ -33,6 +35,9 @@ import java.time.LocalDateTime;
  * - INDEX fk_articles_author sur author_id
  * - INDEX fk_articles_subject sur subject_id
  *
+ * Le contenu complet est stocké dans article_bodies (voir ArticleBody) :
+ * les lignes parcourues par les listes restent compactes.
+ *
  * RÈGLES MÉTIER :
  * - Auteur défini automatiquement (utilisateur connecté)
  * - Date de publication définie automatiquement
@@ -55,10 +60,13 @@ import java.time.LocalDateTime;
 public class Article {
 
     /**
-     * ID auto-généré - Correspondance avec colonne id.
+     * ID attribué par blocs (table id_generators) - Correspondance avec colonne id.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "articles_id")
+    @TableGenerator(name = "articles_id", table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.NAME_COLUMN, valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = "articles", allocationSize = IdGenerators.ALLOCATION_SIZE)
     @Column(name = "id")
     private Long id;
 
@@ -72,12 +80,12 @@ public class Article {
     private String title;
 
     /**
-     * Contenu de l'article - Correspondance avec colonne content.
-     * Texte long stocké en TEXT dans la DB.
+     * Extrait du contenu - Correspondance avec colonne excerpt.
+     * Début du contenu, dupliqué à la création pour que les listes
+     * ne lisent pas la table article_bodies.
      */
-    @NotBlank(message = "Article content is mandatory")
-    @Column(name = "content", nullable = false, columnDefinition = "TEXT")
-    private String content;
+    @Column(name = "excerpt", nullable = false, length = 200)
+    private String excerpt;
 
     /**
      * Date de création - Correspondance avec colonne created_at.
@@ -95,6 +103,24 @@ public class Article {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    /**
+     * Révision de l'article - Correspondance avec colonne revision.
+     * Incrémentée à chaque commentaire créé ou supprimé ; base des ETag du détail
+     * et des commentaires. Modifiée uniquement par requête UPDATE.
+     */
+    @Column(name = "revision", nullable = false, updatable = false, columnDefinition = "BIGINT DEFAULT 0")
+    @Builder.Default
+    private long revision = 0;
+
+    /**
+     * Nombre de commentaires - Correspondance avec colonne comment_count.
+     * Dénormalisé pour les cartes : ajusté par UPDATE atomique à chaque commentaire
+     * créé ou supprimé, réconcilié périodiquement avec la table comments.
+     */
+    @Column(name = "comment_count", nullable = false, updatable = false, columnDefinition = "BIGINT DEFAULT 0")
+    @Builder.Default
+    private long commentCount = 0;
+
     /**
      * Référence vers l'auteur de l'article.
      * Clé étrangère vers la table users.
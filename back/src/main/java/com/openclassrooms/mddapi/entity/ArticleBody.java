@@ -0,0 +1,56 @@
+package com.openclassrooms.mddapi.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotBlank;
+
+/**
+ * Contenu complet d'un article - Correspondance avec la table article_bodies.
+ *
+ * Partition verticale de la table articles : le texte long est stocké à part,
+ * pour que les parcours des listes (index sur created_at / subject_id) ne lisent
+ * que des lignes compactes. La ligne partage la clé primaire de son article (1:1).
+ *
+ * Table: article_bodies
+ * - article_id: bigint PRIMARY KEY (FK vers articles, ON DELETE CASCADE)
+ * - content: text NOT NULL
+ *
+ * Chargé uniquement par le détail d'un article : l'entité Article ne référence
+ * pas son contenu et n'en déclenche jamais le chargement.
+ */
+@Entity
+@Table(name = "article_bodies")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArticleBody {
+
+    /**
+     * ID de l'article, repris de la relation (clé partagée).
+     */
+    @Id
+    @Column(name = "article_id")
+    private Long articleId;
+
+    /**
+     * Article propriétaire du contenu.
+     */
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "article_id")
+    private Article article;
+
+    /**
+     * Contenu de l'article - Texte long stocké en TEXT dans la DB.
+     */
+    @NotBlank(message = "Article content is mandatory")
+    @Column(name = "content", nullable = false, columnDefinition = "TEXT")
+    private String content;
+}
@@ -0,0 +1,33 @@
+package com.openclassrooms.mddapi.entity;
+
+/**
+ * Paramètres communs des générateurs d'IDs par table (table id_generators).
+ *
+ * Chaque entité a sa ligne (sequence_name = nom de sa table). Une instance réserve
+ * un bloc de ALLOCATION_SIZE IDs en une requête (transaction séparée), puis les attribue
+ * en mémoire (optimiseur pooled-lo, voir hibernate.id.optimizer.pooled.preferred) :
+ * l'ID est connu avant l'INSERT, qui peut être regroupé en lot JDBC
+ * (impossible avec GenerationType.IDENTITY).
+ *
+ * Les IDs restent croissants par instance, mais pas globalement entre instances :
+ * les tris chronologiques reposent sur created_at, l'ID ne départage que les égalités.
+ */
+public final class IdGenerators {
+
+    public static final String TABLE = "id_generators";
+    public static final String NAME_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+
+    /**
+     * Taille des blocs réservés, alignée sur hibernate.jdbc.batch_size.
+     */
+    public static final int ALLOCATION_SIZE = 50;
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation.
+     * Classe de constantes uniquement.
+     */
+    private IdGenerators() {
+        throw new IllegalStateException("Constants class");
+    }
+}
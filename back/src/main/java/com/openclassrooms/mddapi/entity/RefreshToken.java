@@ -0,0 +1,80 @@
+package com.openclassrooms.mddapi.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Refresh token d'une session utilisateur.
+ *
+ * Seul le hash SHA-256 du token est stocké. Chaque renouvellement révoque le token
+ * présenté et en émet un nouveau dans la même famille : la réutilisation d'un token
+ * déjà révoqué révoque toute la famille (vol de token présumé).
+ */
+@Entity
+@Table(name = "refresh_tokens")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Hash SHA-256 (Base64 URL) du token remis au client
+     */
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    /**
+     * Identifiant de la chaîne de rotation, commun à tous les tokens issus d'une même connexion
+     */
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * Date de révocation (rotation ou déconnexion), null si le token est actif
+     */
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+
+    /**
+     * Vérifie si le token est expiré.
+     *
+     * @param now instant de référence
+     * @return true si expiré
+     */
+    public boolean isExpired(LocalDateTime now) {
+        return !expiresAt.isAfter(now);
+    }
+
+    /**
+     * Vérifie si le token a été révoqué.
+     *
+     * @return true si révoqué
+     */
+    public boolean isRevoked() {
+        return revokedAt != null;
+    }
+}
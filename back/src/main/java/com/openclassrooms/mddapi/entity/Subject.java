@@ -33,7 +33,10 @@ import java.util.Set;
 public class Subject {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "subjects_id")
+    @TableGenerator(name = "subjects_id", table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.NAME_COLUMN, valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = "subjects", allocationSize = IdGenerators.ALLOCATION_SIZE)
     @Column(name = "id")
     private Long id;
 
@@ -62,6 +65,25 @@ public class Subject {
     @Column(name = "description", columnDefinition = "TEXT")
     private String description;
 
+    /**
+     * Mode de diffusion du fil d'actualité.
+     * Passe définitivement à true lorsque le nombre d'abonnés dépasse le seuil de fan-out :
+     * les articles du sujet sont alors lus à la demande plutôt que recopiés dans chaque timeline.
+     */
+    @Column(name = "pull_feed", nullable = false)
+    @Builder.Default
+    private boolean pullFeed = false;
+
+    /**
+     * Révision du sujet, incrémentée à chaque changement visible dans ses listes
+     * (nouvel article, commentaire, abonnement, désabonnement).
+     * Sert de base aux ETag des réponses (voir VersionStampService) ;
+     * modifiée uniquement par requête UPDATE.
+     */
+    @Column(name = "revision", nullable = false, updatable = false, columnDefinition = "BIGINT DEFAULT 0")
+    @Builder.Default
+    private long revision = 0;
+
     /**
      * Constructeur métier pour création de sujet.
      */
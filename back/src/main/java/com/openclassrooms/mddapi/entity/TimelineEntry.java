@@ -0,0 +1,59 @@
+package com.openclassrooms.mddapi.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entrée de la timeline matérialisée d'un utilisateur (fan-out à l'écriture).
+ *
+ * Une ligne par article publié dans un sujet suivi, écrite à la publication
+ * et lors de l'abonnement, supprimée au désabonnement.
+ * L'index (user_id, created_at, article_id) permet de lire une page du fil
+ * par un simple parcours d'intervalle.
+ *
+ * Les colonnes sont de simples identifiants : les écritures sont faites en masse
+ * (INSERT ... SELECT) et la lecture ne charge que les articles.
+ */
+@Entity
+@Table(name = "timeline_entries",
+        uniqueConstraints = @UniqueConstraint(name = "uk_timeline_entries_user_article",
+                columnNames = {"user_id", "article_id"}),
+        indexes = {
+                @Index(name = "idx_timeline_entries_user_created", columnList = "user_id, created_at, article_id"),
+                @Index(name = "idx_timeline_entries_user_subject", columnList = "user_id, subject_id")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TimelineEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Date de création de l'article, dupliquée pour le tri sans jointure
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "article_id", nullable = false)
+    private Long articleId;
+
+    /**
+     * Sujet de l'article, pour supprimer les entrées au désabonnement
+     */
+    @Column(name = "subject_id", nullable = false)
+    private Long subjectId;
+}
@@ -0,0 +1,20 @@
+package com.openclassrooms.mddapi.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement publié à la création d'un article.
+ *
+ * Traité après le commit de la transaction de création (fan-out vers les timelines).
+ */
+@Getter
+@RequiredArgsConstructor
+public class ArticleCreatedEvent {
+
+    private final Long articleId;
+    private final Long subjectId;
+    private final LocalDateTime createdAt;
+}
@@ -0,0 +1,22 @@
+package com.openclassrooms.mddapi.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement publié lorsqu'un nouvel article entre dans l'index des articles récents.
+ *
+ * Émis une fois par article et par instance, que l'article ait été créé localement
+ * (après le commit) ou découvert par interrogation (créé par une autre instance).
+ * Alimente le flux SSE des nouveaux articles.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ArticlePublishedEvent {
+
+    private final Long articleId;
+    private final Long subjectId;
+    private final LocalDateTime createdAt;
+}
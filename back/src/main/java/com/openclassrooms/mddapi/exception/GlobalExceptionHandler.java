@@ -2,6 +2,7 @@ package com.openclassrooms.mddapi.exception;
 
 import com.openclassrooms.mddapi.dto.response.MessageResponse;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -14,8 +15,11 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 
 import javax.persistence.EntityNotFoundException;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Gestionnaire global des exceptions pour l'API MDD.
@@ -50,6 +54,21 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Gère les paramètres de requête hors bornes (@Min, @Max des contrôleurs @Validated) (400 Bad Request).
+     */
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<MessageResponse> handleConstraintViolationException(
+            ConstraintViolationException ex, WebRequest request) {
+
+        String violations = ex.getConstraintViolations().stream()
+                .map(violation -> parameterName(violation) + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+        MessageResponse response = MessageResponse.error("Paramètre invalide: " + violations);
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Gère les arguments invalides (400 Bad Request).
      */
@@ -62,6 +81,17 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Gère les refresh tokens invalides, expirés ou révoqués (401 Unauthorized).
+     */
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<MessageResponse> handleInvalidRefreshTokenException(
+            InvalidRefreshTokenException ex, WebRequest request) {
+
+        MessageResponse response = MessageResponse.error(ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
+    }
+
     /**
      * Gère les erreurs d'identifiants incorrects (401 Unauthorized).
      */
@@ -110,6 +140,8 @@ public class GlobalExceptionHandler {
     /**
      * Gère les violations de contraintes de base de données (409 Conflict).
      * Détecte automatiquement les doublons d'email et username.
+     * Les parents inexistants (sujet, article) sont vérifiés par les services avant l'écriture (404) :
+     * une clé étrangère violée ici (ex. auteur supprimé entre-temps) reste un conflit.
      */
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<MessageResponse> handleDataIntegrityViolation(
@@ -148,6 +180,34 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.CONFLICT);
     }
 
+    /**
+     * Gère la saturation d'une ressource interne (503 Service Unavailable).
+     * Indique au client quand réessayer via l'en-tête Retry-After.
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<MessageResponse> handleServiceUnavailableException(
+            ServiceUnavailableException ex, WebRequest request) {
+
+        MessageResponse response = MessageResponse.error(ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
+
+    /**
+     * Gère le dépassement d'une limite de débit (429 Too Many Requests).
+     * Indique au client quand réessayer via l'en-tête Retry-After.
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<MessageResponse> handleTooManyRequestsException(
+            TooManyRequestsException ex, WebRequest request) {
+
+        MessageResponse response = MessageResponse.error(ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
+
     /**
      * Gestionnaire d'exception par défaut (500 Internal Server Error).
      */
@@ -165,4 +225,12 @@ public class GlobalExceptionHandler {
         );
         return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
     }
-}
\ No newline at end of file
+
+    /**
+     * Nom du paramètre d'une violation (dernier élément du chemin "méthode.paramètre").
+     */
+    private static String parameterName(ConstraintViolation<?> violation) {
+        String path = violation.getPropertyPath().toString();
+        return path.substring(path.lastIndexOf('.') + 1);
+    }
+}
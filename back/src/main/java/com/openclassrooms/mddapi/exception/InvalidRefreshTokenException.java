@@ -0,0 +1,12 @@
+package com.openclassrooms.mddapi.exception;
+
+/**
+ * Exception levée lorsqu'un refresh token est absent, inconnu, expiré ou révoqué
+ * (401 Unauthorized). Le client doit se reconnecter avec ses identifiants.
+ */
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
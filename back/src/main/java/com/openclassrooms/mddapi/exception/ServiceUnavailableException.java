@@ -0,0 +1,20 @@
+package com.openclassrooms.mddapi.exception;
+
+import lombok.Getter;
+
+/**
+ * Exception levée lorsqu'une ressource interne est saturée (503 Service Unavailable).
+ *
+ * Porte le délai conseillé avant nouvelle tentative, renvoyé dans l'en-tête Retry-After
+ * par GlobalExceptionHandler.
+ */
+@Getter
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,20 @@
+package com.openclassrooms.mddapi.exception;
+
+import lombok.Getter;
+
+/**
+ * Exception levée lorsqu'un client dépasse la limite de tentatives (429 Too Many Requests).
+ *
+ * Porte le délai avant nouvelle tentative, renvoyé dans l'en-tête Retry-After
+ * par GlobalExceptionHandler.
+ */
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
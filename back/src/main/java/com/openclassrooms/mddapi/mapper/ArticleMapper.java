@@ -2,12 +2,12 @@ package com.openclassrooms.mddapi.mapper;
 
 import com.openclassrooms.mddapi.dto.ArticleDTO;
 import com.openclassrooms.mddapi.entity.Article;
+import com.openclassrooms.mddapi.entity.ArticleBody;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 
-import java.util.List;
-
 /**
  * Mapper MapStruct pour conversion Article Entity ↔ ArticleDTO.
  * 
@@ -21,29 +21,44 @@ import java.util.List;
 public interface ArticleMapper {
 
     /**
-     * Convertit Article Entity vers ArticleDTO.
-     * Mappe les relations author et subject vers leurs propriétés DTO.
+     * Convertit le contenu d'un article (avec son article) vers ArticleDTO complet.
+     * Mappe l'article et ses relations author et subject vers leurs propriétés DTO.
      * 
-     * @param article entité à convertir
+     * @param body contenu à convertir, article, auteur et sujet chargés
      * @return DTO correspondant
      */
-    @Mapping(target = "authorId", source = "author.id")
-    @Mapping(target = "authorUsername", source = "author.username")
-    @Mapping(target = "subjectId", source = "subject.id")
-    @Mapping(target = "subjectName", source = "subject.name")
-    ArticleDTO toDTO(Article article);
+    @Mapping(target = "id", source = "article.id")
+    @Mapping(target = "title", source = "article.title")
+    @Mapping(target = "createdAt", source = "article.createdAt")
+    @Mapping(target = "updatedAt", source = "article.updatedAt")
+    @Mapping(target = "authorId", source = "article.author.id")
+    @Mapping(target = "authorUsername", source = "article.author.username")
+    @Mapping(target = "subjectId", source = "article.subject.id")
+    @Mapping(target = "subjectName", source = "article.subject.name")
+    @Mapping(target = "commentCount", source = "article.commentCount")
+    @Mapping(target = "revision", source = "article.revision")
+    ArticleDTO toDTO(ArticleBody body);
 
     /**
-     * Convertit liste d'entités Article vers liste d'ArticleDTO.
-     * 
-     * @param articles liste d'entités à convertir
-     * @return liste de DTOs correspondants
+     * Convertit un Article dont l'auteur et le sujet sont des références (proxies)
+     * vers ArticleDTO, sans initialiser ces proxies.
+     * Le nom de l'auteur, le nom du sujet et le contenu sont renseignés par le service.
+     * Méthode nommée pour éviter l'ambiguïté avec toDTO().
+     *
+     * @param article entité à convertir
+     * @return DTO sans authorUsername, subjectName ni contenu
      */
-    List<ArticleDTO> toDTOList(List<Article> articles);
+    @Named("reference")
+    @Mapping(target = "authorId", source = "author.id")
+    @Mapping(target = "authorUsername", ignore = true)
+    @Mapping(target = "subjectId", source = "subject.id")
+    @Mapping(target = "subjectName", ignore = true)
+    @Mapping(target = "content", ignore = true)
+    ArticleDTO toReferenceDTO(Article article);
 
     /**
      * Convertit ArticleDTO vers Article Entity pour création.
-     * Les relations et timestamps sont ignorés et gérés par le service.
+     * Les relations, l'extrait et les timestamps sont ignorés et gérés par le service.
      * 
      * @param articleDTO DTO à convertir
      * @return entité correspondante (sans relations)
@@ -52,5 +67,8 @@ public interface ArticleMapper {
     @Mapping(target = "subject", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "excerpt", ignore = true)
+    @Mapping(target = "revision", ignore = true)
+    @Mapping(target = "commentCount", ignore = true)
     Article toEntity(ArticleDTO articleDTO);
 }
\ No newline at end of file
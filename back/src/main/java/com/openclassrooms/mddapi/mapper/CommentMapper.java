@@ -4,6 +4,7 @@ import com.openclassrooms.mddapi.dto.CommentDTO;
 import com.openclassrooms.mddapi.entity.Comment;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 
 import java.util.List;
@@ -31,8 +32,26 @@ public interface CommentMapper {
     @Mapping(target = "authorUsername", source = "author.username")
     @Mapping(target = "articleId", source = "article.id")
     @Mapping(target = "articleTitle", source = "article.title")
+    @Mapping(target = "provisionalId", ignore = true)
     CommentDTO toDTO(Comment comment);
 
+    /**
+     * Convertit un Comment dont l'auteur et l'article sont des références (proxies)
+     * vers CommentDTO, sans initialiser ces proxies.
+     * Le nom de l'auteur et le titre de l'article sont renseignés par le service.
+     * Méthode nommée pour éviter l'ambiguïté avec toDTO().
+     *
+     * @param comment entité à convertir
+     * @return DTO sans authorUsername ni articleTitle
+     */
+    @Named("reference")
+    @Mapping(target = "authorId", source = "author.id")
+    @Mapping(target = "authorUsername", ignore = true)
+    @Mapping(target = "articleId", source = "article.id")
+    @Mapping(target = "articleTitle", ignore = true)
+    @Mapping(target = "provisionalId", ignore = true)
+    CommentDTO toReferenceDTO(Comment comment);
+
     /**
      * Convertit liste d'entités Comment vers liste de CommentDTO.
      * 
@@ -46,5 +46,7 @@ public interface SubjectMapper {
      */
     @Mapping(target = "subscribers", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "pullFeed", ignore = true)
+    @Mapping(target = "revision", ignore = true)
     Subject toEntity(SubjectDTO subjectDTO);
 }
\ No newline at end of file
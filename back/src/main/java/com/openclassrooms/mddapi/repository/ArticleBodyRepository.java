@@ -0,0 +1,27 @@
+package com.openclassrooms.mddapi.repository;
+
+import com.openclassrooms.mddapi.entity.ArticleBody;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository des contenus d'articles (table article_bodies, clé = ID de l'article).
+ *
+ * Seul le détail d'un article lit cette table ; les listes s'en tiennent
+ * aux lignes compactes de la table articles.
+ */
+@Repository
+public interface ArticleBodyRepository extends JpaRepository<ArticleBody, Long> {
+
+    /**
+     * Contenu d'un article avec l'article, son auteur et son sujet, en une requête.
+     *
+     * @param articleId ID de l'article
+     * @return contenu et article, ou vide si l'article n'existe pas
+     */
+    @EntityGraph(attributePaths = {"article", "article.author", "article.subject"})
+    Optional<ArticleBody> findWithArticleByArticleId(Long articleId);
+}
@@ -1,12 +1,20 @@
 package com.openclassrooms.mddapi.repository;
 
+import com.openclassrooms.mddapi.dto.ArticleSummaryDTO;
 import com.openclassrooms.mddapi.entity.Article;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 
 /**
@@ -15,26 +23,216 @@ import org.springframework.stereotype.Repository;
  * **RESPONSABILITÉ** : CRUD simple et méthodes de base uniquement.
  * Pas de logique métier complexe.
  *
- * MÉTHODES SIMPLES :
+ * MÉTHODES :
  * - CRUD de base (hérité de JpaRepository)
  * - Recherche par champ unique avec tri
- * - Pas de @Query complexes (logique dans le Service)
+ * - @Query de lecture : projections des listes (jointures auteur et sujet), seek pour la pagination
+ *   par curseur, clés de l'index des articles récents ; règles métier dans le Service
+ * - UPDATE atomiques du compteur de commentaires et de sa réconciliation
  *
  * PERFORMANCE :
  * - Utilise les méthodes Spring Data automatiques
  * - Exploite les index DB existants
  * - Pagination systématique
+ * - Listes lues par projection (résumé + extrait), sans requête par ligne ni contenu complet
  */
 @Repository
 public interface ArticleRepository extends JpaRepository<Article, Long> {
 
-    Page<Article> findBySubjectIdOrderByCreatedAtDesc(Long subjectId, Pageable pageable);
+    /**
+     * Projection des listes : colonnes des cartes et extrait stocké dans la ligne,
+     * sans lecture de la table article_bodies ni hydratation d'entités.
+     */
+    String SUMMARY_SELECT = "SELECT new com.openclassrooms.mddapi.dto.ArticleSummaryDTO(" +
+            "a.id, a.title, a.excerpt, a.createdAt, " +
+            "u.id, u.username, s.id, s.name, a.commentCount) ";
+
+    String SUMMARY_FROM = "FROM Article a JOIN a.author u JOIN a.subject s ";
+
+    /**
+     * Ajuste le nombre de commentaires d'un article et incrémente sa révision
+     * (ETag des commentaires et du détail), sans modifier sa date de mise à jour.
+     * UPDATE atomique : pas de lecture préalable, pas de mise à jour perdue.
+     *
+     * @param articleId ID de l'article
+     * @param delta     +1 à la création d'un commentaire, -1 à sa suppression
+     * @return nombre de lignes mises à jour
+     */
+    @Modifying
+    @Query("UPDATE Article a SET a.commentCount = a.commentCount + :delta, a.revision = a.revision + 1, " +
+            "a.updatedAt = a.updatedAt WHERE a.id = :articleId")
+    int adjustCommentCount(@Param("articleId") Long articleId, @Param("delta") long delta);
+
+    /**
+     * Recalcule le nombre de commentaires des articles d'une plage d'IDs dont le compteur a dérivé.
+     * Seules les lignes corrigées sont écrites (révision incrémentée, date de mise à jour conservée).
+     * Transaction propre à chaque plage : les verrous sont tenus le temps d'un lot.
+     *
+     * @param fromId borne basse exclue
+     * @param toId   borne haute incluse
+     * @return nombre d'articles corrigés
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE articles a " +
+            "SET a.comment_count = (SELECT COUNT(*) FROM comments c WHERE c.article_id = a.id), " +
+            "a.revision = a.revision + 1, a.updated_at = a.updated_at " +
+            "WHERE a.id > :fromId AND a.id <= :toId " +
+            "AND a.comment_count <> (SELECT COUNT(*) FROM comments c WHERE c.article_id = a.id)",
+            nativeQuery = true)
+    int reconcileCommentCounts(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * Plus grand ID d'article (borne du balayage de réconciliation).
+     *
+     * @return ID maximal, 0 si aucun article
+     */
+    @Query("SELECT COALESCE(MAX(a.id), 0) FROM Article a")
+    long findMaxId();
+
+    /**
+     * Titre d'un article (projection sur la clé primaire).
+     *
+     * @param articleId ID de l'article
+     * @return titre, vide si l'article n'existe pas
+     */
+    @Query("SELECT a.title FROM Article a WHERE a.id = :articleId")
+    Optional<String> findTitleById(@Param("articleId") Long articleId);
+
+    /**
+     * Titres d'articles par ID (ordre non garanti).
+     *
+     * @param ids IDs des articles
+     * @return paires [ID, titre] des articles trouvés
+     */
+    @Query("SELECT a.id, a.title FROM Article a WHERE a.id IN :ids")
+    List<Object[]> findTitlesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Révision d'un article.
+     *
+     * @param articleId ID de l'article
+     * @return révision, vide si l'article n'existe pas
+     */
+    @Query("SELECT a.revision FROM Article a WHERE a.id = :articleId")
+    Optional<Long> findRevisionById(@Param("articleId") Long articleId);
+
+    /**
+     * Articles d'un sujet, plus récent en premier.
+     * Slice : size + 1 lignes lues, sans requête de comptage.
+     *
+     * @param subjectId ID du sujet
+     * @param pageable  pagination
+     * @return Slice de résumés d'articles du sujet
+     */
+    @Query(SUMMARY_SELECT + SUMMARY_FROM +
+            "WHERE s.id = :subjectId ORDER BY a.createdAt DESC")
+    Slice<ArticleSummaryDTO> findSummariesBySubjectId(@Param("subjectId") Long subjectId, Pageable pageable);
+
+    /**
+     * Tous les articles, tri porté par le Pageable.
+     * Slice : size + 1 lignes lues, sans requête de comptage.
+     *
+     * @param pageable pagination et tri
+     * @return Slice de résumés d'articles
+     */
+    @Query(SUMMARY_SELECT + SUMMARY_FROM)
+    Slice<ArticleSummaryDTO> findSummaries(Pageable pageable);
+
+    /**
+     * Résumés d'articles par ID (ordre non garanti).
+     *
+     * @param ids IDs des articles
+     * @return résumés trouvés
+     */
+    @Query(SUMMARY_SELECT + SUMMARY_FROM + "WHERE a.id IN :ids")
+    List<ArticleSummaryDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // ============================================================================
+    // PAGINATION PAR CURSEUR (seek sur l'index (created_at, id), sans OFFSET)
+    // ============================================================================
+
+    /**
+     * Première page, du plus récent au plus ancien.
+     */
+    @Query(SUMMARY_SELECT + SUMMARY_FROM + "ORDER BY a.createdAt DESC, a.id DESC")
+    List<ArticleSummaryDTO> findSummariesFirstPage(Pageable pageable);
+
+    /**
+     * Page suivant le curseur (createdAt, id), du plus récent au plus ancien.
+     */
+    @Query(SUMMARY_SELECT + SUMMARY_FROM +
+            "WHERE a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id) " +
+            "ORDER BY a.createdAt DESC, a.id DESC")
+    List<ArticleSummaryDTO> findSummariesBefore(@Param("createdAt") LocalDateTime createdAt,
+                                                @Param("id") Long id,
+                                                Pageable pageable);
+
+    /**
+     * Première page, du plus ancien au plus récent.
+     */
+    @Query(SUMMARY_SELECT + SUMMARY_FROM + "ORDER BY a.createdAt ASC, a.id ASC")
+    List<ArticleSummaryDTO> findSummariesFirstPageAsc(Pageable pageable);
+
+    /**
+     * Page suivant le curseur (createdAt, id), du plus ancien au plus récent.
+     */
+    @Query(SUMMARY_SELECT + SUMMARY_FROM +
+            "WHERE a.createdAt > :createdAt OR (a.createdAt = :createdAt AND a.id > :id) " +
+            "ORDER BY a.createdAt ASC, a.id ASC")
+    List<ArticleSummaryDTO> findSummariesAfter(@Param("createdAt") LocalDateTime createdAt,
+                                               @Param("id") Long id,
+                                               Pageable pageable);
+
+    /**
+     * Première page des articles d'un sujet (index (subject_id, created_at, id)).
+     */
+    @Query(SUMMARY_SELECT + SUMMARY_FROM +
+            "WHERE s.id = :subjectId ORDER BY a.createdAt DESC, a.id DESC")
+    List<ArticleSummaryDTO> findSubjectSummariesFirstPage(@Param("subjectId") Long subjectId, Pageable pageable);
+
+    /**
+     * Page suivant le curseur (createdAt, id) des articles d'un sujet.
+     */
+    @Query(SUMMARY_SELECT + SUMMARY_FROM +
+            "WHERE s.id = :subjectId " +
+            "AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)) " +
+            "ORDER BY a.createdAt DESC, a.id DESC")
+    List<ArticleSummaryDTO> findSubjectSummariesBefore(@Param("subjectId") Long subjectId,
+                                                       @Param("createdAt") LocalDateTime createdAt,
+                                                       @Param("id") Long id,
+                                                       Pageable pageable);
+
+    // ============================================================================
+    // INDEX EN MÉMOIRE DES ARTICLES RÉCENTS
+    // ============================================================================
+
+    /**
+     * Clés (id, createdAt) des articles les plus récents d'un sujet.
+     *
+     * @param subjectId ID du sujet
+     * @param pageable  limite (capacité de l'index)
+     * @return paires [id, createdAt], du plus récent au plus ancien
+     */
+    @Query("SELECT a.id, a.createdAt FROM Article a WHERE a.subject.id = :subjectId " +
+            "ORDER BY a.createdAt DESC, a.id DESC")
+    List<Object[]> findRecentKeysBySubjectId(@Param("subjectId") Long subjectId, Pageable pageable);
+
+    /**
+     * Clés (id, subjectId, createdAt) des articles créés depuis une date.
+     *
+     * @param since borne inférieure incluse
+     * @return triplets [id, subjectId, createdAt]
+     */
+    @Query("SELECT a.id, a.subject.id, a.createdAt FROM Article a WHERE a.createdAt >= :since")
+    List<Object[]> findKeysCreatedSince(@Param("since") LocalDateTime since);
 
-    @Query("SELECT a FROM Article a " +
-            "WHERE a.subject IN (" +
-            "  SELECT s FROM User u JOIN u.subscribedSubjects s " +
-            "  WHERE u.id = :userId" +
-            ") " +
-            "ORDER BY a.createdAt DESC")
-    Page<Article> findPersonalizedFeed(@Param("userId") Long userId, Pageable pageable);
+    /**
+     * Date de création telle que stockée en base (précision de la colonne).
+     *
+     * @param id ID de l'article
+     * @return date de création si l'article existe
+     */
+    @Query("SELECT a.createdAt FROM Article a WHERE a.id = :id")
+    Optional<LocalDateTime> findCreatedAtById(@Param("id") Long id);
 }
@@ -1,45 +1,161 @@
 package com.openclassrooms.mddapi.repository;
 
+import com.openclassrooms.mddapi.dto.CommentDTO;
 import com.openclassrooms.mddapi.entity.Comment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * Repository Comment - Accès aux données selon spécifications MVP MDD.
  *
  * **RESPONSABILITÉ** : CRUD simple et méthodes de base uniquement.
  * Pas de logique métier complexe.
  *
- * MÉTHODES SIMPLES :
+ * MÉTHODES :
  * - CRUD de base (hérité de JpaRepository)
- * - Recherche par article avec tri chronologique
- * - Pas de @Query complexes (logique dans le Service)
+ * - @Query du fil d'un article (pages, curseur, suivi) : projection en une requête
+ *   (article en table directrice, commentaires et auteurs en jointure externe),
+ *   seek par curseur ; règles métier dans le Service
  *
  * PERFORMANCE :
  * - Utilise les index DB existants (fk_comments_article, fk_comments_author)
  * - Pagination systématique
  * - Tri par date de création (ordre chronologique)
+ * - Listes par auteur chargées avec auteur et article (entity graph), sans requête par ligne
  */
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     /**
-     * Récupère les commentaires d'un article par ordre chronologique.
+     * Fil des commentaires d'un article en une requête : l'article est la table directrice,
+     * ses commentaires et leurs auteurs en jointure externe (projection, sans entités).
+     *
+     * - Article sans commentaire : une ligne unique sans ID de commentaire
+     * - Article inexistant : aucune ligne (page 0)
+     *
+     * PERFORMANCE : clé primaire de l'article puis index (article_id, created_at, id).
+     *
+     * @param articleId ID de l'article
+     * @param pageable  paramètres de pagination
+     * @return Slice de CommentDTO du plus ancien au plus récent (titre de l'article renseigné)
+     */
+    @Query("SELECT new com.openclassrooms.mddapi.dto.CommentDTO(" +
+            "c.id, c.content, c.createdAt, u.id, u.username, a.id, a.title) " +
+            "FROM Article a LEFT JOIN Comment c ON c.article = a LEFT JOIN c.author u " +
+            "WHERE a.id = :articleId " +
+            "ORDER BY c.createdAt ASC, c.id ASC")
+    Slice<CommentDTO> findThreadByArticleId(@Param("articleId") Long articleId, Pageable pageable);
+
+    /**
+     * Première page du fil d'un article en pagination par curseur, en une requête
+     * (article en table directrice, commentaires et auteurs en jointure externe).
+     *
+     * - Article sans commentaire : une ligne unique sans ID de commentaire
+     * - Article inexistant : aucune ligne
+     *
+     * PERFORMANCE : clé primaire de l'article puis index (article_id, created_at, id).
+     *
+     * @param articleId ID de l'article
+     * @param pageable  limite (size + 1)
+     * @return CommentDTO du plus ancien au plus récent (titre de l'article renseigné)
+     */
+    @Query("SELECT new com.openclassrooms.mddapi.dto.CommentDTO(" +
+            "c.id, c.content, c.createdAt, u.id, u.username, a.id, a.title) " +
+            "FROM Article a LEFT JOIN Comment c ON c.article = a LEFT JOIN c.author u " +
+            "WHERE a.id = :articleId " +
+            "ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommentDTO> findThreadFirstPage(@Param("articleId") Long articleId, Pageable pageable);
+
+    /**
+     * Page suivante du fil d'un article : commentaires postérieurs au curseur (createdAt, id),
+     * sans OFFSET, en une requête ; le curseur porte sur la jointure externe.
+     *
+     * - Plus de commentaire après le curseur : une ligne unique sans ID de commentaire
+     * - Article inexistant : aucune ligne
+     *
+     * @param articleId ID de l'article
+     * @param createdAt date du dernier commentaire lu
+     * @param id        ID du dernier commentaire lu
+     * @param pageable  limite (size + 1)
+     * @return CommentDTO du plus ancien au plus récent (titre de l'article renseigné)
+     */
+    @Query("SELECT new com.openclassrooms.mddapi.dto.CommentDTO(" +
+            "c.id, c.content, c.createdAt, u.id, u.username, a.id, a.title) " +
+            "FROM Article a LEFT JOIN Comment c ON c.article = a " +
+            "AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " +
+            "LEFT JOIN c.author u " +
+            "WHERE a.id = :articleId " +
+            "ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommentDTO> findThreadPageAfter(@Param("articleId") Long articleId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+
+    /**
+     * Début du fil des commentaires d'un article, limité aux commentaires créés avant une date
+     * (suivi d'un fil : voir findThreadAfter).
+     *
+     * - Aucun commentaire avant la date : une ligne unique sans ID de commentaire
+     * - Article inexistant : aucune ligne
+     *
+     * @param articleId ID de l'article
+     * @param until     borne haute exclue de la date de création
+     * @param pageable  limite (size + 1)
+     * @return CommentDTO du plus ancien au plus récent (titre de l'article renseigné)
+     */
+    @Query("SELECT new com.openclassrooms.mddapi.dto.CommentDTO(" +
+            "c.id, c.content, c.createdAt, u.id, u.username, a.id, a.title) " +
+            "FROM Article a LEFT JOIN Comment c ON c.article = a AND c.createdAt < :until " +
+            "LEFT JOIN c.author u " +
+            "WHERE a.id = :articleId " +
+            "ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommentDTO> findThreadUntil(@Param("articleId") Long articleId,
+                                     @Param("until") LocalDateTime until,
+                                     Pageable pageable);
+
+    /**
+     * Commentaires d'un article postérieurs au curseur (createdAt, id) et créés avant une date,
+     * en une requête : l'article est la table directrice, le curseur porte sur la jointure externe.
+     *
+     * La borne haute exclut les commentaires trop récents, dont la transaction peut être encore
+     * ouverte : un commentaire de date ou d'ID inférieur validé après coup serait sinon
+     * dépassé par le curseur du client, et jamais lu.
      *
-     * RÈGLE MÉTIER : Affichage par ordre chronologique (plus ancien en premier
-     * pour faciliter la lecture des échanges).
+     * - Aucun nouveau commentaire : une ligne unique sans ID de commentaire
+     * - Article inexistant : aucune ligne
      *
-     * PERFORMANCE : Utilise l'index fk_comments_article sur article_id.
+     * PERFORMANCE : clé primaire de l'article puis recherche par intervalle sur
+     * l'index (article_id, created_at, id), limitée aux nouvelles lignes.
      *
      * @param articleId ID de l'article
-     * @param pageable  paramètres de pagination et tri
-     * @return Page de commentaires de l'article triés par date
+     * @param createdAt date du dernier commentaire connu du client
+     * @param id        ID du dernier commentaire connu du client
+     * @param until     borne haute exclue de la date de création
+     * @param pageable  limite (size + 1)
+     * @return CommentDTO du plus ancien au plus récent (titre de l'article renseigné)
      */
-    Page<Comment> findByArticleIdOrderByCreatedAtAsc(Long articleId, Pageable pageable);
+    @Query("SELECT new com.openclassrooms.mddapi.dto.CommentDTO(" +
+            "c.id, c.content, c.createdAt, u.id, u.username, a.id, a.title) " +
+            "FROM Article a LEFT JOIN Comment c ON c.article = a " +
+            "AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " +
+            "AND c.createdAt < :until " +
+            "LEFT JOIN c.author u " +
+            "WHERE a.id = :articleId " +
+            "ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommentDTO> findThreadAfter(@Param("articleId") Long articleId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     @Param("until") LocalDateTime until,
+                                     Pageable pageable);
 
     /**
      * Compte le nombre de commentaires d'un article.
@@ -58,6 +174,7 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
      * @param pageable paramètres de pagination
      * @return Page de commentaires de l'auteur
      */
+    @EntityGraph(attributePaths = {"author", "article"})
     Page<Comment> findByAuthorIdOrderByCreatedAtDesc(Long authorId, Pageable pageable);
 
     /**
@@ -77,6 +194,7 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
      * @param pageable paramètres de pagination
      * @return Page des derniers commentaires
      */
+    @EntityGraph(attributePaths = {"author", "article"})
     Page<Comment> findAllByOrderByCreatedAtDesc(Pageable pageable);
 
     /**
@@ -0,0 +1,70 @@
+package com.openclassrooms.mddapi.repository;
+
+import com.openclassrooms.mddapi.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository pour la gestion des refresh tokens.
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Recherche un token par son hash, avec son utilisateur (une seule requête).
+     */
+    @Query("SELECT t FROM RefreshToken t JOIN FETCH t.user WHERE t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHashWithUser(@Param("tokenHash") String tokenHash);
+
+    /**
+     * Recherche un token actif créé après une date, par lecture verrouillante
+     * (dernière version validée, y compris par une transaction concurrente).
+     *
+     * @param tokenHash    hash du token
+     * @param createdAfter borne basse exclue de la date de création
+     * @return token actif s'il existe
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM RefreshToken t WHERE t.tokenHash = :tokenHash " +
+            "AND t.revokedAt IS NULL AND t.createdAt > :createdAfter")
+    Optional<RefreshToken> findActiveCreatedAfter(@Param("tokenHash") String tokenHash,
+                                                  @Param("createdAfter") LocalDateTime createdAfter);
+
+    /**
+     * Révoque un token s'il est encore actif.
+     *
+     * @return 1 si révoqué, 0 si déjà révoqué (utilisation concurrente ou rejouée)
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.id = :id AND t.revokedAt IS NULL")
+    int revokeIfActive(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Révoque tous les tokens actifs d'une famille de rotation.
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.familyId = :familyId AND t.revokedAt IS NULL")
+    int revokeFamily(@Param("familyId") String familyId, @Param("now") LocalDateTime now);
+
+    /**
+     * Révoque tous les tokens actifs d'un utilisateur.
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.user.id = :userId AND t.revokedAt IS NULL")
+    int revokeAllByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    /**
+     * Supprime les tokens expirés (révoqués ou non).
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
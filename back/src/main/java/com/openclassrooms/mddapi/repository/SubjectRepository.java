@@ -4,10 +4,12 @@ import com.openclassrooms.mddapi.entity.Subject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -52,6 +54,107 @@ public interface SubjectRepository extends JpaRepository<Subject, Long> {
            "WHERE u.id = :userId AND s.id = :subjectId")
     boolean isUserSubscribedToSubject(@Param("subjectId") Long subjectId, @Param("userId") Long userId);
 
+    /**
+     * Récupère les IDs des sujets auxquels un utilisateur est abonné.
+     * Lit uniquement la table de jointure, sans charger l'utilisateur.
+     *
+     * @param userId ID de l'utilisateur
+     * @return IDs des sujets suivis
+     */
+    @Query("SELECT s.id FROM User u JOIN u.subscribedSubjects s WHERE u.id = :userId")
+    List<Long> findSubscribedSubjectIds(@Param("userId") Long userId);
+
+    /**
+     * Récupère les IDs de tous les sujets.
+     *
+     * @return IDs des sujets
+     */
+    @Query("SELECT s.id FROM Subject s")
+    List<Long> findAllIds();
+
+    /**
+     * Récupère les IDs des sujets en mode pull auxquels un utilisateur est abonné.
+     *
+     * @param userId ID de l'utilisateur
+     * @return IDs des sujets suivis lus à la demande
+     */
+    @Query("SELECT s.id FROM User u JOIN u.subscribedSubjects s WHERE u.id = :userId AND s.pullFeed = true")
+    List<Long> findSubscribedPullSubjectIds(@Param("userId") Long userId);
+
+    /**
+     * Indique si un sujet est en mode pull.
+     *
+     * @param subjectId ID du sujet
+     * @return mode pull, vide si le sujet n'existe pas
+     */
+    @Query("SELECT s.pullFeed FROM Subject s WHERE s.id = :subjectId")
+    Optional<Boolean> findPullFeedById(@Param("subjectId") Long subjectId);
+
+    /**
+     * Compte les abonnés d'un sujet (table de jointure uniquement).
+     *
+     * @param subjectId ID du sujet
+     * @return nombre d'abonnés
+     */
+    @Query(value = "SELECT COUNT(*) FROM subscriptions WHERE subject_id = :subjectId", nativeQuery = true)
+    long countSubscribers(@Param("subjectId") Long subjectId);
+
+    /**
+     * Passe un sujet en mode pull (définitif).
+     *
+     * @param subjectId ID du sujet
+     * @return nombre de lignes mises à jour
+     */
+    @Modifying
+    @Query("UPDATE Subject s SET s.pullFeed = true WHERE s.id = :subjectId")
+    int markPullFeed(@Param("subjectId") Long subjectId);
+
+    /**
+     * Incrémente la révision d'un sujet.
+     *
+     * @param subjectId ID du sujet
+     * @return nombre de lignes mises à jour
+     */
+    @Modifying
+    @Query("UPDATE Subject s SET s.revision = s.revision + 1 WHERE s.id = :subjectId")
+    int incrementRevision(@Param("subjectId") Long subjectId);
+
+    /**
+     * Nom d'un sujet (projection sur la clé primaire).
+     *
+     * @param subjectId ID du sujet
+     * @return nom, vide si le sujet n'existe pas
+     */
+    @Query("SELECT s.name FROM Subject s WHERE s.id = :subjectId")
+    Optional<String> findNameById(@Param("subjectId") Long subjectId);
+
+    /**
+     * Révision d'un sujet.
+     *
+     * @param subjectId ID du sujet
+     * @return révision, vide si le sujet n'existe pas
+     */
+    @Query("SELECT s.revision FROM Subject s WHERE s.id = :subjectId")
+    Optional<Long> findRevisionById(@Param("subjectId") Long subjectId);
+
+    /**
+     * Révisions des sujets suivis par un utilisateur, par ID croissant.
+     *
+     * @param userId ID de l'utilisateur
+     * @return paires [ID du sujet, révision]
+     */
+    @Query("SELECT s.id, s.revision FROM User u JOIN u.subscribedSubjects s WHERE u.id = :userId ORDER BY s.id")
+    List<Object[]> findSubscribedSubjectRevisions(@Param("userId") Long userId);
+
+    /**
+     * Révision du catalogue des sujets : somme des (révision + 1), strictement
+     * croissante à chaque création de sujet ou incrément de révision.
+     *
+     * @return révision du catalogue
+     */
+    @Query("SELECT COALESCE(SUM(s.revision + 1), 0) FROM Subject s")
+    long sumRevisions();
+
     /**
      * Liste paginée des sujets triée par ordre alphabétique.
      *
@@ -60,6 +163,23 @@ public interface SubjectRepository extends JpaRepository<Subject, Long> {
      */
     Page<Subject> findAllByOrderByNameAsc(Pageable pageable);
 
+    /**
+     * Première page des sujets en pagination par curseur.
+     *
+     * @param pageable limite (size + 1)
+     * @return sujets triés par nom
+     */
+    List<Subject> findAllByOrderByNameAscIdAsc(Pageable pageable);
+
+    /**
+     * Sujets dont le nom suit le curseur (nom unique, index uk_subjects_name).
+     *
+     * @param name     nom du dernier sujet lu
+     * @param pageable limite (size + 1)
+     * @return sujets triés par nom
+     */
+    List<Subject> findByNameGreaterThanOrderByNameAscIdAsc(String name, Pageable pageable);
+
     /**
      * Vérifie l'existence d'un sujet par son nom en ignorant la casse.
      *
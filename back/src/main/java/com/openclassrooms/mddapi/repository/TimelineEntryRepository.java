@@ -0,0 +1,130 @@
+package com.openclassrooms.mddapi.repository;
+
+import com.openclassrooms.mddapi.dto.ArticleSummaryDTO;
+import com.openclassrooms.mddapi.entity.TimelineEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository des timelines matérialisées du fil d'actualité.
+ * Les lectures du fil retournent des résumés d'articles (projection, sans contenu complet).
+ *
+ * Les écritures sont des requêtes natives ensemblistes (une instruction par publication,
+ * abonnement ou désabonnement), sans chargement d'entités.
+ * Les insertions sont des INSERT IGNORE : une entrée déjà écrite par une écriture concurrente
+ * (fan-out, rattrapage, complément à l'abonnement) est ignorée par la contrainte
+ * uk_timeline_entries_user_article, sans faire échouer l'instruction entière.
+ */
+@Repository
+public interface TimelineEntryRepository extends JpaRepository<TimelineEntry, Long> {
+
+    /**
+     * Fan-out d'un article vers la timeline de tous les abonnés de son sujet.
+     *
+     * @return nombre d'entrées créées
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO timeline_entries (user_id, created_at, article_id, subject_id) " +
+            "SELECT sub.user_id, :createdAt, :articleId, :subjectId FROM subscriptions sub " +
+            "WHERE sub.subject_id = :subjectId",
+            nativeQuery = true)
+    int fanOut(@Param("articleId") Long articleId,
+               @Param("subjectId") Long subjectId,
+               @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Rattrapage des fan-out : recopie les articles d'une plage de dates de création
+     * dans les timelines des abonnés de leur sujet (mode push) qui ne les ont pas encore.
+     * Transaction propre à chaque plage.
+     *
+     * @param from borne basse incluse
+     * @param to   borne haute exclue
+     * @return nombre d'entrées créées (0 si aucun fan-out n'a échoué)
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO timeline_entries (user_id, created_at, article_id, subject_id) " +
+            "SELECT sub.user_id, a.created_at, a.id, a.subject_id FROM articles a " +
+            "JOIN subjects s ON s.id = a.subject_id " +
+            "JOIN subscriptions sub ON sub.subject_id = a.subject_id " +
+            "WHERE a.created_at >= :from AND a.created_at < :to AND s.pull_feed = FALSE",
+            nativeQuery = true)
+    int repairFanOut(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Recopie les articles d'un sujet dans la timeline d'un nouvel abonné.
+     * Sans effet pour un sujet en mode pull, lu directement depuis les articles.
+     *
+     * @return nombre d'entrées créées
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO timeline_entries (user_id, created_at, article_id, subject_id) " +
+            "SELECT :userId, a.created_at, a.id, a.subject_id FROM articles a " +
+            "JOIN subjects s ON s.id = a.subject_id " +
+            "WHERE a.subject_id = :subjectId AND s.pull_feed = FALSE",
+            nativeQuery = true)
+    int backfill(@Param("userId") Long userId, @Param("subjectId") Long subjectId);
+
+    /**
+     * Supprime les entrées d'un sujet de la timeline d'un utilisateur.
+     *
+     * @return nombre d'entrées supprimées
+     */
+    @Modifying
+    @Query(value = "DELETE FROM timeline_entries WHERE user_id = :userId AND subject_id = :subjectId",
+            nativeQuery = true)
+    int prune(@Param("userId") Long userId, @Param("subjectId") Long subjectId);
+
+    /**
+     * Page de la timeline matérialisée (parcours d'intervalle sur user_id, created_at).
+     * Slice : size + 1 lignes lues, sans requête de comptage.
+     */
+    @Query(ArticleRepository.SUMMARY_SELECT + ArticleRepository.SUMMARY_FROM + ", TimelineEntry t " +
+            "WHERE a.id = t.articleId AND t.userId = :userId " +
+            "ORDER BY t.createdAt DESC, t.articleId DESC")
+    Slice<ArticleSummaryDTO> findTimeline(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Nombre d'articles de la timeline d'un utilisateur (total approximatif mis en cache).
+     */
+    long countByUserId(Long userId);
+
+    /**
+     * Page de la timeline suivant le curseur (createdAt, articleId), sans OFFSET ni comptage.
+     */
+    @Query(ArticleRepository.SUMMARY_SELECT + ArticleRepository.SUMMARY_FROM + ", TimelineEntry t " +
+            "WHERE a.id = t.articleId AND t.userId = :userId " +
+            "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.articleId < :id)) " +
+            "ORDER BY t.createdAt DESC, t.articleId DESC")
+    List<ArticleSummaryDTO> findTimelinePageBefore(@Param("userId") Long userId,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
+
+    /**
+     * Première page de la timeline en pagination par curseur.
+     */
+    @Query(ArticleRepository.SUMMARY_SELECT + ArticleRepository.SUMMARY_FROM + ", TimelineEntry t " +
+            "WHERE a.id = t.articleId AND t.userId = :userId " +
+            "ORDER BY t.createdAt DESC, t.articleId DESC")
+    List<ArticleSummaryDTO> findTimelineFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Nombre d'articles du fil hybride (total approximatif mis en cache).
+     */
+    @Query("SELECT COUNT(a) FROM Article a " +
+            "WHERE a.subject.id IN :pullSubjectIds " +
+            "OR a.id IN (SELECT t.articleId FROM TimelineEntry t WHERE t.userId = :userId)")
+    long countHybridFeed(@Param("userId") Long userId,
+                         @Param("pullSubjectIds") Collection<Long> pullSubjectIds);
+}
@@ -2,8 +2,12 @@ package com.openclassrooms.mddapi.repository;
 
 import com.openclassrooms.mddapi.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -22,4 +26,73 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     Optional<User> findByUsername(String username);
 
+    /**
+     * Recherche en une seule requête les utilisateurs dont l'email ou le nom d'utilisateur
+     * correspond à l'identifiant de connexion (au plus deux lignes).
+     */
+    @Query("SELECT u FROM User u WHERE u.email = :login OR u.username = :login")
+    List<User> findAllByEmailOrUsername(@Param("login") String login);
+
+    /**
+     * Résout l'identifiant de connexion (email ou nom d'utilisateur) en un seul SELECT.
+     * Une correspondance sur l'email est prioritaire sur le nom d'utilisateur.
+     */
+    default Optional<User> findByEmailOrUsername(String login) {
+        List<User> users = findAllByEmailOrUsername(login);
+        return users.stream()
+                .filter(user -> login.equals(user.getEmail()))
+                .findFirst()
+                .or(() -> users.stream().findFirst());
+    }
+
+    /**
+     * IDs et emails des comptes correspondant à l'identifiant de connexion (au plus deux lignes),
+     * sans charger les entités.
+     */
+    @Query("SELECT u.id, u.email FROM User u WHERE u.email = :login OR u.username = :login")
+    List<Object[]> findIdsByEmailOrUsername(@Param("login") String login);
+
+    /**
+     * Résout l'identifiant de connexion en ID de compte, avec la même priorité que findByEmailOrUsername.
+     */
+    default Optional<Long> findIdByEmailOrUsername(String login) {
+        List<Object[]> accounts = findIdsByEmailOrUsername(login);
+        return accounts.stream()
+                .filter(account -> login.equals(account[1]))
+                .findFirst()
+                .or(() -> accounts.stream().findFirst())
+                .map(account -> (Long) account[0]);
+    }
+
+    /**
+     * Remplace le hash du mot de passe s'il n'a pas été modifié depuis sa lecture.
+     * La date de mise à jour est conservée : le rehash n'est pas une modification du profil.
+     *
+     * @return nombre de lignes mises à jour (0 si le mot de passe a changé entre-temps)
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newPassword, u.updatedAt = u.updatedAt " +
+            "WHERE u.email = :email AND u.password = :oldPassword")
+    int updatePasswordIfUnchanged(@Param("email") String email,
+                                  @Param("oldPassword") String oldPassword,
+                                  @Param("newPassword") String newPassword);
+
+    /**
+     * Ajoute un abonnement directement dans la table de jointure,
+     * sans charger l'utilisateur ni sa collection d'abonnements.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO subscriptions (user_id, subject_id) VALUES (:userId, :subjectId)",
+            nativeQuery = true)
+    int addSubscription(@Param("userId") Long userId, @Param("subjectId") Long subjectId);
+
+    /**
+     * Supprime un abonnement directement dans la table de jointure.
+     *
+     * @return nombre de lignes supprimées (0 si l'utilisateur n'était pas abonné)
+     */
+    @Modifying
+    @Query(value = "DELETE FROM subscriptions WHERE user_id = :userId AND subject_id = :subjectId",
+            nativeQuery = true)
+    int removeSubscription(@Param("userId") Long userId, @Param("subjectId") Long subjectId);
 }
\ No newline at end of file
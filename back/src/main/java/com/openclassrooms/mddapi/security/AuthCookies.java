@@ -0,0 +1,63 @@
+package com.openclassrooms.mddapi.security;
+
+import com.openclassrooms.mddapi.service.RefreshTokenService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+
+/**
+ * Construction des cookies HttpOnly d'authentification.
+ *
+ * - "jwt" : access token de courte durée, envoyé sur toutes les requêtes
+ * - "refresh_token" : refresh token, limité au chemin /api/auth
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthCookies {
+
+    public static final String ACCESS_COOKIE = "jwt";
+    public static final String REFRESH_COOKIE = "refresh_token";
+
+    private static final String ACCESS_PATH = "/";
+    private static final String REFRESH_PATH = "/api/auth";
+
+    private final JwtUtils jwtUtils;
+    private final RefreshTokenService refreshTokenService;
+
+    /**
+     * Cookie portant l'access token.
+     */
+    public ResponseCookie accessCookie(String jwt) {
+        return build(ACCESS_COOKIE, jwt, ACCESS_PATH, jwtUtils.getJwtExpirationSeconds());
+    }
+
+    /**
+     * Cookie portant le refresh token.
+     */
+    public ResponseCookie refreshCookie(String refreshToken) {
+        return build(REFRESH_COOKIE, refreshToken, REFRESH_PATH, refreshTokenService.getRefreshExpirationSeconds());
+    }
+
+    /**
+     * Cookie supprimant l'access token côté navigateur.
+     */
+    public ResponseCookie clearAccessCookie() {
+        return build(ACCESS_COOKIE, "", ACCESS_PATH, 0);
+    }
+
+    /**
+     * Cookie supprimant le refresh token côté navigateur.
+     */
+    public ResponseCookie clearRefreshCookie() {
+        return build(REFRESH_COOKIE, "", REFRESH_PATH, 0);
+    }
+
+    private ResponseCookie build(String name, String value, String path, long maxAgeSeconds) {
+        return ResponseCookie.from(name, value)
+                .httpOnly(true)
+                .secure(false) // temporaire pour dev local
+                .path(path)
+                .maxAge(maxAgeSeconds)
+                .build();
+    }
+}
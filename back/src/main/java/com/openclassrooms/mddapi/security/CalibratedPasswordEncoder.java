@@ -0,0 +1,111 @@
+package com.openclassrooms.mddapi.security;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Encodeur BCrypt dont le coût est calibré au démarrage selon le matériel.
+ *
+ * Mesure le temps de hashage et retient le coût le plus élevé qui respecte
+ * la latence cible, borné par [minCost, maxCost]. La vérification accepte
+ * tous les coûts et variantes ($2a$, $2b$, $2y$) ; upgradeEncoding() signale
+ * les hashes dont le coût diffère, pour un rehash transparent à la connexion
+ * (voir DaoAuthenticationProvider#setUserDetailsPasswordService).
+ */
+@Slf4j
+public class CalibratedPasswordEncoder implements PasswordEncoder {
+
+    private static final String CALIBRATION_PASSWORD = "Calibration-Password-1";
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    @Getter
+    private final int cost;
+    private final BCryptPasswordEncoder delegate;
+
+    /**
+     * @param targetMs latence cible d'un hashage, en millisecondes
+     * @param minCost  coût minimal accepté (plancher de sécurité)
+     * @param maxCost  coût maximal accepté
+     */
+    public CalibratedPasswordEncoder(long targetMs, int minCost, int maxCost) {
+        if (minCost < 4 || maxCost > 31 || minCost > maxCost) {
+            throw new IllegalArgumentException("Bornes de coût BCrypt invalides : " + minCost + "-" + maxCost);
+        }
+        this.cost = calibrate(targetMs, minCost, maxCost);
+        this.delegate = new BCryptPasswordEncoder(cost);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    /**
+     * Indique si un hash doit être recalculé : coût différent du coût calibré
+     * ou format non reconnu.
+     *
+     * @param encodedPassword hash stocké
+     * @return true si le hash doit être remplacé
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int storedCost = extractCost(encodedPassword);
+        return storedCost > 0 && storedCost != cost;
+    }
+
+    /**
+     * Retient le coût le plus élevé dont le temps de hashage mesuré reste sous la cible.
+     * Chaque incrément double le temps : la mesure s'arrête dès que la cible est dépassée.
+     */
+    private static int calibrate(long targetMs, int minCost, int maxCost) {
+        // Préchauffage JIT pour ne pas surestimer le premier coût mesuré
+        new BCryptPasswordEncoder(minCost).encode(CALIBRATION_PASSWORD);
+
+        int selected = minCost;
+        for (int candidate = minCost; candidate <= maxCost; candidate++) {
+            long elapsedMs = measure(candidate);
+            log.debug("Calibration BCrypt : coût {} → {} ms", candidate, elapsedMs);
+            if (elapsedMs > targetMs) {
+                break;
+            }
+            selected = candidate;
+        }
+
+        log.info("Coût BCrypt calibré : {} (cible {} ms, bornes {}-{})", selected, targetMs, minCost, maxCost);
+        return selected;
+    }
+
+    private static long measure(int candidate) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(candidate);
+        long start = System.nanoTime();
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            encoder.encode(CALIBRATION_PASSWORD);
+        }
+        return (System.nanoTime() - start) / CALIBRATION_ROUNDS / 1_000_000;
+    }
+
+    /**
+     * Extrait le coût d'un hash BCrypt au format $2x$NN$...
+     *
+     * @return le coût, ou -1 si le format n'est pas reconnu
+     */
+    private static int extractCost(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7
+                || encodedPassword.charAt(0) != '$' || encodedPassword.charAt(3) != '$'
+                || encodedPassword.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
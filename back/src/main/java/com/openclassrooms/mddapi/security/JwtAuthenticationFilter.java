@@ -1,14 +1,12 @@
 package com.openclassrooms.mddapi.security;
 
-import com.openclassrooms.mddapi.entity.User;
 import com.openclassrooms.mddapi.repository.UserRepository;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.lang.NonNull;
 
@@ -17,7 +15,6 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.ArrayList;
 
 /**
  * Filtre d'authentification JWT pour l'API MDD.
@@ -31,10 +28,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationService tokenRevocationService;
 
     /**
      * Filtre principal d'authentification JWT.
-     * Extrait et valide le token, puis configure l'authentification Spring Security.
+     * Vérifie le token en une seule analyse, écarte les tokens révoqués (filtre de Bloom,
+     * sans accès base dans le cas courant), puis configure l'authentification Spring Security.
      */
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
@@ -42,19 +42,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
 
         try {
-            String jwt = parseJwt(request);
+            String jwt = jwtUtils.resolveToken(request);
 
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            Claims claims = jwt != null ? jwtUtils.verify(jwt).orElse(null) : null;
 
-                User user = userRepository.findByEmail(username).orElse(null);
+            if (claims != null && !tokenRevocationService.isRevoked(claims.getId())) {
+                String username = claims.getSubject();
 
-                if (user != null) {
-                    UserDetails userDetails = createUserDetails(user);
+                UserPrincipal principal = principalCache.get(username, this::loadPrincipal);
 
+                if (principal != null && matchesUserId(claims, principal)) {
                     UsernamePasswordAuthenticationToken authentication =
                             new UsernamePasswordAuthenticationToken(
-                                    userDetails, null, userDetails.getAuthorities());
+                                    principal, null, principal.getAuthorities());
 
                     authentication.setDetails(
                             new WebAuthenticationDetailsSource().buildDetails(request));
@@ -70,42 +70,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
     /**
-     * Extrait le token JWT de l'en-tête Authorization ou du cookie "jwt".
-     * 
-     * @param request requête HTTP
-     * @return token JWT sans le préfixe "Bearer " ou null
+     * Charge l'utilisateur depuis la base en cas d'absence dans le cache.
+     *
+     * @param email sujet du token JWT
+     * @return principal ou null si l'utilisateur n'existe pas
      */
-    private String parseJwt(HttpServletRequest request) {
-        String headerAuth = request.getHeader("Authorization");
-
-        if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
-            return headerAuth.substring(7);
-        }
-
-        // Ajout : lecture du cookie "jwt"
-        if (request.getCookies() != null) {
-            for (javax.servlet.http.Cookie cookie : request.getCookies()) {
-                if ("jwt".equals(cookie.getName())) {
-                    return cookie.getValue();
-                }
-            }
-        }
-
-        return null;
+    private UserPrincipal loadPrincipal(String email) {
+        return userRepository.findByEmail(email)
+                .map(UserPrincipal::fromUser)
+                .orElse(null);
     }
 
     /**
-     * Crée un objet UserDetails pour Spring Security.
-     * 
-     * @param user entité utilisateur
-     * @return UserDetails configuré
+     * Vérifie que l'ID porté par le token correspond à l'utilisateur trouvé.
+     * Protège contre la réattribution d'un email à un autre compte.
+     * Les tokens sans claim userId (émis avant son introduction) restent acceptés.
+     *
+     * @param claims claims du token vérifié
+     * @param principal principal résolu depuis le sujet
+     * @return true si les identifiants concordent
      */
-    private UserDetails createUserDetails(User user) {
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())
-                .password(user.getPassword())
-                .authorities(new ArrayList<>())
-                .build();
+    private boolean matchesUserId(Claims claims, UserPrincipal principal) {
+        Long tokenUserId = JwtUtils.getUserId(claims);
+        return tokenUserId == null || tokenUserId.equals(principal.getId());
     }
 
     /**
@@ -1,16 +1,35 @@
 package com.openclassrooms.mddapi.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
+import javax.annotation.PostConstruct;
 import javax.crypto.SecretKey;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Utilitaires pour la gestion des tokens JWT dans l'application MDD.
@@ -21,11 +40,26 @@ import java.util.Date;
  * - Extraction des informations utilisateur
  * - Gestion de l'expiration et de la sécurité
  *
+ * PERFORMANCE : la clé HMAC et le parser sont construits une seule fois au démarrage,
+ * et les tokens déjà vérifiés sont conservés (par empreinte SHA-256) jusqu'à leur expiration.
+ * Les tokens rejetés sont comptés par motif (security.jwt.invalid) et journalisés par échantillonnage.
  */
 @Component
 @Slf4j
 public class JwtUtils {
 
+    /**
+     * Claim portant l'ID de l'utilisateur.
+     */
+    public static final String CLAIM_USER_ID = "userId";
+
+    /**
+     * Claim portant le nom d'utilisateur affiché.
+     */
+    public static final String CLAIM_USERNAME = "username";
+
+    private final MeterRegistry meterRegistry;
+
     /**
      * Clé secrète pour signer les tokens JWT.
      * Configurée via application.properties
@@ -40,10 +74,74 @@ public class JwtUtils {
     @Value("${app.jwt.expiration}")
     private long jwtExpirationMs;
 
+    /**
+     * Nombre maximal de tokens vérifiés conservés en cache.
+     */
+    @Value("${app.jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    /**
+     * Intervalle minimal entre deux messages de log pour un même motif de rejet.
+     */
+    @Value("${app.jwt.invalid-log-interval-ms:60000}")
+    private long invalidLogIntervalMs;
+
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+    private Cache<String, Claims> verifiedTokens;
+    private final Map<InvalidReason, InvalidTokenStats> invalidTokenStats = new EnumMap<>(InvalidReason.class);
+    private long invalidLogIntervalNanos;
+
+    public JwtUtils(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Construit la clé de signature, le parser, le cache des tokens vérifiés
+     * et les compteurs de tokens rejetés.
+     * Appelé une seule fois après l'injection des propriétés.
+     */
+    @PostConstruct
+    void init() {
+        this.signingKey = buildSigningKey();
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified");
+
+        this.invalidLogIntervalNanos = TimeUnit.MILLISECONDS.toNanos(invalidLogIntervalMs);
+        for (InvalidReason reason : InvalidReason.values()) {
+            invalidTokenStats.put(reason, new InvalidTokenStats(Counter.builder("security.jwt.invalid")
+                    .description("Tokens JWT rejetés, par motif")
+                    .tag("reason", reason.label)
+                    .register(meterRegistry)));
+        }
+    }
+
     // --- Opérations de base sur les tokens ---
 
     /**
      * Génère un token JWT pour un utilisateur authentifié.
+     * Les claims userId et username sont ajoutés lorsque le principal est un UserPrincipal.
      * @param authentication L'objet d'authentification contenant les informations de l'utilisateur.
      * @return Le token JWT généré.
      */
@@ -52,6 +150,10 @@ public class JwtUtils {
         if (authentication == null) {
             throw new IllegalArgumentException("L'objet d'authentification ne peut pas être nul.");
         }
+        if (authentication.getPrincipal() instanceof UserPrincipal) {
+            UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+            return generateToken(principal.getId(), principal.getEmail(), principal.getDisplayName());
+        }
         return generateTokenFromUsername(authentication.getName());
     }
 
@@ -61,41 +163,121 @@ public class JwtUtils {
      * @return Le token JWT généré.
      */
     public String generateTokenFromUsername(String username) {
-        if (username == null || username.trim().isEmpty()) {
+        return generateToken(null, username, null);
+    }
+
+    /**
+     * Génère un token JWT portant l'identité complète de l'utilisateur.
+     * L'email reste le sujet ; l'ID et le nom d'utilisateur sont portés par des claims
+     * pour éviter une recherche par email dans les services.
+     * Chaque token reçoit un identifiant unique (jti) permettant sa révocation.
+     * @param userId L'ID de l'utilisateur (claim userId), ignoré si null.
+     * @param email L'email de l'utilisateur (sujet du token).
+     * @param username Le nom d'utilisateur affiché (claim username), ignoré si null.
+     * @return Le token JWT généré.
+     */
+    public String generateToken(Long userId, String email, String username) {
+        if (email == null || email.trim().isEmpty()) {
             throw new IllegalArgumentException("Le nom d'utilisateur ne peut pas être nul ou vide.");
         }
 
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
 
-        return Jwts.builder()
-                .setSubject(username.trim())
+        JwtBuilder builder = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(email.trim())
                 .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setExpiration(expiryDate);
+
+        if (userId != null) {
+            builder.claim(CLAIM_USER_ID, userId);
+        }
+        if (username != null) {
+            builder.claim(CLAIM_USERNAME, username);
+        }
+
+        return builder
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     // --- Analyse et validation des tokens ---
 
+    /**
+     * Vérifie un token JWT (signature et expiration) et retourne ses claims.
+     * Un token déjà vérifié est servi depuis le cache jusqu'à son expiration,
+     * sans nouveau calcul HMAC ni nouvelle analyse JSON.
+     *
+     * @param token Le token JWT, avec ou sans préfixe "Bearer ".
+     * @return Les claims du token, ou Optional.empty() si le token est invalide.
+     */
+    public Optional<Claims> verify(String token) {
+        String cleanedToken = cleanToken(token);
+        if (cleanedToken == null || cleanedToken.isEmpty()) {
+            reportInvalid(InvalidReason.EMPTY, "token absent");
+            return Optional.empty();
+        }
+
+        String digest = digest(cleanedToken);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        try {
+            Claims claims = jwtParser.parseClaimsJws(cleanedToken).getBody();
+            if (claims.getExpiration() != null) {
+                verifiedTokens.put(digest, claims);
+            }
+            return Optional.of(claims);
+        } catch (MalformedJwtException e) {
+            reportInvalid(InvalidReason.MALFORMED, e.getMessage());
+        } catch (ExpiredJwtException e) {
+            reportInvalid(InvalidReason.EXPIRED, e.getMessage());
+        } catch (UnsupportedJwtException e) {
+            reportInvalid(InvalidReason.UNSUPPORTED, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            reportInvalid(InvalidReason.EMPTY, e.getMessage());
+        } catch (SignatureException e) {
+            reportInvalid(InvalidReason.SIGNATURE, e.getMessage());
+        } catch (Exception e) {
+            reportInvalid(InvalidReason.OTHER, e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Extrait le token JWT de l'en-tête Authorization ou du cookie "jwt".
+     *
+     * @param request requête HTTP
+     * @return token JWT sans le préfixe "Bearer " ou null
+     */
+    public String resolveToken(HttpServletRequest request) {
+        String headerAuth = request.getHeader("Authorization");
+
+        if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
+            return headerAuth.substring(7);
+        }
+
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (AuthCookies.ACCESS_COOKIE.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+
+        return null;
+    }
+
     /**
      * Extrait le nom d'utilisateur d'un token JWT.
      * @param token Le token JWT complet, incluant potentiellement le préfixe "Bearer ".
      * @return Le nom d'utilisateur ou null si le token est invalide.
      */
     public String getUserNameFromJwtToken(String token) {
-        try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(cleanToken(token))
-                    .getBody()
-                    .getSubject();
-        } catch (JwtException e) {
-            // Journalise l'exception pour comprendre pourquoi l'analyse a échoué
-            log.error("Token JWT invalide : {}", e.getMessage());
-            return null; // Retourne null au lieu de relancer une exception générique
-        }
+        return verify(token).map(Claims::getSubject).orElse(null);
     }
 
     /**
@@ -104,23 +286,17 @@ public class JwtUtils {
      * @return true si le token est valide, false sinon.
      */
     public boolean validateJwtToken(String authToken) {
-        try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(cleanToken(authToken));
-            return true;
-        } catch (MalformedJwtException e) {
-            log.error("Token JWT malformé : {}", e.getMessage());
-        } catch (ExpiredJwtException e) {
-            log.error("Token JWT expiré : {}", e.getMessage());
-        } catch (UnsupportedJwtException e) {
-            log.error("Token JWT non supporté : {}", e.getMessage());
-        } catch (IllegalArgumentException e) {
-            log.error("Chaîne de claims JWT vide : {}", e.getMessage());
-        } catch (SignatureException e) {
-            log.error("Signature JWT invalide : {}", e.getMessage());
-        } catch (Exception e) {
-            log.error("Une erreur inattendue s'est produite lors de la validation du token : {}", e.getMessage());
-        }
-        return false;
+        return verify(authToken).isPresent();
+    }
+
+    /**
+     * Extrait l'ID utilisateur des claims d'un token vérifié.
+     * @param claims Les claims du token.
+     * @return L'ID utilisateur, ou null si le token ne le porte pas.
+     */
+    public static Long getUserId(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        return userId != null ? userId.longValue() : null;
     }
 
     // --- Méthodes utilitaires ---
@@ -129,7 +305,7 @@ public class JwtUtils {
      * Génère la clé de signature sécurisée à partir de la chaîne de caractères.
      * @return La clé secrète.
      */
-    private SecretKey getSigningKey() {
+    private SecretKey buildSigningKey() {
         if (jwtSecret == null || jwtSecret.trim().isEmpty()) {
             throw new IllegalArgumentException("Le secret JWT ne peut pas être nul ou vide.");
         }
@@ -137,6 +313,22 @@ public class JwtUtils {
         return Keys.hmacShaKeyFor(keyBytes);
     }
 
+    /**
+     * Calcule l'empreinte SHA-256 d'un token, utilisée comme clé du cache.
+     * Le token lui-même n'est jamais conservé en mémoire.
+     * @param token Le token nettoyé.
+     * @return L'empreinte encodée en Base64.
+     */
+    private String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = messageDigest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Algorithme SHA-256 indisponible", e);
+        }
+    }
+
     /**
      * Nettoie le token en supprimant le préfixe "Bearer " si présent.
      * @param token Le token avec ou sans préfixe.
@@ -149,6 +341,59 @@ public class JwtUtils {
         return token;
     }
 
+    /**
+     * Comptabilise un token invalide et journalise au plus un message par motif et par intervalle.
+     * Le message indique le nombre d'occurrences non journalisées depuis le précédent,
+     * le compteur security.jwt.invalid conservant le total exact.
+     * @param reason Le motif de rejet.
+     * @param detail Le détail de l'exception.
+     */
+    private void reportInvalid(InvalidReason reason, String detail) {
+        InvalidTokenStats stats = invalidTokenStats.get(reason);
+        stats.counter.increment();
+
+        long now = System.nanoTime();
+        long nextLogAt = stats.nextLogAt.get();
+        if (now - nextLogAt >= 0 && stats.nextLogAt.compareAndSet(nextLogAt, now + invalidLogIntervalNanos)) {
+            long suppressed = stats.suppressed.getAndSet(0);
+            log.warn("Token JWT rejeté ({}) : {} [{} occurrence(s) non journalisée(s) depuis le dernier message]",
+                    reason.label, detail, suppressed);
+        } else {
+            stats.suppressed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Motifs de rejet d'un token, utilisés comme tag de métrique.
+     */
+    private enum InvalidReason {
+        EMPTY("empty"),
+        MALFORMED("malformed"),
+        EXPIRED("expired"),
+        UNSUPPORTED("unsupported"),
+        SIGNATURE("signature"),
+        OTHER("other");
+
+        private final String label;
+
+        InvalidReason(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * Compteur et état d'échantillonnage des logs pour un motif de rejet.
+     */
+    private static final class InvalidTokenStats {
+        private final Counter counter;
+        private final AtomicLong nextLogAt = new AtomicLong(System.nanoTime());
+        private final AtomicLong suppressed = new AtomicLong();
+
+        private InvalidTokenStats(Counter counter) {
+            this.counter = counter;
+        }
+    }
+
     // --- Getters pour les propriétés de configuration ---
 
     /**
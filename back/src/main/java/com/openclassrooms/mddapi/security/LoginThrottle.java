@@ -0,0 +1,163 @@
+package com.openclassrooms.mddapi.security;
+
+import com.openclassrooms.mddapi.exception.TooManyRequestsException;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limitation des tentatives de connexion par compte et par adresse IP.
+ *
+ * Chaque clé dispose d'un seau à jetons évalué par GCRA (Generic Cell Rate Algorithm) :
+ * l'état se résume à un instant théorique d'arrivée, mis à jour par compare-and-set,
+ * sans verrou. Les seaux redevenus pleins sont purgés périodiquement.
+ *
+ * La vérification a lieu avant toute opération BCrypt : une tentative refusée (429)
+ * n'atteint ni le pool de hashage ni l'encodeur de mots de passe.
+ *
+ * Contrôles successifs, du moins au plus coûteux : seau de l'adresse IP, seau de l'identifiant
+ * saisi normalisé (en mémoire), puis seau du compte indexé par son ID, résolu par un SELECT indexé.
+ * Une tentative refusée par l'un des deux premiers seaux n'exécute aucune requête ; l'email
+ * et le nom d'utilisateur d'un même compte partagent la limite de son ID.
+ *
+ * Métriques : auth.login.throttled (scope=account|ip) et auth.login.throttle.keys.
+ */
+@Component
+@Slf4j
+public class LoginThrottle {
+
+    private static final String THROTTLED_MESSAGE = "Trop de tentatives de connexion. Veuillez réessayer plus tard.";
+
+    private final UserRepository userRepository;
+    private final Bucket accountBuckets;
+    private final Bucket ipBuckets;
+
+    public LoginThrottle(UserRepository userRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.security.login-throttle.account.capacity:5}") int accountCapacity,
+                         @Value("${app.security.login-throttle.account.refill-period-ms:60000}") long accountRefillMs,
+                         @Value("${app.security.login-throttle.ip.capacity:20}") int ipCapacity,
+                         @Value("${app.security.login-throttle.ip.refill-period-ms:3000}") long ipRefillMs) {
+        this.userRepository = userRepository;
+        this.accountBuckets = new Bucket(meterRegistry, "account", accountCapacity, accountRefillMs);
+        this.ipBuckets = new Bucket(meterRegistry, "ip", ipCapacity, ipRefillMs);
+    }
+
+    /**
+     * Consomme un jeton pour l'adresse IP, pour l'identifiant saisi puis pour le compte visé.
+     * L'ID du compte n'est résolu en base qu'une fois les deux premières limites franchies.
+     *
+     * @param login    email ou nom d'utilisateur saisi
+     * @param clientIp adresse IP du client
+     * @throws TooManyRequestsException si l'une des limites est atteinte (429)
+     */
+    public void acquire(String login, String clientIp) {
+        ipBuckets.acquire(clientIp);
+        String normalized = normalize(login);
+        accountBuckets.acquire(loginKey(normalized));
+        if (!normalized.isEmpty()) {
+            userRepository.findIdByEmailOrUsername(login)
+                    .ifPresent(userId -> accountBuckets.acquire(accountKey(userId)));
+        }
+    }
+
+    /**
+     * Remet à zéro les seaux du compte et de l'identifiant saisi après une connexion réussie.
+     *
+     * @param userId ID du compte authentifié
+     * @param login  email ou nom d'utilisateur saisi
+     */
+    public void reset(Long userId, String login) {
+        accountBuckets.states.remove(accountKey(userId));
+        accountBuckets.states.remove(loginKey(normalize(login)));
+    }
+
+    /**
+     * Purge les seaux redevenus pleins pour borner la mémoire.
+     */
+    @Scheduled(fixedDelayString = "${app.security.login-throttle.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        accountBuckets.sweep(now);
+        ipBuckets.sweep(now);
+    }
+
+    private static String normalize(String login) {
+        return login == null ? "" : login.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String loginKey(String normalizedLogin) {
+        return "login:" + normalizedLogin;
+    }
+
+    private static String accountKey(Long userId) {
+        return "id:" + userId;
+    }
+
+    /**
+     * Famille de seaux à jetons partageant la même capacité et le même débit.
+     */
+    private static final class Bucket {
+
+        private final ConcurrentHashMap<String, AtomicLong> states = new ConcurrentHashMap<>();
+        private final long emissionIntervalNanos;
+        private final long toleranceNanos;
+        private final Counter rejections;
+
+        Bucket(MeterRegistry meterRegistry, String scope, int capacity, long refillPeriodMs) {
+            this.emissionIntervalNanos = TimeUnit.MILLISECONDS.toNanos(refillPeriodMs);
+            this.toleranceNanos = emissionIntervalNanos * Math.max(capacity - 1, 0);
+            this.rejections = Counter.builder("auth.login.throttled")
+                    .description("Tentatives de connexion refusées par limitation de débit")
+                    .tag("scope", scope)
+                    .register(meterRegistry);
+            Gauge.builder("auth.login.throttle.keys", states, ConcurrentHashMap::size)
+                    .description("Nombre de clés suivies par la limitation de débit")
+                    .tag("scope", scope)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * GCRA : la requête est acceptée si l'instant théorique d'arrivée ne dépasse
+         * pas maintenant + tolérance ; il avance alors d'un intervalle d'émission.
+         */
+        void acquire(String key) {
+            AtomicLong state = states.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+            while (true) {
+                long now = System.nanoTime();
+                long current = state.get();
+                long tat = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+
+                if (tat - now > toleranceNanos) {
+                    rejections.increment();
+                    long retryAfterNanos = tat - now - toleranceNanos;
+                    throw new TooManyRequestsException(THROTTLED_MESSAGE,
+                            Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999L)));
+                }
+                if (state.compareAndSet(current, tat + emissionIntervalNanos)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Supprime les clés dont le seau est de nouveau plein (instant théorique dépassé).
+         */
+        void sweep(long now) {
+            states.entrySet().removeIf(entry -> {
+                long tat = entry.getValue().get();
+                return tat == Long.MIN_VALUE || tat - now <= 0;
+            });
+        }
+    }
+}
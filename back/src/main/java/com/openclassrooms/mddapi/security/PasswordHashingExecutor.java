@@ -0,0 +1,97 @@
+package com.openclassrooms.mddapi.security;
+
+import com.openclassrooms.mddapi.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pool de threads dédié aux opérations BCrypt (hashage et vérification des mots de passe).
+ *
+ * Isole le coût CPU de l'authentification des threads Tomcat :
+ * - Taille de pool et file d'attente bornées
+ * - Rejet immédiat (503 + Retry-After) lorsque la file est pleine
+ * - Métriques de saturation exposées via /actuator/metrics (executor.*, name=auth.hashing)
+ *   et auth.hashing.rejected
+ *
+ * NOTE : volontairement pas exposé comme bean Executor, pour ne pas remplacer
+ * l'exécuteur par défaut de Spring Boot.
+ */
+@Component
+@Slf4j
+public class PasswordHashingExecutor implements DisposableBean {
+
+    private static final String EXECUTOR_NAME = "auth.hashing";
+
+    private final ThreadPoolExecutor executor;
+    private final Counter rejections;
+    private final long retryAfterSeconds;
+
+    public PasswordHashingExecutor(MeterRegistry meterRegistry,
+                                   @Value("${app.security.hashing.pool-size:0}") int poolSize,
+                                   @Value("${app.security.hashing.queue-capacity:100}") int queueCapacity,
+                                   @Value("${app.security.hashing.retry-after-seconds:1}") long retryAfterSeconds) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                namedThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, EXECUTOR_NAME);
+        this.rejections = Counter.builder("auth.hashing.rejected")
+                .description("Opérations BCrypt rejetées faute de place dans la file")
+                .register(meterRegistry);
+
+        log.info("Pool de hashage initialisé ({} threads, file de {})", threads, queueCapacity);
+    }
+
+    /**
+     * Exécute une opération coûteuse (BCrypt) sur le pool dédié.
+     *
+     * @param task opération à exécuter
+     * @param <T> type du résultat
+     * @return résultat asynchrone de l'opération
+     * @throws ServiceUnavailableException si la file d'attente est pleine
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            log.warn("Pool de hashage saturé, requête rejetée");
+            throw new ServiceUnavailableException(
+                    "Service d'authentification temporairement saturé. Veuillez réessayer.", retryAfterSeconds);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private static ThreadFactory namedThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "auth-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,92 @@
+package com.openclassrooms.mddapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Cache en mémoire des principaux authentifiés, indexé par le sujet du token JWT.
+ *
+ * Évite une requête SQL (findByEmail) à chaque requête authentifiée :
+ * - Taille bornée (éviction W-TinyLFU de Caffeine)
+ * - Durée de vie jamais supérieure à l'expiration des tokens
+ * - Éviction explicite lors d'une modification du profil
+ *
+ * Métriques exposées via /actuator/metrics : cache.gets (hit/miss),
+ * cache.evictions, cache.size (cache=principals) et security.principal.cache.invalidations.
+ */
+@Component
+@Slf4j
+public class PrincipalCache {
+
+    private static final String CACHE_NAME = "principals";
+
+    private final Cache<String, UserPrincipal> cache;
+    private final Counter invalidations;
+
+    public PrincipalCache(JwtUtils jwtUtils,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${app.security.principal-cache.ttl-ms:300000}") long ttlMs) {
+        long effectiveTtlMs = Math.min(ttlMs, jwtUtils.getJwtExpirationMs());
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(effectiveTtlMs))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.invalidations = Counter.builder("security.principal.cache.invalidations")
+                .description("Évictions explicites du cache des principaux")
+                .register(meterRegistry);
+
+        log.info("Cache des principaux initialisé (taille max: {}, TTL: {} ms)", maxSize, effectiveTtlMs);
+    }
+
+    /**
+     * Récupère le principal associé au sujet du token, en le chargeant si absent.
+     * Un chargement retournant null n'est pas mis en cache.
+     *
+     * @param subject sujet du token JWT (email)
+     * @param loader  chargement depuis la base en cas d'absence
+     * @return principal ou null si l'utilisateur n'existe pas
+     */
+    public UserPrincipal get(String subject, Function<String, UserPrincipal> loader) {
+        return cache.get(subject, loader);
+    }
+
+    /**
+     * Supprime le principal associé au sujet.
+     * Si une transaction est active, l'éviction est répétée après le commit
+     * pour qu'une lecture concurrente ne remette pas en cache l'état précédent.
+     *
+     * @param subject sujet du token JWT (email)
+     */
+    public void evict(String subject) {
+        if (subject == null) {
+            return;
+        }
+        cache.invalidate(subject);
+        invalidations.increment();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(subject);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.openclassrooms.mddapi.security;
+
+import com.openclassrooms.mddapi.entity.RevokedToken;
+import com.openclassrooms.mddapi.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Révocation des access tokens par identifiant (jti).
+ *
+ * Les révocations sont persistées dans revoked_tokens et reflétées dans un filtre de Bloom
+ * en mémoire, consulté à chaque requête authentifiée :
+ * - Réponse négative (cas courant) : aucun accès base, aucune allocation
+ * - Réponse positive : confirmation en base (vraie révocation ou faux positif)
+ *
+ * Le filtre est reconstruit au démarrage et périodiquement (purge des tokens expirés) ;
+ * les révocations des autres instances sont récupérées par interrogation régulière.
+ *
+ * Métriques : security.revocation.checks (result=bloom_negative|revoked|false_positive).
+ */
+@Component
+@Slf4j
+public class TokenRevocationService {
+
+    /**
+     * Recouvrement appliqué à l'interrogation incrémentale, pour ne pas manquer
+     * une révocation horodatée avant son commit.
+     */
+    private static final long POLL_OVERLAP_SECONDS = 10;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final JwtUtils jwtUtils;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+
+    private final Counter bloomNegatives;
+    private final Counter confirmedRevocations;
+    private final Counter falsePositives;
+
+    private volatile BloomFilter filter;
+    private volatile LocalDateTime lastPoll;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  JwtUtils jwtUtils,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.security.revocation.expected-insertions:100000}") long expectedInsertions,
+                                  @Value("${app.security.revocation.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.jwtUtils = jwtUtils;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+
+        this.bloomNegatives = checkCounter(meterRegistry, "bloom_negative");
+        this.confirmedRevocations = checkCounter(meterRegistry, "revoked");
+        this.falsePositives = checkCounter(meterRegistry, "false_positive");
+    }
+
+    /**
+     * Construit le filtre à partir des révocations encore actives, avant la première requête.
+     */
+    @PostConstruct
+    void init() {
+        rebuild();
+    }
+
+    /**
+     * Indique si le token est révoqué.
+     * Seule une réponse positive du filtre de Bloom entraîne une requête en base.
+     *
+     * @param jti identifiant du token (null pour les tokens émis sans jti)
+     * @return true si le token est révoqué
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        if (!filter.mightContain(jti)) {
+            bloomNegatives.increment();
+            return false;
+        }
+        if (revokedTokenRepository.existsById(jti)) {
+            confirmedRevocations.increment();
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    /**
+     * Révoque un access token jusqu'à son expiration.
+     * Un token invalide, expiré ou sans jti est ignoré.
+     *
+     * @param token access token (avec ou sans préfixe "Bearer ")
+     */
+    @Transactional
+    public void revoke(String token) {
+        if (token == null) {
+            return;
+        }
+        jwtUtils.verify(token)
+                .filter(claims -> claims.getId() != null)
+                .ifPresent(this::revoke);
+    }
+
+    private void revoke(Claims claims) {
+        RevokedToken revokedToken = RevokedToken.builder()
+                .jti(claims.getId())
+                .expiresAt(LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault()))
+                .build();
+        revokedTokenRepository.save(revokedToken);
+        filter.put(claims.getId());
+        log.debug("Access token révoqué : {}", claims.getId());
+    }
+
+    /**
+     * Récupère les révocations effectuées par les autres instances.
+     */
+    @Scheduled(fixedDelayString = "${app.security.revocation.poll-interval-ms:2000}")
+    public void pollRevocations() {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> jtis = revokedTokenRepository.findJtisRevokedSince(
+                lastPoll.minusSeconds(POLL_OVERLAP_SECONDS), now);
+        BloomFilter current = filter;
+        jtis.forEach(current::put);
+        lastPoll = now;
+    }
+
+    /**
+     * Purge les révocations expirées et reconstruit le filtre,
+     * les filtres de Bloom ne permettant pas la suppression.
+     */
+    @Scheduled(fixedDelayString = "${app.security.revocation.rebuild-interval-ms:3600000}",
+            initialDelayString = "${app.security.revocation.rebuild-interval-ms:3600000}")
+    @Transactional
+    public void purgeAndRebuild() {
+        int deleted = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("{} révocation(s) expirée(s) supprimée(s)", deleted);
+        }
+        rebuild();
+    }
+
+    private void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> jtis = revokedTokenRepository.findActiveJtis(now);
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedInsertions, jtis.size() * 2L), falsePositiveRate);
+        jtis.forEach(rebuilt::put);
+
+        filter = rebuilt;
+        lastPoll = now;
+        log.info("Filtre de révocation construit ({} token(s) révoqué(s))", jtis.size());
+    }
+
+    private static Counter checkCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("security.revocation.checks")
+                .description("Vérifications de révocation des access tokens")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,95 @@
+package com.openclassrooms.mddapi.security;
+
+import com.openclassrooms.mddapi.entity.User;
+import lombok.Getter;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Principal Spring Security de l'application MDD.
+ *
+ * Porte l'ID et le nom d'utilisateur en plus de l'email, afin que les services
+ * puissent travailler par ID sans relire l'utilisateur en base.
+ *
+ * NOTE : conformément au contrat UserDetails, getUsername() retourne l'email
+ * (identifiant de connexion). Le nom d'utilisateur affiché est exposé par getDisplayName().
+ */
+@Getter
+public class UserPrincipal implements UserDetails, CredentialsContainer {
+
+    private final Long id;
+    private final String email;
+    private final String displayName;
+    private final Collection<? extends GrantedAuthority> authorities;
+    private String password;
+
+    public UserPrincipal(Long id, String email, String displayName, String password,
+                         Collection<? extends GrantedAuthority> authorities) {
+        this.id = id;
+        this.email = email;
+        this.displayName = displayName;
+        this.password = password;
+        this.authorities = authorities;
+    }
+
+    /**
+     * Principal sans mot de passe, utilisé pour les requêtes authentifiées par JWT.
+     *
+     * @param user entité utilisateur
+     * @return principal sans credentials ni rôle
+     */
+    public static UserPrincipal fromUser(User user) {
+        return new UserPrincipal(user.getId(), user.getEmail(), user.getUsername(), null,
+                Collections.emptyList());
+    }
+
+    /**
+     * Principal avec mot de passe hashé, utilisé pour l'authentification par identifiants.
+     *
+     * @param user entité utilisateur
+     * @return principal avec le rôle USER par défaut
+     */
+    public static UserPrincipal withCredentials(User user) {
+        return new UserPrincipal(user.getId(), user.getEmail(), user.getUsername(), user.getPassword(),
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    /**
+     * Spring Security utilise l'email comme identifiant de connexion.
+     */
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        this.password = null;
+    }
+}
@@ -0,0 +1,56 @@
+package com.openclassrooms.mddapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Totaux approximatifs des listes paginées.
+ *
+ * Les listes sont servies en Slice (size + 1 lignes, sans COUNT) ; le total
+ * affiché provient d'un comptage mis en cache et recalculé au plus une fois
+ * par intervalle et par liste. Un seul comptage est exécuté par clé même
+ * sous requêtes concurrentes (chargement atomique de Caffeine).
+ *
+ * Métriques exposées via /actuator/metrics : cache.gets, cache.size (cache=count-estimates).
+ */
+@Service
+@Slf4j
+public class ApproximateCountService {
+
+    private static final String CACHE_NAME = "count-estimates";
+
+    private final Cache<String, Long> cache;
+
+    public ApproximateCountService(MeterRegistry meterRegistry,
+                                   @Value("${app.pagination.count-cache.max-size:10000}") long maxSize,
+                                   @Value("${app.pagination.count-cache.refresh-ms:60000}") long refreshMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(refreshMs))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        log.info("Cache des totaux approximatifs initialisé (taille max: {}, rafraîchissement: {} ms)",
+                maxSize, refreshMs);
+    }
+
+    /**
+     * Retourne le total estimé d'une liste, en le comptant s'il est absent ou périmé.
+     *
+     * @param key     identifiant de la liste (ex. "articles:subject:42")
+     * @param counter comptage exact exécuté en cas d'absence
+     * @return total, au plus aussi ancien que l'intervalle de rafraîchissement
+     */
+    public long estimate(String key, LongSupplier counter) {
+        return cache.get(key, k -> counter.getAsLong());
+    }
+}
@@ -0,0 +1,177 @@
+package com.openclassrooms.mddapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.openclassrooms.mddapi.dto.ArticleDTO;
+import com.openclassrooms.mddapi.event.ArticleCreatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Cache en mémoire du détail des articles (GET /api/articles/{id}), indexé par ID.
+ *
+ * - Taille bornée (éviction W-TinyLFU de Caffeine) : un article partagé reste en cache
+ * - Chargement unique par clé : les requêtes concurrentes sur un même ID absent
+ *   attendent le même chargement (une seule requête SQL)
+ * - Cache négatif : un ID inexistant est mémorisé (durée plus courte), les balayages
+ *   d'IDs aléatoires ne répètent pas la requête de chargement
+ * - Éviction à la création d'un article (entrée négative éventuelle), à la modification
+ *   de son nombre de commentaires, et de toutes
+ *   les entrées au changement d'un nom d'utilisateur (nom d'auteur dupliqué dans les DTO)
+ *
+ * Les autres instances ne sont pas prévenues : le détail servi par l'API est comparé
+ * à la révision de l'article lue en base (clé primaire) et rechargé s'il est plus ancien
+ * (ArticleService.getArticleById(id, revision)). Un nom d'auteur modifié ailleurs reste
+ * visible jusqu'à l'expiration de l'entrée.
+ *
+ * Métriques exposées via /actuator/metrics : cache.gets (hit/miss), cache.evictions,
+ * cache.size (cache=articles) et articles.cache.invalidations.
+ */
+@Service
+@Slf4j
+public class ArticleCache {
+
+    private static final String CACHE_NAME = "articles";
+
+    private final Cache<Long, Optional<ArticleDTO>> cache;
+    private final Counter invalidations;
+
+    public ArticleCache(MeterRegistry meterRegistry,
+                        @Value("${app.articles.cache.max-size:10000}") long maxSize,
+                        @Value("${app.articles.cache.ttl-ms:300000}") long ttlMs,
+                        @Value("${app.articles.cache.negative-ttl-ms:30000}") long negativeTtlMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new PresenceExpiry(ttlMs, negativeTtlMs))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.invalidations = Counter.builder("articles.cache.invalidations")
+                .description("Évictions explicites du cache des articles")
+                .register(meterRegistry);
+
+        log.info("Cache des articles initialisé (taille max: {}, TTL: {} ms, TTL négatif: {} ms)",
+                maxSize, ttlMs, negativeTtlMs);
+    }
+
+    /**
+     * Récupère le détail d'un article, en le chargeant s'il est absent.
+     * Un chargement vide (article inexistant) est mis en cache comme tel.
+     * Le DTO retourné est partagé : il ne doit pas être modifié.
+     *
+     * @param id     ID de l'article
+     * @param loader chargement depuis la base en cas d'absence
+     * @return article, ou vide s'il n'existe pas
+     */
+    public Optional<ArticleDTO> get(Long id, Function<Long, Optional<ArticleDTO>> loader) {
+        return cache.get(id, loader);
+    }
+
+    /**
+     * Recharge l'entrée d'un article, plus ancienne que sa révision lue en base
+     * (écriture faite sur une autre instance). Sans éviction répétée après le commit :
+     * l'entrée rechargée est déjà à jour.
+     *
+     * @param id     ID de l'article
+     * @param loader chargement depuis la base
+     * @return article, ou vide s'il n'existe pas
+     */
+    public Optional<ArticleDTO> reload(Long id, Function<Long, Optional<ArticleDTO>> loader) {
+        cache.invalidate(id);
+        invalidations.increment();
+        return cache.get(id, loader);
+    }
+
+    /**
+     * Supprime l'entrée d'un article créé, après le commit de sa création :
+     * un ID sondé avant d'exister ne reste pas en cache négatif.
+     *
+     * @param event article créé
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onArticleCreated(ArticleCreatedEvent event) {
+        cache.invalidate(event.getArticleId());
+        invalidations.increment();
+    }
+
+    /**
+     * Supprime l'entrée d'un article modifié (ex. nombre de commentaires).
+     * Si une transaction est active, l'éviction est répétée après le commit.
+     *
+     * @param id ID de l'article
+     */
+    public void evict(Long id) {
+        cache.invalidate(id);
+        invalidations.increment();
+        afterCommit(() -> cache.invalidate(id));
+    }
+
+    /**
+     * Vide le cache (données dupliquées dans tous les articles modifiées, ex. nom d'un auteur).
+     * Si une transaction est active, l'éviction est répétée après le commit
+     * pour qu'une lecture concurrente ne remette pas en cache l'état précédent.
+     */
+    public void evictAll() {
+        cache.invalidateAll();
+        invalidations.increment();
+        afterCommit(cache::invalidateAll);
+    }
+
+    /**
+     * Répète une éviction après le commit de la transaction active, s'il y en a une :
+     * une lecture concurrente ne remet pas en cache l'état précédent.
+     */
+    private static void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Durée de vie selon la présence de l'article : plus courte pour les entrées négatives.
+     */
+    private static final class PresenceExpiry implements Expiry<Long, Optional<ArticleDTO>> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        PresenceExpiry(long ttlMs, long negativeTtlMs) {
+            this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+            this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMs);
+        }
+
+        @Override
+        public long expireAfterCreate(Long id, Optional<ArticleDTO> article, long currentTime) {
+            return article.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long id, Optional<ArticleDTO> article, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, article, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long id, Optional<ArticleDTO> article, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,28 +1,39 @@
 package com.openclassrooms.mddapi.service;
 
 import com.openclassrooms.mddapi.dto.ArticleDTO;
+import com.openclassrooms.mddapi.dto.ArticleSummaryDTO;
+import com.openclassrooms.mddapi.dto.response.CursorPage;
+import com.openclassrooms.mddapi.dto.response.SlicePage;
 import com.openclassrooms.mddapi.entity.Article;
-import com.openclassrooms.mddapi.entity.Subject;
-import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.entity.ArticleBody;
+import com.openclassrooms.mddapi.event.ArticleCreatedEvent;
 import com.openclassrooms.mddapi.mapper.ArticleMapper;
+import com.openclassrooms.mddapi.repository.ArticleBodyRepository;
 import com.openclassrooms.mddapi.repository.ArticleRepository;
 import com.openclassrooms.mddapi.repository.SubjectRepository;
 import com.openclassrooms.mddapi.repository.UserRepository;
+import com.openclassrooms.mddapi.utils.KeysetCursor;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityNotFoundException;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * Service métier pour la gestion des articles.
  * 
  * Gère la création, lecture et récupération des articles avec tri chronologique
  * et fil d'actualité personnalisé selon les abonnements.
+ * Les listes retournent des résumés (projection avec extrait) ; seul le détail
+ * d'un article charge son contenu complet.
  */
 @Service
 @RequiredArgsConstructor
@@ -30,55 +41,107 @@ import javax.persistence.EntityNotFoundException;
 public class ArticleService {
 
     private final ArticleRepository articleRepository;
+    private final ArticleBodyRepository articleBodyRepository;
     private final UserRepository userRepository;
     private final SubjectRepository subjectRepository;
     private final ArticleMapper articleMapper;
+    private final TimelineService timelineService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ApproximateCountService approximateCountService;
+    private final ArticleCache articleCache;
+    private final VersionStampService versionStampService;
 
     /**
      * Crée un nouvel article.
-     * Auteur et sujet définis automatiquement, dates gérées par Hibernate.
+     * Auteur et sujet attachés par référence (sans SELECT), dates gérées par Hibernate.
+     * Le contenu est écrit dans article_bodies, son extrait dans la ligne de l'article.
+     * 
+     * La révision du sujet (ETag des listes et du fil) est incrémentée avant l'INSERT :
+     * le verrou exclusif de la ligne du sujet est pris d'emblée, sans conversion du verrou
+     * partagé posé par la clé étrangère (interblocage entre auteurs simultanés d'un sujet),
+     * et le nombre de lignes mises à jour vérifie l'existence du sujet.
+     * Le nom du sujet, retourné avec l'article créé, est lu ensuite par clé primaire
+     * (ligne déjà verrouillée, sans chargement de l'entité).
+     * L'article est diffusé dans les timelines des abonnés après le commit.
      * 
      * @param articleDTO données de l'article à créer
-     * @param authorEmail email de l'auteur (utilisateur connecté)
+     * @param authorId ID de l'auteur (utilisateur connecté)
+     * @param authorUsername nom de l'auteur, repris dans le DTO retourné
      * @return ArticleDTO de l'article créé
-     * @throws EntityNotFoundException si l'auteur ou le sujet n'existe pas
+     * @throws EntityNotFoundException si le sujet n'existe pas
      */
     @Transactional
-    public ArticleDTO createArticle(ArticleDTO articleDTO, String authorEmail) {
-        // Validation et récupération de l'auteur
-        User author = userRepository.findByEmail(authorEmail)
-                .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé: " + authorEmail));
-
-        // Validation et récupération du sujet
-        Subject subject = subjectRepository.findById(articleDTO.getSubjectId())
+    public ArticleDTO createArticle(ArticleDTO articleDTO, Long authorId, String authorUsername) {
+        if (!versionStampService.subjectChanged(articleDTO.getSubjectId())) {
+            throw new EntityNotFoundException("Sujet non trouvé avec ID: " + articleDTO.getSubjectId());
+        }
+        String subjectName = subjectRepository.findNameById(articleDTO.getSubjectId())
                 .orElseThrow(() -> new EntityNotFoundException("Sujet non trouvé avec ID: " + articleDTO.getSubjectId()));
 
         // Conversion DTO → Entity
         Article article = articleMapper.toEntity(articleDTO);
+        article.setExcerpt(excerptOf(articleDTO.getContent()));
+
+        // Définition des relations par référence
+        article.setAuthor(userRepository.getReferenceById(authorId));
+        article.setSubject(subjectRepository.getReferenceById(articleDTO.getSubjectId()));
 
-        // Définition des relations
-        article.setAuthor(author);
-        article.setSubject(subject);
+        // Sauvegarde immédiate (ID réservé par bloc, INSERT exécuté ici) : date renseignée
+        Article savedArticle = articleRepository.saveAndFlush(article);
+        articleBodyRepository.save(ArticleBody.builder()
+                .article(savedArticle)
+                .content(articleDTO.getContent())
+                .build());
 
-        // Sauvegarde
-        Article savedArticle = articleRepository.save(article);
+        // Diffusion dans les timelines après commit
+        eventPublisher.publishEvent(new ArticleCreatedEvent(
+                savedArticle.getId(), articleDTO.getSubjectId(), savedArticle.getCreatedAt()));
 
-        // Conversion Entity → DTO avec métadonnées complètes
-        return articleMapper.toDTO(savedArticle);
+        // Conversion Entity → DTO sans initialiser les références
+        ArticleDTO createdArticle = articleMapper.toReferenceDTO(savedArticle);
+        createdArticle.setAuthorUsername(authorUsername);
+        createdArticle.setSubjectName(subjectName);
+        createdArticle.setContent(articleDTO.getContent());
+        return createdArticle;
     }
 
     /**
      * Récupère un article par son ID.
+     * Servi par le cache des articles ; en cas d'absence, contenu, article, auteur
+     * et sujet sont lus en une requête (une seule par ID sous requêtes concurrentes).
      * 
      * @param id ID de l'article
      * @return ArticleDTO complet
      * @throws EntityNotFoundException si l'article n'existe pas
      */
     public ArticleDTO getArticleById(Long id) {
-        Article article = articleRepository.findById(id)
+        return articleCache.get(id, this::loadArticle)
                 .orElseThrow(() -> new EntityNotFoundException("Article non trouvé avec ID: " + id));
+    }
+
+    /**
+     * Récupère un article par son ID, au moins à la révision donnée (lue en base).
+     * Une entrée en cache plus ancienne, ou négative, est rechargée : les évictions
+     * sont locales, une écriture faite sur une autre instance n'a pas vidé ce cache.
+     *
+     * @param id       ID de l'article
+     * @param revision révision courante de l'article
+     * @return ArticleDTO complet, de révision au moins égale
+     * @throws EntityNotFoundException si l'article n'existe pas
+     */
+    public ArticleDTO getArticleById(Long id, long revision) {
+        Optional<ArticleDTO> article = articleCache.get(id, this::loadArticle);
+        if (article.map(cached -> cached.getRevision() < revision).orElse(true)) {
+            article = articleCache.reload(id, this::loadArticle);
+        }
+        return article.orElseThrow(() -> new EntityNotFoundException("Article non trouvé avec ID: " + id));
+    }
 
-        return articleMapper.toDTO(article);
+    /**
+     * Chargement du cache des articles : contenu, article, auteur et sujet en une requête.
+     */
+    private Optional<ArticleDTO> loadArticle(Long articleId) {
+        return articleBodyRepository.findWithArticleByArticleId(articleId).map(articleMapper::toDTO);
     }
 
     /**
@@ -87,34 +150,33 @@ public class ArticleService {
      * @param page numéro de page (0-based)
      * @param size taille de page
      * @param direction tri chronologique (ASC ou DESC)
-     * @return Page d'ArticleDTO triée par date de création
+     * @return SlicePage d'ArticleSummaryDTO triée par date de création, total approximatif
      */
-    public Page<ArticleDTO> getAllArticles(int page, int size, Sort.Direction direction) {
+    public SlicePage<ArticleSummaryDTO> getAllArticles(int page, int size, Sort.Direction direction) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, "createdAt"));
-        Page<Article> articlesPage = articleRepository.findAll(pageable);
+        Slice<ArticleSummaryDTO> articlesSlice = articleRepository.findSummaries(pageable);
 
-        return articlesPage.map(articleMapper::toDTO);
+        long total = approximateCountService.estimate("articles", articleRepository::count);
+        return SlicePage.of(articlesSlice, Function.identity(), total);
     }
 
     /**
      * Récupère le fil d'actualité personnalisé d'un utilisateur.
-     * Affiche les articles des sujets auxquels l'utilisateur est abonné.
+     * Affiche les articles des sujets auxquels l'utilisateur est abonné,
+     * lus depuis sa timeline matérialisée (complétée par les sujets en mode pull).
      * 
-     * @param userEmail email de l'utilisateur connecté
+     * @param userId ID de l'utilisateur connecté
      * @param page numéro de page (0-based)
      * @param size taille de page
-     * @return Page d'ArticleDTO du fil personnalisé
-     * @throws EntityNotFoundException si l'utilisateur n'existe pas
+     * @return SlicePage d'ArticleSummaryDTO du fil personnalisé, total approximatif
      */
-    public Page<ArticleDTO> getPersonalizedFeed(String userEmail, int page, int size) {
-        // Récupération utilisateur
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé: " + userEmail));
-
+    public SlicePage<ArticleSummaryDTO> getPersonalizedFeed(Long userId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Article> feedPage = articleRepository.findPersonalizedFeed(user.getId(), pageable);
+        Slice<ArticleSummaryDTO> feedSlice = timelineService.getFeed(userId, pageable);
 
-        return feedPage.map(articleMapper::toDTO);
+        long total = approximateCountService.estimate("feed:user:" + userId,
+                () -> timelineService.countFeed(userId));
+        return SlicePage.of(feedSlice, Function.identity(), total);
     }
 
     /**
@@ -123,12 +185,103 @@ public class ArticleService {
      * @param subjectId ID du sujet
      * @param page numéro de page (0-based)
      * @param size taille de page
-     * @return Page d'ArticleDTO du sujet triée par date (plus récent en premier)
+     * @return SlicePage d'ArticleSummaryDTO du sujet triée par date (plus récent en premier), total approximatif
      */
-    public Page<ArticleDTO> getArticlesBySubject(Long subjectId, int page, int size) {
+    public SlicePage<ArticleSummaryDTO> getArticlesBySubject(Long subjectId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Article> articlesPage = articleRepository.findBySubjectIdOrderByCreatedAtDesc(subjectId, pageable);
+        Slice<ArticleSummaryDTO> articlesSlice = articleRepository.findSummariesBySubjectId(subjectId, pageable);
 
-        return articlesPage.map(articleMapper::toDTO);
+        long total = approximateCountService.estimate("articles:subject:" + subjectId,
+                () -> subjectRepository.countArticlesBySubjectId(subjectId));
+        return SlicePage.of(articlesSlice, Function.identity(), total);
+    }
+
+    // ============================================================================
+    // PAGINATION PAR CURSEUR
+    // ============================================================================
+
+    /**
+     * Récupère tous les articles en pagination par curseur.
+     * 
+     * @param cursor curseur de la page précédente (null pour la première page)
+     * @param size taille de page
+     * @param direction tri chronologique (ASC ou DESC)
+     * @return CursorPage d'ArticleSummaryDTO
+     * @throws IllegalArgumentException si le curseur est invalide
+     */
+    public CursorPage<ArticleSummaryDTO> scrollAllArticles(String cursor, int size, Sort.Direction direction) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        KeysetCursor position = cursor != null ? KeysetCursor.decode(cursor) : null;
+
+        List<ArticleSummaryDTO> rows;
+        if (direction == Sort.Direction.ASC) {
+            rows = position == null
+                    ? articleRepository.findSummariesFirstPageAsc(limit)
+                    : articleRepository.findSummariesAfter(position.getCreatedAt(), position.getId(), limit);
+        } else {
+            rows = position == null
+                    ? articleRepository.findSummariesFirstPage(limit)
+                    : articleRepository.findSummariesBefore(position.getCreatedAt(), position.getId(), limit);
+        }
+
+        return toCursorPage(rows, size);
+    }
+
+    /**
+     * Récupère le fil d'actualité personnalisé en pagination par curseur.
+     * 
+     * @param userId ID de l'utilisateur connecté
+     * @param cursor curseur de la page précédente (null pour la première page)
+     * @param size taille de page
+     * @return CursorPage d'ArticleSummaryDTO du fil personnalisé
+     * @throws IllegalArgumentException si le curseur est invalide
+     */
+    public CursorPage<ArticleSummaryDTO> scrollPersonalizedFeed(Long userId, String cursor, int size) {
+        KeysetCursor position = cursor != null ? KeysetCursor.decode(cursor) : null;
+        List<ArticleSummaryDTO> rows = timelineService.scrollFeed(userId, position, size + 1);
+
+        return toCursorPage(rows, size);
+    }
+
+    /**
+     * Récupère les articles d'un sujet en pagination par curseur.
+     * 
+     * @param subjectId ID du sujet
+     * @param cursor curseur de la page précédente (null pour la première page)
+     * @param size taille de page
+     * @return CursorPage d'ArticleSummaryDTO du sujet (plus récent en premier)
+     * @throws IllegalArgumentException si le curseur est invalide
+     */
+    public CursorPage<ArticleSummaryDTO> scrollArticlesBySubject(Long subjectId, String cursor, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<ArticleSummaryDTO> rows = cursor == null
+                ? articleRepository.findSubjectSummariesFirstPage(subjectId, limit)
+                : findSubjectSummariesBefore(subjectId, KeysetCursor.decode(cursor), limit);
+
+        return toCursorPage(rows, size);
+    }
+
+    private List<ArticleSummaryDTO> findSubjectSummariesBefore(Long subjectId, KeysetCursor position, Pageable limit) {
+        return articleRepository.findSubjectSummariesBefore(subjectId, position.getCreatedAt(), position.getId(), limit);
+    }
+
+    private CursorPage<ArticleSummaryDTO> toCursorPage(List<ArticleSummaryDTO> rows, int size) {
+        return CursorPage.of(rows, size, Function.identity(),
+                article -> KeysetCursor.of(article.getCreatedAt(), article.getId()).encode());
+    }
+
+    /**
+     * Début du contenu stocké dans la ligne de l'article pour les listes,
+     * sans couper une paire de substitution.
+     */
+    private static String excerptOf(String content) {
+        int length = ArticleSummaryDTO.EXCERPT_LENGTH;
+        if (content.length() <= length) {
+            return content;
+        }
+        if (Character.isHighSurrogate(content.charAt(length - 1))) {
+            length--;
+        }
+        return content.substring(0, length);
     }
-}
\ No newline at end of file
+}
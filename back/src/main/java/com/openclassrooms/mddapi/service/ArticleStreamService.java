@@ -0,0 +1,484 @@
+package com.openclassrooms.mddapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.mddapi.dto.response.NewArticleNotice;
+import com.openclassrooms.mddapi.event.ArticlePublishedEvent;
+import com.openclassrooms.mddapi.exception.TooManyRequestsException;
+import com.openclassrooms.mddapi.repository.SubjectRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Flux SSE des nouveaux articles publiés dans les sujets suivis (GET /api/articles/stream).
+ *
+ * Remplace l'interrogation répétée du fil : une notification par article et par connexion abonnée.
+ * - Registre des connexions par sujet (sujets suivis lus à l'ouverture du flux)
+ * - Diffusion sans blocage : chaque connexion a une file bornée, vidée par un pool dédié
+ *   (un seul envoi en cours par connexion)
+ * - Écritures non bloquantes (Servlet 3.1, WriteListener) : un client qui ne lit plus
+ *   n'occupe aucun thread, l'envoi reprend quand le conteneur signale le socket disponible
+ * - Client lent : file pleine → connexion fermée (le client se reconnecte)
+ * - Écriture en attente depuis plus de write-timeout-ms (tampon TCP plein) → connexion fermée
+ * - Battements de cœur réguliers (commentaires SSE), qui détectent aussi les connexions mortes
+ * - Plafonds de connexions global et par utilisateur (429 + Retry-After au-delà)
+ *
+ * Métriques exposées via /actuator/metrics : articles.stream.connections,
+ * articles.stream.notifications, articles.stream.evictions (reason=slow|timeout|error),
+ * articles.stream.rejected et executor.* (name=articles.stream).
+ */
+@Service
+@Slf4j
+public class ArticleStreamService implements DisposableBean {
+
+    private static final String EXECUTOR_NAME = "articles.stream";
+    private static final String EVENT_NAME = "article";
+    private static final byte[] HEARTBEAT = comment("heartbeat");
+    private static final long RETRY_AFTER_SECONDS = 30;
+
+    private final SubjectRepository subjectRepository;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor senders;
+    private final int maxConnections;
+    private final int maxConnectionsPerUser;
+    private final int queueCapacity;
+    private final long timeoutMs;
+    private final long reconnectMs;
+    private final long writeTimeoutNanos;
+
+    private final Map<Long, Set<Connection>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> connectionsPerUser = new ConcurrentHashMap<>();
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    private final Counter notifications;
+    private final Counter slowEvictions;
+    private final Counter timeoutEvictions;
+    private final Counter errorEvictions;
+    private final Counter rejections;
+
+    public ArticleStreamService(SubjectRepository subjectRepository,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.articles.stream.max-connections:10000}") int maxConnections,
+                                @Value("${app.articles.stream.max-connections-per-user:3}") int maxConnectionsPerUser,
+                                @Value("${app.articles.stream.queue-capacity:32}") int queueCapacity,
+                                @Value("${app.articles.stream.sender-threads:4}") int senderThreads,
+                                @Value("${app.articles.stream.timeout-ms:1800000}") long timeoutMs,
+                                @Value("${app.articles.stream.reconnect-ms:5000}") long reconnectMs,
+                                @Value("${app.articles.stream.write-timeout-ms:5000}") long writeTimeoutMs) {
+        this.subjectRepository = subjectRepository;
+        this.objectMapper = objectMapper;
+        this.maxConnections = maxConnections;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.queueCapacity = queueCapacity;
+        this.timeoutMs = timeoutMs;
+        this.reconnectMs = reconnectMs;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(
+                senderThreads, senderThreads,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "articles-stream-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        ExecutorServiceMetrics.monitor(meterRegistry, senders, EXECUTOR_NAME);
+        Gauge.builder("articles.stream.connections", connectionCount, AtomicInteger::get)
+                .description("Connexions ouvertes au flux des nouveaux articles")
+                .register(meterRegistry);
+        this.notifications = Counter.builder("articles.stream.notifications")
+                .description("Articles diffusés à au moins une connexion")
+                .register(meterRegistry);
+        this.slowEvictions = evictionCounter(meterRegistry, "slow");
+        this.timeoutEvictions = evictionCounter(meterRegistry, "timeout");
+        this.errorEvictions = evictionCounter(meterRegistry, "error");
+        this.rejections = Counter.builder("articles.stream.rejected")
+                .description("Ouvertures de flux refusées (plafond de connexions atteint)")
+                .register(meterRegistry);
+
+        log.info("Flux des nouveaux articles initialisé (max {} connexions, {} par utilisateur, file de {}, {} threads)",
+                maxConnections, maxConnectionsPerUser, queueCapacity, senderThreads);
+    }
+
+    /**
+     * Ouvre le flux d'un utilisateur, abonné aux sujets qu'il suit à cet instant.
+     * La requête passe en mode asynchrone : les en-têtes sont envoyés sur le thread
+     * de la requête, les événements ensuite par écritures non bloquantes.
+     *
+     * @param userId   ID de l'utilisateur connecté
+     * @param request  requête du flux
+     * @param response réponse du flux
+     * @throws TooManyRequestsException si un plafond de connexions est atteint
+     * @throws IOException              si les en-têtes ne peuvent pas être envoyés
+     */
+    public void open(Long userId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        reserve(userId);
+        Connection connection;
+        try {
+            List<Long> subjectIds = subjectRepository.findSubscribedSubjectIds(userId);
+            response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.flushBuffer();
+            AsyncContext async = request.startAsync(request, response);
+            async.setTimeout(timeoutMs);
+            connection = new Connection(userId, subjectIds, async, response.getOutputStream(), queueCapacity);
+        } catch (IOException | RuntimeException e) {
+            release(userId);
+            throw e;
+        }
+
+        connection.async.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                unregister(connection);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                close(connection);
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                evict(connection, errorEvictions);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+                // Pas de redémarrage du mode asynchrone
+            }
+        });
+
+        connections.add(connection);
+        for (Long subjectId : connection.subjectIds) {
+            subscribers.computeIfAbsent(subjectId, id -> ConcurrentHashMap.newKeySet()).add(connection);
+        }
+
+        enqueue(connection, (":connected\nretry:" + reconnectMs + "\n\n").getBytes(StandardCharsets.UTF_8));
+        // Premier appel de onWritePossible par le conteneur : vide la file
+        connection.out.setWriteListener(new WriteListener() {
+            @Override
+            public void onWritePossible() {
+                schedule(connection);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                log.debug("Envoi SSE impossible pour l'utilisateur {} : {}", userId, error.getMessage());
+                evict(connection, errorEvictions);
+            }
+        });
+    }
+
+    /**
+     * Diffuse un nouvel article aux connexions abonnées à son sujet.
+     * Exécuté sur le thread de publication : ne fait que déposer la notification dans les files.
+     *
+     * @param event article nouvellement indexé
+     */
+    @EventListener
+    public void onArticlePublished(ArticlePublishedEvent event) {
+        Set<Connection> audience = subscribers.get(event.getSubjectId());
+        if (audience == null || audience.isEmpty()) {
+            return;
+        }
+
+        byte[] notice;
+        try {
+            String data = objectMapper.writeValueAsString(
+                    new NewArticleNotice(event.getArticleId(), event.getSubjectId(), event.getCreatedAt()));
+            notice = ("event:" + EVENT_NAME + "\nid:" + event.getArticleId() + "\ndata:" + data + "\n\n")
+                    .getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            log.error("Notification de l'article {} non sérialisable", event.getArticleId(), e);
+            return;
+        }
+
+        for (Connection connection : audience) {
+            enqueue(connection, notice);
+        }
+        notifications.increment();
+    }
+
+    /**
+     * Battement de cœur : garde les connexions ouvertes à travers les proxys
+     * et révèle les clients partis (échec d'envoi) ou bloqués (file pleine).
+     */
+    @Scheduled(fixedDelayString = "${app.articles.stream.heartbeat-interval-ms:15000}")
+    public void sendHeartbeats() {
+        for (Connection connection : connections) {
+            enqueue(connection, HEARTBEAT);
+        }
+    }
+
+    /**
+     * Ferme les connexions dont l'écriture attend le socket depuis plus de write-timeout-ms
+     * (client qui ne lit plus, tampon TCP plein). Aucun thread n'attend ces écritures :
+     * la fermeture libère la place de la connexion dans les plafonds et sa file.
+     *
+     * @return nombre de connexions fermées
+     */
+    @Scheduled(fixedDelayString = "${app.articles.stream.write-check-interval-ms:1000}")
+    public int evictStalledWrites() {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (Connection connection : connections) {
+            long stalledSince = connection.stalledSince;
+            if (stalledSince != 0 && now - stalledSince >= writeTimeoutNanos) {
+                log.debug("Envoi SSE en attente pour l'utilisateur {}, connexion fermée", connection.userId);
+                evict(connection, timeoutEvictions);
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Ferme les flux ouverts à l'arrêt de l'application.
+     */
+    @Override
+    public void destroy() {
+        senders.shutdownNow();
+        for (Connection connection : connections) {
+            connection.closing = true;
+            unregister(connection);
+            complete(connection);
+        }
+    }
+
+    /**
+     * Réserve une place dans les plafonds global et par utilisateur.
+     */
+    private void reserve(Long userId) {
+        if (connectionCount.incrementAndGet() > maxConnections) {
+            connectionCount.decrementAndGet();
+            rejections.increment();
+            throw new TooManyRequestsException(
+                    "Trop de flux ouverts sur le serveur. Veuillez réessayer plus tard.", RETRY_AFTER_SECONDS);
+        }
+
+        AtomicBoolean accepted = new AtomicBoolean();
+        connectionsPerUser.compute(userId, (id, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= maxConnectionsPerUser) {
+                return count;
+            }
+            accepted.set(true);
+            return current + 1;
+        });
+
+        if (!accepted.get()) {
+            connectionCount.decrementAndGet();
+            rejections.increment();
+            throw new TooManyRequestsException(
+                    "Nombre maximal de flux ouverts atteint pour cet utilisateur.", RETRY_AFTER_SECONDS);
+        }
+    }
+
+    private void release(Long userId) {
+        connectionsPerUser.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+        connectionCount.decrementAndGet();
+    }
+
+    /**
+     * Retire une connexion du registre (une seule fois).
+     *
+     * @return true si la connexion était enregistrée
+     */
+    private boolean unregister(Connection connection) {
+        if (!connection.registered.compareAndSet(true, false)) {
+            return false;
+        }
+        connections.remove(connection);
+        for (Long subjectId : connection.subjectIds) {
+            Set<Connection> audience = subscribers.get(subjectId);
+            if (audience != null) {
+                audience.remove(connection);
+            }
+        }
+        release(connection.userId);
+        return true;
+    }
+
+    /**
+     * Dépose un événement dans la file de la connexion, sans attendre.
+     * File pleine : le client ne suit pas, la connexion est fermée.
+     */
+    private void enqueue(Connection connection, byte[] event) {
+        if (connection.closing) {
+            return;
+        }
+        if (!connection.queue.offer(event)) {
+            evict(connection, slowEvictions);
+            return;
+        }
+        schedule(connection);
+    }
+
+    /**
+     * Ferme la connexion : la fermeture effective est faite par le thread d'envoi,
+     * jamais par le thread de diffusion ou du conteneur (une écriture peut être en cours).
+     */
+    private void evict(Connection connection, Counter reason) {
+        connection.closing = true;
+        if (unregister(connection)) {
+            reason.increment();
+        }
+        schedule(connection);
+    }
+
+    /**
+     * Ferme une connexion arrivée au terme de sa durée de vie.
+     */
+    private void close(Connection connection) {
+        connection.closing = true;
+        unregister(connection);
+        schedule(connection);
+    }
+
+    /**
+     * Planifie un passage d'envoi ; une demande reçue pendant un passage en cours
+     * (nouvel événement, socket redevenu disponible) provoque un passage supplémentaire.
+     */
+    private void schedule(Connection connection) {
+        if (connection.drainRequests.getAndIncrement() == 0) {
+            try {
+                senders.execute(() -> drain(connection));
+            } catch (RejectedExecutionException e) {
+                // Arrêt en cours : les flux sont fermés par destroy()
+            }
+        }
+    }
+
+    /**
+     * Envoie les événements en attente d'une connexion (un seul thread à la fois par connexion).
+     */
+    private void drain(Connection connection) {
+        int requests = connection.drainRequests.get();
+        do {
+            write(connection);
+            if (connection.closing) {
+                // drainRequests reste positif : plus aucun passage ne sera planifié
+                connection.queue.clear();
+                complete(connection);
+                return;
+            }
+        } while ((requests = connection.drainRequests.addAndGet(-requests)) != 0);
+    }
+
+    /**
+     * Écrit tant que le socket accepte les données, sans jamais bloquer.
+     * Socket saturé : le passage s'arrête, le conteneur appellera onWritePossible.
+     */
+    private void write(Connection connection) {
+        try {
+            while (!connection.closing) {
+                if (!connection.out.isReady()) {
+                    if (connection.stalledSince == 0) {
+                        connection.stalledSince = System.nanoTime();
+                    }
+                    return;
+                }
+                connection.stalledSince = 0;
+                byte[] event = connection.queue.poll();
+                if (event != null) {
+                    connection.out.write(event);
+                    connection.unflushed = true;
+                } else if (connection.unflushed) {
+                    connection.out.flush();
+                    connection.unflushed = false;
+                } else {
+                    return;
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Envoi SSE impossible pour l'utilisateur {} : {}", connection.userId, e.getMessage());
+            evict(connection, errorEvictions);
+        }
+    }
+
+    /**
+     * Termine la réponse asynchrone, si le conteneur ne l'a pas déjà fait (erreur, expiration).
+     */
+    private static void complete(Connection connection) {
+        try {
+            connection.async.complete();
+        } catch (IllegalStateException e) {
+            log.debug("Flux SSE de l'utilisateur {} déjà terminé", connection.userId);
+        }
+    }
+
+    private static byte[] comment(String text) {
+        return (":" + text + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Counter evictionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("articles.stream.evictions")
+                .description("Connexions au flux fermées par le serveur")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Connexion ouverte au flux : réponse asynchrone, sujets suivis et file d'envoi bornée.
+     */
+    private static final class Connection {
+
+        private final Long userId;
+        private final List<Long> subjectIds;
+        private final AsyncContext async;
+        private final ServletOutputStream out;
+        private final Queue<byte[]> queue;
+        private final AtomicBoolean registered = new AtomicBoolean(true);
+        private final AtomicInteger drainRequests = new AtomicInteger();
+        private volatile boolean closing;
+        /** Début de l'attente du socket (System.nanoTime), 0 si aucune écriture n'attend. */
+        private volatile long stalledSince;
+        /** Écrit par le seul thread d'envoi en cours. */
+        private boolean unflushed;
+
+        Connection(Long userId, List<Long> subjectIds, AsyncContext async, ServletOutputStream out, int queueCapacity) {
+            this.userId = userId;
+            this.subjectIds = subjectIds;
+            this.async = async;
+            this.out = out;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+    }
+}
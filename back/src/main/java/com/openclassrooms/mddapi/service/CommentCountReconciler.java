@@ -0,0 +1,65 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.repository.ArticleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Réconciliation périodique des compteurs de commentaires (articles.comment_count).
+ *
+ * Les compteurs sont ajustés par UPDATE atomique à chaque commentaire ; ils peuvent
+ * dériver sur des écritures hors application (suppressions en cascade, scripts).
+ * Le balayage parcourt les articles par plages d'IDs, une transaction par plage,
+ * et n'écrit que les lignes dont le compteur diffère du nombre réel.
+ *
+ * Chaque instance exécute le balayage : la correction est idempotente.
+ *
+ * Métrique exposée via /actuator/metrics : articles.comment-count.repairs.
+ */
+@Service
+@Slf4j
+public class CommentCountReconciler {
+
+    private final ArticleRepository articleRepository;
+    private final ArticleCache articleCache;
+    private final int batchSize;
+    private final Counter repairs;
+
+    public CommentCountReconciler(ArticleRepository articleRepository,
+                                  ArticleCache articleCache,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.articles.comment-count.reconcile-batch-size:1000}") int batchSize) {
+        this.articleRepository = articleRepository;
+        this.articleCache = articleCache;
+        this.batchSize = batchSize;
+        this.repairs = Counter.builder("articles.comment-count.repairs")
+                .description("Compteurs de commentaires corrigés par la réconciliation")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Corrige les compteurs de tous les articles, plage par plage.
+     *
+     * @return nombre d'articles corrigés
+     */
+    @Scheduled(initialDelayString = "${app.articles.comment-count.reconcile-interval-ms:3600000}",
+            fixedDelayString = "${app.articles.comment-count.reconcile-interval-ms:3600000}")
+    public int reconcile() {
+        long maxId = articleRepository.findMaxId();
+        int repaired = 0;
+        for (long fromId = 0; fromId < maxId; fromId += batchSize) {
+            repaired += articleRepository.reconcileCommentCounts(fromId, Math.min(fromId + batchSize, maxId));
+        }
+
+        if (repaired > 0) {
+            repairs.increment(repaired);
+            articleCache.evictAll();
+            log.warn("{} compteur(s) de commentaires corrigé(s)", repaired);
+        }
+        return repaired;
+    }
+}
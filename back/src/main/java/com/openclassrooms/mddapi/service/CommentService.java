@@ -1,21 +1,36 @@
 package com.openclassrooms.mddapi.service;
 
 import com.openclassrooms.mddapi.dto.CommentDTO;
-import com.openclassrooms.mddapi.entity.Article;
+import com.openclassrooms.mddapi.dto.response.CursorPage;
+import com.openclassrooms.mddapi.dto.response.SlicePage;
 import com.openclassrooms.mddapi.entity.Comment;
-import com.openclassrooms.mddapi.entity.User;
 import com.openclassrooms.mddapi.mapper.CommentMapper;
 import com.openclassrooms.mddapi.repository.ArticleRepository;
 import com.openclassrooms.mddapi.repository.CommentRepository;
 import com.openclassrooms.mddapi.repository.UserRepository;
+import com.openclassrooms.mddapi.utils.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityNotFoundException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service métier pour la gestion des commentaires.
@@ -32,61 +47,237 @@ public class CommentService {
     private final ArticleRepository articleRepository;
     private final UserRepository userRepository;
     private final CommentMapper commentMapper;
+    private final ApproximateCountService approximateCountService;
+    private final ArticleCache articleCache;
+
+    /**
+     * Délai de grâce du suivi d'un fil : durée maximale entre la date de création
+     * d'un commentaire et la validation de sa transaction (dont l'écart d'horloge entre instances).
+     */
+    @Value("${app.comments.since.grace-seconds:5}")
+    private long sinceGraceSeconds;
 
     /**
      * Crée un nouveau commentaire sur un article.
-     * Auteur et article définis automatiquement, date gérée par Hibernate.
+     * Auteur et article attachés par référence (sans SELECT), date gérée par Hibernate.
+     * 
+     * Le nombre de commentaires de l'article est incrémenté par UPDATE atomique avant l'INSERT,
+     * avec sa révision (ETag de ses commentaires) : le verrou exclusif de la ligne de l'article
+     * est pris d'emblée, sans conversion du verrou partagé posé par la clé étrangère (interblocage
+     * entre commentaires simultanés), et le nombre de lignes mises à jour vérifie l'existence de l'article.
+     * Le titre de l'article, retourné avec le commentaire créé, est lu ensuite par clé primaire
+     * (ligne déjà verrouillée, sans chargement de l'entité).
      * 
      * @param articleId ID de l'article à commenter
      * @param commentDTO données du commentaire à créer
-     * @param authorEmail email de l'auteur (utilisateur connecté)
+     * @param authorId ID de l'auteur (utilisateur connecté)
+     * @param authorUsername nom de l'auteur, repris dans le DTO retourné
      * @return CommentDTO du commentaire créé
-     * @throws EntityNotFoundException si l'auteur ou l'article n'existe pas
+     * @throws EntityNotFoundException si l'article n'existe pas
      */
     @Transactional
-    public CommentDTO createComment(Long articleId, CommentDTO commentDTO, String authorEmail) {
-        // Validation et récupération de l'auteur
-        User author = userRepository.findByEmail(authorEmail)
-                .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé: " + authorEmail));
-
-        // Validation et récupération de l'article
-        Article article = articleRepository.findById(articleId)
+    public CommentDTO createComment(Long articleId, CommentDTO commentDTO, Long authorId, String authorUsername) {
+        if (articleRepository.adjustCommentCount(articleId, 1) == 0) {
+            throw new EntityNotFoundException("Article non trouvé avec ID: " + articleId);
+        }
+        String articleTitle = articleRepository.findTitleById(articleId)
                 .orElseThrow(() -> new EntityNotFoundException("Article non trouvé avec ID: " + articleId));
 
         // Conversion DTO → Entity
         Comment comment = commentMapper.toEntity(commentDTO);
 
-        // Définition des relations
-        comment.setAuthor(author);
-        comment.setArticle(article);
+        // Définition des relations par référence
+        comment.setAuthor(userRepository.getReferenceById(authorId));
+        comment.setArticle(articleRepository.getReferenceById(articleId));
+
+        // Sauvegarde immédiate (ID réservé par bloc, INSERT exécuté ici) : date renseignée
+        Comment savedComment = commentRepository.saveAndFlush(comment);
+        articleCache.evict(articleId);
+
+        // Conversion Entity → DTO sans initialiser les références
+        CommentDTO createdComment = commentMapper.toReferenceDTO(savedComment);
+        createdComment.setAuthorUsername(authorUsername);
+        createdComment.setArticleTitle(articleTitle);
+        return createdComment;
+    }
+
+    /**
+     * Crée un lot de commentaires en une transaction (file d'écriture différée).
+     * Compteur et révision ajustés une fois par article du lot, avant les INSERT et par ID croissant
+     * (ordre de verrouillage constant) ; le nombre de lignes mises à jour vérifie l'existence
+     * de chaque article. Les titres des articles existants sont lus en une requête,
+     * puis les INSERT regroupés en lot JDBC.
+     * 
+     * @param comments commentaires à créer (contenu, articleId, authorId et authorUsername renseignés)
+     * @return commentaires créés dans l'ordre du lot, null pour ceux dont l'article n'existe pas
+     */
+    @Transactional
+    public List<CommentDTO> createComments(List<CommentDTO> comments) {
+        Map<Long, Long> countPerArticle = new TreeMap<>();
+        for (CommentDTO commentDTO : comments) {
+            countPerArticle.merge(commentDTO.getArticleId(), 1L, Long::sum);
+        }
+        Set<Long> existingIds = new HashSet<>();
+        countPerArticle.forEach((articleId, count) -> {
+            if (articleRepository.adjustCommentCount(articleId, count) > 0) {
+                existingIds.add(articleId);
+            }
+        });
+        Map<Long, String> titles = new HashMap<>();
+        if (!existingIds.isEmpty()) {
+            for (Object[] title : articleRepository.findTitlesByIdIn(existingIds)) {
+                titles.put((Long) title[0], (String) title[1]);
+            }
+        }
+
+        List<Comment> entities = new ArrayList<>(comments.size());
+        for (CommentDTO commentDTO : comments) {
+            if (!existingIds.contains(commentDTO.getArticleId())) {
+                entities.add(null);
+                continue;
+            }
+            Comment comment = commentMapper.toEntity(commentDTO);
+            comment.setAuthor(userRepository.getReferenceById(commentDTO.getAuthorId()));
+            comment.setArticle(articleRepository.getReferenceById(commentDTO.getArticleId()));
+            entities.add(comment);
+        }
 
-        // Sauvegarde
-        Comment savedComment = commentRepository.save(comment);
+        // Un seul lot d'INSERT (IDs réservés par bloc), exécuté ici pour renseigner les dates
+        commentRepository.saveAll(entities.stream().filter(Objects::nonNull).collect(Collectors.toList()));
+        commentRepository.flush();
+        existingIds.forEach(articleCache::evict);
 
-        // Conversion Entity → DTO avec métadonnées complètes
-        return commentMapper.toDTO(savedComment);
+        List<CommentDTO> created = new ArrayList<>(comments.size());
+        for (int i = 0; i < comments.size(); i++) {
+            Comment comment = entities.get(i);
+            CommentDTO createdComment = comment != null ? commentMapper.toReferenceDTO(comment) : null;
+            if (createdComment != null) {
+                createdComment.setAuthorUsername(comments.get(i).getAuthorUsername());
+                createdComment.setArticleTitle(titles.get(createdComment.getArticleId()));
+            }
+            created.add(createdComment);
+        }
+        return created;
     }
 
     /**
      * Récupère tous les commentaires d'un article avec pagination.
      * Tri chronologique (plus ancien en premier pour suivre la conversation).
      * 
+     * Une seule requête : commentaires, noms des auteurs et titre de l'article,
+     * l'existence de l'article étant déduite du résultat. Une page vide (au-delà de la fin)
+     * est le seul cas où l'existence est vérifiée à part. Le total approximatif n'est lu
+     * que s'il existe une page suivante ou si la page est au-delà de la fin (sinon la page le prouve).
+     * 
      * @param articleId ID de l'article
      * @param page numéro de page (0-based)
      * @param size taille de page
-     * @return Page de CommentDTO triée par date de création
+     * @return SlicePage de CommentDTO triée par date de création, total approximatif
+     * @throws EntityNotFoundException si l'article n'existe pas
+     */
+    public SlicePage<CommentDTO> getCommentsByArticle(Long articleId, int page, int size) {
+        Slice<CommentDTO> thread = commentRepository.findThreadByArticleId(articleId, PageRequest.of(page, size));
+
+        if (!thread.hasContent()) {
+            if (!articleRepository.existsById(articleId)) {
+                throw new EntityNotFoundException("Article non trouvé avec ID: " + articleId);
+            }
+        } else if (thread.getContent().get(0).getId() == null) {
+            // Article sans commentaire : ligne unique de la jointure externe
+            thread = new SliceImpl<>(List.of(), thread.getPageable(), false);
+        }
+
+        long total = thread.hasNext() || (page > 0 && !thread.hasContent())
+                ? approximateCountService.estimate("comments:article:" + articleId,
+                        () -> commentRepository.countByArticleId(articleId))
+                : 0;
+        return SlicePage.of(thread, Function.identity(), total);
+    }
+
+    /**
+     * Récupère les commentaires d'un article en pagination par curseur.
+     * Tri chronologique (plus ancien en premier), sans OFFSET ni comptage.
+     * Une seule requête : commentaires, noms des auteurs et titre de l'article,
+     * l'existence de l'article étant déduite du résultat.
+     * 
+     * @param articleId ID de l'article
+     * @param cursor curseur de la page précédente (null pour la première page)
+     * @param size taille de page
+     * @return CursorPage de CommentDTO triée par date de création
      * @throws EntityNotFoundException si l'article n'existe pas
+     * @throws IllegalArgumentException si le curseur est invalide
      */
-    public Page<CommentDTO> getCommentsByArticle(Long articleId, int page, int size) {
-        // Vérification que l'article existe
-        if (!articleRepository.existsById(articleId)) {
+    public CursorPage<CommentDTO> scrollCommentsByArticle(Long articleId, String cursor, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<CommentDTO> rows;
+        if (cursor == null) {
+            rows = commentRepository.findThreadFirstPage(articleId, limit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            rows = commentRepository.findThreadPageAfter(articleId, position.getCreatedAt(), position.getId(), limit);
+        }
+
+        if (rows.isEmpty()) {
             throw new EntityNotFoundException("Article non trouvé avec ID: " + articleId);
         }
+        if (rows.get(0).getId() == null) {
+            // Fin du fil : ligne unique de la jointure externe
+            rows = List.of();
+        }
 
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Comment> commentsPage = commentRepository.findByArticleIdOrderByCreatedAtAsc(articleId, pageable);
+        return CursorPage.of(rows, size, Function.identity(),
+                comment -> KeysetCursor.of(comment.getCreatedAt(), comment.getId()).encode());
+    }
 
-        return commentsPage.map(commentMapper::toDTO);
+    /**
+     * Récupère les commentaires d'un article publiés après un curseur (suivi d'un fil actif).
+     * 
+     * Le client interroge périodiquement avec le dernier curseur reçu : seules les nouvelles
+     * lignes sont lues, en une requête (existence de l'article comprise). Le curseur retourné
+     * est toujours renseigné (dernier commentaire lu, ou curseur reçu si rien de nouveau) ;
+     * hasNext signale d'autres commentaires en attente, à lire sans attendre le prochain intervalle.
+     * 
+     * Un curseur vide part du début du fil (chargement initial).
+     * 
+     * GARANTIE : seuls les commentaires créés depuis plus de app.comments.since.grace-seconds
+     * sont retournés, le curseur ne dépasse donc jamais maintenant - délai de grâce.
+     * Les dates et IDs sont attribués avant le commit : un commentaire validé en retard
+     * (lot d'écriture différée, transaction lente) peut apparaître derrière un commentaire déjà lu ;
+     * tant que son commit intervient dans le délai de grâce, il est retourné par une interrogation
+     * suivante, jamais sauté. En contrepartie, un nouveau commentaire est visible après ce délai.
+     * 
+     * @param articleId ID de l'article
+     * @param since curseur du dernier commentaire connu (vide pour le début du fil)
+     * @param size nombre maximal de commentaires retournés
+     * @return CursorPage de CommentDTO triée par date de création
+     * @throws EntityNotFoundException si l'article n'existe pas
+     * @throws IllegalArgumentException si le curseur est invalide
+     */
+    public CursorPage<CommentDTO> getCommentsSince(Long articleId, String since, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        LocalDateTime until = LocalDateTime.now().minusSeconds(sinceGraceSeconds);
+        List<CommentDTO> rows;
+        if (since.isEmpty()) {
+            rows = commentRepository.findThreadUntil(articleId, until, limit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(since);
+            rows = commentRepository.findThreadAfter(articleId, position.getCreatedAt(), position.getId(), until, limit);
+        }
+
+        if (rows.isEmpty()) {
+            throw new EntityNotFoundException("Article non trouvé avec ID: " + articleId);
+        }
+        if (rows.get(0).getId() == null) {
+            // Rien de nouveau : ligne unique de la jointure externe
+            rows = List.of();
+        }
+
+        Function<CommentDTO, String> cursorOf = comment -> KeysetCursor.of(comment.getCreatedAt(), comment.getId()).encode();
+        CursorPage<CommentDTO> comments = CursorPage.of(rows, size, Function.identity(), cursorOf);
+        if (!comments.isHasNext()) {
+            comments.setNextCursor(rows.isEmpty() ? since : cursorOf.apply(rows.get(rows.size() - 1)));
+        }
+        return comments;
     }
 
     /**
@@ -116,41 +307,42 @@ public class CommentService {
     /**
      * Supprime un commentaire.
      * Seul l'auteur peut supprimer son propre commentaire.
+     * Le nombre de commentaires de l'article est décrémenté (UPDATE atomique).
      * 
      * @param commentId ID du commentaire à supprimer
-     * @param userEmail email de l'utilisateur connecté
+     * @param userId ID de l'utilisateur connecté
      * @throws EntityNotFoundException si le commentaire n'existe pas
      * @throws IllegalStateException si l'utilisateur n'est pas l'auteur
      */
     @Transactional
-    public void deleteComment(Long commentId, String userEmail) {
+    public void deleteComment(Long commentId, Long userId) {
         // Récupération du commentaire
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new EntityNotFoundException("Commentaire non trouvé avec ID: " + commentId));
 
-        // Vérification que l'utilisateur connecté est l'auteur
-        if (!comment.getAuthor().getEmail().equals(userEmail)) {
+        // Vérification que l'utilisateur connecté est l'auteur (ID de la référence, sans chargement)
+        if (!comment.getAuthor().getId().equals(userId)) {
             throw new IllegalStateException("Vous ne pouvez supprimer que vos propres commentaires");
         }
 
-        // Suppression
+        // Compteur décrémenté avant la suppression : même ordre de verrouillage qu'à la création
+        Long articleId = comment.getArticle().getId();
+        articleRepository.adjustCommentCount(articleId, -1);
         commentRepository.delete(comment);
+        articleCache.evict(articleId);
     }
 
     /**
      * Récupère les commentaires d'un utilisateur avec pagination.
      * 
-     * @param userEmail email de l'utilisateur
+     * @param userId ID de l'utilisateur
      * @param page numéro de page
      * @param size taille de page
      * @return Page de CommentDTO de l'utilisateur
      */
-    public Page<CommentDTO> getCommentsByUser(String userEmail, int page, int size) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé: " + userEmail));
-
+    public Page<CommentDTO> getCommentsByUser(Long userId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Comment> commentsPage = commentRepository.findByAuthorIdOrderByCreatedAtDesc(user.getId(), pageable);
+        Page<Comment> commentsPage = commentRepository.findByAuthorIdOrderByCreatedAtDesc(userId, pageable);
 
         return commentsPage.map(commentMapper::toDTO);
     }
@@ -159,13 +351,10 @@ public class CommentService {
      * Vérifie si un utilisateur a déjà commenté un article.
      * 
      * @param articleId ID de l'article
-     * @param userEmail email de l'utilisateur
+     * @param userId ID de l'utilisateur
      * @return true si l'utilisateur a déjà commenté
      */
-    public boolean hasUserCommentedArticle(Long articleId, String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé: " + userEmail));
-
-        return commentRepository.existsByArticleIdAndAuthorId(articleId, user.getId());
+    public boolean hasUserCommentedArticle(Long articleId, Long userId) {
+        return commentRepository.existsByArticleIdAndAuthorId(articleId, userId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,310 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.dto.CommentDTO;
+import com.openclassrooms.mddapi.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityNotFoundException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File d'écriture différée des commentaires (mode optionnel, app.comments.write-behind.enabled).
+ *
+ * Pour les pics de commentaires (événements en direct) : la requête dépose le commentaire validé
+ * dans une file bornée et répond 202 avec un identifiant provisoire, sans accès base.
+ * Un thread d'écriture unique vide la file par lots (jusqu'à batch-size commentaires, ou après
+ * linger-ms), une transaction par lot (voir CommentService.createComments).
+ *
+ * - File pleine : rejet immédiat (503 + Retry-After)
+ * - Mode synchrone (?sync=true) : la réponse attend l'enregistrement du lot (201, ID définitif)
+ * - Article inexistant : détecté à l'écriture du lot ; commentaire abandonné (202 déjà envoyé)
+ * - Lot en échec (ex. article supprimé entre-temps) : commentaires réécrits un par un
+ * - Arrêt de l'application : la file est fermée aux nouveaux commentaires (503) puis vidée
+ *   avant l'arrêt de la base ; au-delà du délai, les commentaires restants échouent (503)
+ *
+ * Métriques exposées via /actuator/metrics : comments.write-behind.queue.depth,
+ * comments.write-behind.batch.size, comments.write-behind.flush.latency (acceptation → commit),
+ * comments.write-behind.flush.duration, comments.write-behind.rejected et comments.write-behind.failed.
+ */
+@Service
+@Slf4j
+public class CommentWriteBehindQueue implements DisposableBean {
+
+    private static final long POLL_TIMEOUT_MS = 500;
+
+    private final CommentService commentService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long shutdownTimeoutMs;
+    private final long retryAfterSeconds;
+    private final BlockingQueue<Pending> queue;
+    private final Thread writer;
+    private final Object acceptLock = new Object();
+    private volatile boolean running = true;
+
+    private final DistributionSummary batchSizes;
+    private final Timer flushLatency;
+    private final Timer flushDuration;
+    private final Counter rejections;
+    private final Counter failures;
+
+    public CommentWriteBehindQueue(CommentService commentService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.comments.write-behind.enabled:false}") boolean enabled,
+                                   @Value("${app.comments.write-behind.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${app.comments.write-behind.batch-size:100}") int batchSize,
+                                   @Value("${app.comments.write-behind.linger-ms:50}") long lingerMs,
+                                   @Value("${app.comments.write-behind.shutdown-timeout-ms:10000}") long shutdownTimeoutMs,
+                                   @Value("${app.comments.write-behind.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.commentService = commentService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("comments.write-behind.queue.depth", queue, BlockingQueue::size)
+                .description("Commentaires acceptés en attente d'écriture")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("comments.write-behind.batch.size")
+                .description("Commentaires écrits par transaction")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("comments.write-behind.flush.latency")
+                .description("Délai entre l'acceptation d'un commentaire et son enregistrement")
+                .register(meterRegistry);
+        this.flushDuration = Timer.builder("comments.write-behind.flush.duration")
+                .description("Durée d'écriture d'un lot")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("comments.write-behind.rejected")
+                .description("Commentaires rejetés faute de place dans la file")
+                .register(meterRegistry);
+        this.failures = Counter.builder("comments.write-behind.failed")
+                .description("Commentaires acceptés puis non enregistrés")
+                .register(meterRegistry);
+
+        this.writer = new Thread(this::run, "comments-write-behind");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            writer.start();
+            log.info("File d'écriture différée des commentaires active (file de {}, lots de {}, attente max {} ms)",
+                    queueCapacity, batchSize, lingerMs);
+        }
+    }
+
+    /**
+     * Indique si le mode d'écriture différée est actif.
+     *
+     * @return true si les commentaires passent par la file
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Dépose un commentaire validé dans la file, sans attendre.
+     *
+     * @param articleId      ID de l'article commenté
+     * @param content        contenu du commentaire
+     * @param authorId       ID de l'auteur (utilisateur connecté)
+     * @param authorUsername nom de l'auteur
+     * @return ticket : commentaire provisoire et résultat de l'écriture
+     * @throws ServiceUnavailableException si la file est pleine ou en cours d'arrêt
+     */
+    public Ticket submit(Long articleId, String content, Long authorId, String authorUsername) {
+        CommentDTO comment = new CommentDTO();
+        comment.setContent(content);
+        comment.setArticleId(articleId);
+        comment.setAuthorId(authorId);
+        comment.setAuthorUsername(authorUsername);
+
+        CommentDTO accepted = new CommentDTO();
+        accepted.setProvisionalId(UUID.randomUUID().toString());
+        accepted.setContent(content);
+        accepted.setArticleId(articleId);
+        accepted.setAuthorId(authorId);
+        accepted.setAuthorUsername(authorUsername);
+        accepted.setCreatedAt(LocalDateTime.now());
+
+        Pending pending = new Pending(comment, accepted.getProvisionalId());
+        boolean queued;
+        synchronized (acceptLock) {
+            queued = running && queue.offer(pending);
+        }
+        if (!queued) {
+            rejections.increment();
+            throw new ServiceUnavailableException(
+                    "Trop de commentaires en attente d'enregistrement. Veuillez réessayer.", retryAfterSeconds);
+        }
+        return new Ticket(accepted, pending.result);
+    }
+
+    /**
+     * Vide la file avant l'arrêt (transactions encore disponibles), dans la limite du délai configuré.
+     * Les commentaires encore en file au-delà du délai échouent : aucune réponse synchrone ne reste en attente.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        stopAccepting();
+        if (!enabled) {
+            return;
+        }
+        writer.join(shutdownTimeoutMs);
+        if (writer.isAlive()) {
+            List<Pending> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            log.warn("Arrêt : {} commentaire(s) non enregistré(s) après {} ms", remaining.size(), shutdownTimeoutMs);
+            for (Pending pending : remaining) {
+                fail(pending, new ServiceUnavailableException(
+                        "Arrêt du serveur : commentaire non enregistré. Veuillez réessayer.", retryAfterSeconds));
+            }
+        }
+    }
+
+    /**
+     * Ferme la file aux nouveaux commentaires, sous le verrou de submit : au retour,
+     * aucun dépôt ne peut plus suivre et le thread d'écriture voit tout ce qui a été accepté
+     * avant de s'arrêter.
+     */
+    private void stopAccepting() {
+        synchronized (acceptLock) {
+            running = false;
+        }
+    }
+
+    /**
+     * Boucle du thread d'écriture : un lot dès qu'un commentaire arrive, complété
+     * par ceux qui arrivent pendant linger-ms (ou jusqu'à batch-size).
+     */
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Interruption : fin de l'acceptation, le reste de la file est encore écrit
+                stopAccepting();
+            }
+
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Écrit un lot en une transaction ; en cas d'échec, chaque commentaire est réécrit seul.
+     */
+    private void flush(List<Pending> batch) {
+        long start = System.nanoTime();
+        List<CommentDTO> comments = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            comments.add(pending.comment);
+        }
+
+        try {
+            List<CommentDTO> created = commentService.createComments(comments);
+            for (int i = 0; i < batch.size(); i++) {
+                Pending pending = batch.get(i);
+                if (created.get(i) != null) {
+                    complete(pending, created.get(i));
+                } else {
+                    fail(pending, new EntityNotFoundException(
+                            "Article non trouvé avec ID: " + pending.comment.getArticleId()));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Écriture d'un lot de {} commentaire(s) en échec, écriture un par un", batch.size(), e);
+            for (Pending pending : batch) {
+                try {
+                    complete(pending, commentService.createComment(pending.comment.getArticleId(), pending.comment,
+                            pending.comment.getAuthorId(), pending.comment.getAuthorUsername()));
+                } catch (RuntimeException single) {
+                    fail(pending, single);
+                }
+            }
+        }
+
+        batchSizes.record(batch.size());
+        flushDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void complete(Pending pending, CommentDTO created) {
+        created.setProvisionalId(pending.provisionalId);
+        flushLatency.record(System.nanoTime() - pending.acceptedAt, TimeUnit.NANOSECONDS);
+        pending.result.complete(created);
+    }
+
+    private void fail(Pending pending, RuntimeException e) {
+        failures.increment();
+        log.warn("Commentaire {} (article {}) non enregistré : {}",
+                pending.provisionalId, pending.comment.getArticleId(), e.getMessage());
+        pending.result.completeExceptionally(e);
+    }
+
+    /**
+     * Commentaire accepté : représentation provisoire (202) et résultat de l'écriture.
+     */
+    @Getter
+    public static final class Ticket {
+
+        private final CommentDTO accepted;
+        private final CompletableFuture<CommentDTO> result;
+
+        private Ticket(CommentDTO accepted, CompletableFuture<CommentDTO> result) {
+            this.accepted = accepted;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Commentaire en file.
+     */
+    private static final class Pending {
+
+        private final CommentDTO comment;
+        private final String provisionalId;
+        private final long acceptedAt = System.nanoTime();
+        private final CompletableFuture<CommentDTO> result = new CompletableFuture<>();
+
+        Pending(CommentDTO comment, String provisionalId) {
+            this.comment = comment;
+            this.provisionalId = provisionalId;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service de persistance des mots de passe rehashés à la connexion.
+ *
+ * L'écriture est asynchrone pour ne pas allonger la latence du login.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PasswordUpgradeService {
+
+    private final UserRepository userRepository;
+
+    /**
+     * Remplace le hash d'un utilisateur, uniquement s'il n'a pas changé entre-temps.
+     *
+     * @param email       email de l'utilisateur
+     * @param oldPassword hash lu lors de l'authentification
+     * @param newPassword nouveau hash au coût calibré
+     */
+    @Async
+    @Transactional
+    public void upgradePassword(String email, String oldPassword, String newPassword) {
+        int updated = userRepository.updatePasswordIfUnchanged(email, oldPassword, newPassword);
+        if (updated == 1) {
+            log.debug("Hash du mot de passe mis à niveau pour : {}", email);
+        } else {
+            log.debug("Mise à niveau du hash ignorée (mot de passe modifié entre-temps) : {}", email);
+        }
+    }
+}
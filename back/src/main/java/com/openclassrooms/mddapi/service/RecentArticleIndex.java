@@ -0,0 +1,399 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.event.ArticleCreatedEvent;
+import com.openclassrooms.mddapi.event.ArticlePublishedEvent;
+import com.openclassrooms.mddapi.repository.ArticleRepository;
+import com.openclassrooms.mddapi.repository.SubjectRepository;
+import com.openclassrooms.mddapi.utils.KeysetCursor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index en mémoire des articles les plus récents de chaque sujet.
+ *
+ * Chaque sujet conserve un anneau borné de clés (createdAt, id) triées, stockées
+ * dans des tableaux de long. Le fil d'un utilisateur est une fusion k-voies (tas)
+ * des anneaux de ses sujets : la base ne sert qu'à charger les articles par ID.
+ *
+ * Un anneau plein a perdu ses plus anciennes clés ; une lecture qui descend
+ * sous la plus ancienne clé d'un anneau tronqué ne peut pas être servie et
+ * retombe sur les requêtes SQL du fil.
+ *
+ * L'index est chargé au démarrage, alimenté après le commit de chaque création
+ * d'article et complété par interrogation régulière (articles des autres instances).
+ * Chaque interrogation relit les articles créés pendant le délai de recouvrement précédent :
+ * un article validé jusqu'à ce délai après sa date de création est indexé (même délai
+ * que le rattrapage des fan-out).
+ * Chaque article nouvellement indexé est signalé une fois (ArticlePublishedEvent).
+ *
+ * Le filigrane d'un sujet (watermark) résume le contenu de son anneau : il entre dans l'ETag
+ * du fil, de sorte qu'une page servie par un index en retard ne reçoive pas l'ETag du contenu à jour.
+ *
+ * Métriques : feed.recent_index.reads (result=memory|database).
+ */
+@Service
+@Slf4j
+public class RecentArticleIndex {
+
+    private final ArticleRepository articleRepository;
+    private final SubjectRepository subjectRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int capacity;
+
+    /**
+     * Recouvrement appliqué à l'interrogation incrémentale, pour ne pas manquer
+     * un article horodaté avant son commit.
+     */
+    private final long pollOverlapSeconds;
+
+    private final Counter memoryReads;
+    private final Counter databaseReads;
+
+    private final Map<Long, SubjectRing> rings = new ConcurrentHashMap<>();
+    private volatile LocalDateTime lastPoll;
+
+    public RecentArticleIndex(ArticleRepository articleRepository,
+                              SubjectRepository subjectRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.feed.recent-index.capacity:500}") int capacity,
+                              @Value("${app.feed.recent-index.poll-overlap-seconds:30}") long pollOverlapSeconds) {
+        this.articleRepository = articleRepository;
+        this.subjectRepository = subjectRepository;
+        this.eventPublisher = eventPublisher;
+        this.capacity = capacity;
+        this.pollOverlapSeconds = pollOverlapSeconds;
+
+        this.memoryReads = readCounter(meterRegistry, "memory");
+        this.databaseReads = readCounter(meterRegistry, "database");
+    }
+
+    /**
+     * Charge les articles les plus récents de chaque sujet, avant la première requête.
+     */
+    @PostConstruct
+    void init() {
+        lastPoll = LocalDateTime.now();
+        int loaded = 0;
+
+        for (Long subjectId : subjectRepository.findAllIds()) {
+            List<Object[]> keys = articleRepository.findRecentKeysBySubjectId(subjectId, PageRequest.of(0, capacity));
+            SubjectRing ring = new SubjectRing(capacity);
+            for (int i = keys.size() - 1; i >= 0; i--) {
+                Object[] key = keys.get(i);
+                ring.add(toKey((LocalDateTime) key[1]), (Long) key[0]);
+            }
+            if (keys.size() == capacity) {
+                ring.markTruncated();
+            }
+            rings.put(subjectId, ring);
+            loaded += keys.size();
+        }
+        log.info("Index des articles récents chargé ({} sujet(s), {} article(s), capacité {})",
+                rings.size(), loaded, capacity);
+    }
+
+    /**
+     * Ajoute un article créé par cette instance, après le commit de sa création.
+     * La date est relue en base pour correspondre à la précision de la colonne.
+     *
+     * @param event article créé
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onArticleCreated(ArticleCreatedEvent event) {
+        articleRepository.findCreatedAtById(event.getArticleId())
+                .ifPresent(createdAt -> add(event.getSubjectId(), event.getArticleId(), createdAt));
+    }
+
+    /**
+     * Récupère les articles créés par les autres instances.
+     */
+    @Scheduled(fixedDelayString = "${app.feed.recent-index.poll-interval-ms:5000}")
+    public void pollArticles() {
+        LocalDateTime now = LocalDateTime.now();
+        for (Object[] key : articleRepository.findKeysCreatedSince(lastPoll.minusSeconds(pollOverlapSeconds))) {
+            add((Long) key[1], (Long) key[0], (LocalDateTime) key[2]);
+        }
+        lastPoll = now;
+    }
+
+    /**
+     * Fusionne les articles récents des sujets donnés, du plus récent au plus ancien.
+     *
+     * @param subjectIds sujets à fusionner
+     * @param after      curseur exclusif, null pour partir du plus récent
+     * @param limit      nombre maximal d'IDs (au-delà de la capacité d'un anneau, lecture en base)
+     * @return IDs ordonnés, ou vide si la lecture dépasse la fenêtre en mémoire
+     */
+    public Optional<long[]> merge(Collection<Long> subjectIds, KeysetCursor after, int limit) {
+        if (limit > capacity) {
+            // Au-delà de la fenêtre d'un anneau : la fusion ne pourrait pas être complète
+            databaseReads.increment();
+            return Optional.empty();
+        }
+
+        long afterTime = after != null ? toKey(after.getCreatedAt()) : Long.MAX_VALUE;
+        long afterId = after != null ? after.getId() : Long.MAX_VALUE;
+
+        // Plus ancienne clé garantie complète : la plus récente des bornes des anneaux tronqués
+        long boundaryTime = Long.MIN_VALUE;
+        long boundaryId = Long.MIN_VALUE;
+        boolean truncated = false;
+
+        List<Run> runs = new ArrayList<>(subjectIds.size());
+        int available = 0;
+        for (Long subjectId : subjectIds) {
+            SubjectRing ring = rings.get(subjectId);
+            if (ring == null) {
+                continue;
+            }
+            Run run = ring.before(afterTime, afterId, limit);
+            if (run.truncated) {
+                truncated = true;
+                if (compare(run.oldestTime, run.oldestId, boundaryTime, boundaryId) > 0) {
+                    boundaryTime = run.oldestTime;
+                    boundaryId = run.oldestId;
+                }
+            }
+            if (run.length > 0) {
+                runs.add(run);
+                available += run.length;
+            }
+        }
+
+        PriorityQueue<Run> heap = new PriorityQueue<>(Math.max(1, runs.size()),
+                (a, b) -> compare(b.time(), b.id(), a.time(), a.id()));
+        heap.addAll(runs);
+
+        long[] ids = new long[Math.min(limit, available)];
+        int count = 0;
+        while (count < limit && !heap.isEmpty()) {
+            Run run = heap.poll();
+            if (compare(run.time(), run.id(), boundaryTime, boundaryId) < 0) {
+                databaseReads.increment();
+                return Optional.empty();
+            }
+            ids[count++] = run.id();
+            if (++run.position < run.length) {
+                heap.add(run);
+            }
+        }
+
+        // Fenêtre épuisée alors que des articles plus anciens peuvent exister en base
+        if (count < limit && truncated) {
+            databaseReads.increment();
+            return Optional.empty();
+        }
+
+        memoryReads.increment();
+        return Optional.of(count == ids.length ? ids : Arrays.copyOf(ids, count));
+    }
+
+    /**
+     * Filigrane de l'anneau d'un sujet : somme mélangée des IDs présents, identique d'une instance
+     * à l'autre pour un même contenu et modifiée par chaque ajout ou éviction.
+     *
+     * @param subjectId ID du sujet
+     * @return filigrane, 0 si le sujet n'a pas d'anneau
+     */
+    public long watermark(Long subjectId) {
+        SubjectRing ring = rings.get(subjectId);
+        return ring != null ? ring.watermark() : 0;
+    }
+
+    private void add(Long subjectId, Long articleId, LocalDateTime createdAt) {
+        boolean added = rings.computeIfAbsent(subjectId, id -> new SubjectRing(capacity))
+                .add(toKey(createdAt), articleId);
+        if (added) {
+            eventPublisher.publishEvent(new ArticlePublishedEvent(articleId, subjectId, createdAt));
+        }
+    }
+
+    /**
+     * Clé temporelle en microsecondes, croissante avec la date (interprétée en UTC).
+     */
+    private static long toKey(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    private static int compare(long timeA, long idA, long timeB, long idB) {
+        int byTime = Long.compare(timeA, timeB);
+        return byTime != 0 ? byTime : Long.compare(idA, idB);
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("feed.recent_index.reads")
+                .description("Lectures du fil servies par l'index en mémoire ou par la base")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Anneau borné des clés d'un sujet, trié du plus ancien au plus récent.
+     */
+    private static final class SubjectRing {
+
+        private final long[] times;
+        private final long[] ids;
+        private int head;
+        private int size;
+        private boolean truncated;
+        private long watermark;
+
+        SubjectRing(int capacity) {
+            this.times = new long[capacity];
+            this.ids = new long[capacity];
+        }
+
+        /**
+         * Signale que des clés plus anciennes existent en base hors de l'anneau.
+         */
+        synchronized void markTruncated() {
+            truncated = true;
+        }
+
+        /**
+         * Insère une clé à sa place (en pratique en tête) ; une clé déjà présente est ignorée.
+         * Anneau plein : la plus ancienne clé est évincée (ou la nouvelle, si elle est plus ancienne).
+         *
+         * @return true si la clé a été insérée
+         */
+        synchronized boolean add(long time, long id) {
+            int position = search(time, id);
+            if (position < 0) {
+                return false;
+            }
+            if (size == times.length) {
+                truncated = true;
+                if (position == 0) {
+                    return false;
+                }
+                watermark -= mix(ids[head]);
+                head = (head + 1) % times.length;
+                size--;
+                position--;
+            }
+
+            for (int i = size; i > position; i--) {
+                int to = physical(i);
+                int from = physical(i - 1);
+                times[to] = times[from];
+                ids[to] = ids[from];
+            }
+            times[physical(position)] = time;
+            ids[physical(position)] = id;
+            size++;
+            watermark += mix(id);
+            return true;
+        }
+
+        synchronized long watermark() {
+            return watermark;
+        }
+
+        /**
+         * Copie au plus limit clés strictement antérieures au curseur, de la plus récente à la plus ancienne.
+         */
+        synchronized Run before(long time, long id, int limit) {
+            int end = search(time, id);
+            end = end < 0 ? -end - 1 : end;
+            int length = Math.min(limit, end);
+
+            long[] runTimes = new long[length];
+            long[] runIds = new long[length];
+            for (int i = 0; i < length; i++) {
+                int p = physical(end - 1 - i);
+                runTimes[i] = times[p];
+                runIds[i] = ids[p];
+            }
+
+            int oldest = physical(0);
+            return new Run(runTimes, runIds, length, truncated,
+                    size > 0 ? times[oldest] : Long.MAX_VALUE, size > 0 ? ids[oldest] : Long.MAX_VALUE);
+        }
+
+        /**
+         * Recherche dichotomique : position d'insertion, ou -(position + 1) si la clé est présente.
+         */
+        private int search(long time, long id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int p = physical(mid);
+                int cmp = compare(times[p], ids[p], time, id);
+                if (cmp == 0) {
+                    return -(mid + 1);
+                }
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int physical(int logical) {
+            return (head + logical) % times.length;
+        }
+
+        /**
+         * Dispersion multiplicative : deux ensembles d'IDs voisins ont des sommes distinctes.
+         */
+        private static long mix(long id) {
+            return id * 0x9E3779B97F4A7C15L;
+        }
+    }
+
+    /**
+     * Copie des clés d'un anneau en cours de fusion.
+     */
+    private static final class Run {
+
+        private final long[] times;
+        private final long[] ids;
+        private final int length;
+        private final boolean truncated;
+        private final long oldestTime;
+        private final long oldestId;
+        private int position;
+
+        Run(long[] times, long[] ids, int length, boolean truncated, long oldestTime, long oldestId) {
+            this.times = times;
+            this.ids = ids;
+            this.length = length;
+            this.truncated = truncated;
+            this.oldestTime = oldestTime;
+            this.oldestId = oldestId;
+        }
+
+        long time() {
+            return times[position];
+        }
+
+        long id() {
+            return ids[position];
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.entity.RefreshToken;
+import com.openclassrooms.mddapi.exception.InvalidRefreshTokenException;
+import com.openclassrooms.mddapi.repository.RefreshTokenRepository;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import com.openclassrooms.mddapi.security.UserPrincipal;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Service de gestion des refresh tokens (émission, rotation, révocation).
+ *
+ * Le renouvellement d'une session ne vérifie qu'un hash SHA-256 en base,
+ * sans recalcul BCrypt du mot de passe.
+ *
+ * L'expiration est fixée à la connexion et reprise par chaque rotation : une session
+ * active expire au plus tard app.jwt.refresh-expiration après la connexion.
+ * Le successeur d'un token est dérivé du token (HMAC-SHA256 avec le secret JWT) :
+ * un token tout juste tourné, présenté de nouveau dans le délai de grâce (onglets
+ * renouvelant la session en même temps), reçoit le même successeur sans rien stocker en clair.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final String INVALID_TOKEN_MESSAGE = "Session expirée, veuillez vous reconnecter";
+    private static final String SUCCESSOR_ALGORITHM = "HmacSHA256";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${app.jwt.refresh-expiration:1209600000}")
+    private long refreshExpirationMs;
+
+    /**
+     * Délai pendant lequel un token tourné peut être présenté de nouveau et recevoir son successeur
+     */
+    @Value("${app.jwt.refresh-reuse-grace-seconds:10}")
+    private long reuseGraceSeconds;
+
+    @Value("${app.jwt.secret}")
+    private String successorSecret;
+
+    /**
+     * Résultat d'une rotation : utilisateur de la session et nouveau refresh token.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Rotation {
+        private final UserPrincipal principal;
+        private final String refreshToken;
+    }
+
+    /**
+     * Émet un refresh token pour une nouvelle session (connexion ou inscription).
+     *
+     * @param userId ID de l'utilisateur authentifié
+     * @return refresh token en clair, à remettre au client
+     */
+    @Transactional
+    public String issue(Long userId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        saveToken(rawToken, userId, UUID.randomUUID().toString(),
+                LocalDateTime.now().plus(Duration.ofMillis(refreshExpirationMs)));
+        return rawToken;
+    }
+
+    /**
+     * Valide le refresh token présenté, le révoque et en émet un nouveau dans la même famille,
+     * avec la même expiration.
+     *
+     * Un token tourné depuis moins de app.jwt.refresh-reuse-grace-seconds, dont le successeur
+     * est encore actif, reçoit ce même successeur (rotation idempotente : requêtes simultanées
+     * de plusieurs onglets). Au-delà, ou si le successeur a été révoqué, la présentation d'un
+     * token révoqué (rejeu ou vol) révoque toute la famille : les deux détenteurs doivent se reconnecter.
+     *
+     * @param rawToken refresh token en clair
+     * @return utilisateur de la session et nouveau refresh token
+     * @throws InvalidRefreshTokenException si le token est absent, inconnu, expiré ou révoqué
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            throw new InvalidRefreshTokenException(INVALID_TOKEN_MESSAGE);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken token = refreshTokenRepository.findByTokenHashWithUser(hash(rawToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException(INVALID_TOKEN_MESSAGE));
+
+        if (token.isExpired(now)) {
+            throw new InvalidRefreshTokenException(INVALID_TOKEN_MESSAGE);
+        }
+
+        String successor = successorOf(rawToken);
+        if (token.isRevoked() || refreshTokenRepository.revokeIfActive(token.getId(), now) == 0) {
+            // Lecture verrouillante : voit le successeur validé par une rotation concurrente
+            if (refreshTokenRepository.findActiveCreatedAfter(hash(successor), now.minusSeconds(reuseGraceSeconds))
+                    .isPresent()) {
+                return new Rotation(UserPrincipal.fromUser(token.getUser()), successor);
+            }
+            int revoked = refreshTokenRepository.revokeFamily(token.getFamilyId(), now);
+            log.warn("Réutilisation d'un refresh token révoqué (utilisateur ID: {}), {} token(s) de la famille révoqué(s)",
+                    token.getUser().getId(), revoked);
+            throw new InvalidRefreshTokenException(INVALID_TOKEN_MESSAGE);
+        }
+
+        saveToken(successor, token.getUser().getId(), token.getFamilyId(), token.getExpiresAt());
+        return new Rotation(UserPrincipal.fromUser(token.getUser()), successor);
+    }
+
+    /**
+     * Révoque la famille du refresh token présenté (déconnexion de la session courante).
+     * Un token absent ou inconnu est ignoré.
+     *
+     * @param rawToken refresh token en clair (peut être null)
+     */
+    @Transactional
+    public void revoke(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            return;
+        }
+        refreshTokenRepository.findByTokenHashWithUser(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now()));
+    }
+
+    /**
+     * Révoque toutes les sessions d'un utilisateur.
+     *
+     * @param userId ID de l'utilisateur
+     */
+    @Transactional
+    public void revokeAll(Long userId) {
+        int revoked = refreshTokenRepository.revokeAllByUserId(userId, LocalDateTime.now());
+        log.debug("{} refresh token(s) révoqué(s) pour l'utilisateur ID: {}", revoked, userId);
+    }
+
+    /**
+     * Purge périodique des refresh tokens expirés.
+     * Les tokens révoqués sont conservés jusqu'à expiration pour détecter leur réutilisation.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.refresh-cleanup-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("{} refresh token(s) expiré(s) supprimé(s)", deleted);
+        }
+    }
+
+    /**
+     * Durée de validité des refresh tokens en secondes.
+     */
+    public long getRefreshExpirationSeconds() {
+        return refreshExpirationMs / 1000;
+    }
+
+    private void saveToken(String rawToken, Long userId, String familyId, LocalDateTime expiresAt) {
+        RefreshToken token = RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .familyId(familyId)
+                .user(userRepository.getReferenceById(userId))
+                .expiresAt(expiresAt)
+                .build();
+        refreshTokenRepository.save(token);
+    }
+
+    /**
+     * Successeur d'un token : HMAC du token, imprévisible sans le secret,
+     * identique pour toutes les présentations d'un même token.
+     */
+    private String successorOf(String rawToken) {
+        try {
+            Mac mac = Mac.getInstance(SUCCESSOR_ALGORITHM);
+            mac.init(new SecretKeySpec(successorSecret.getBytes(StandardCharsets.UTF_8), SUCCESSOR_ALGORITHM));
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mac.doFinal(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 indisponible", e);
+        }
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
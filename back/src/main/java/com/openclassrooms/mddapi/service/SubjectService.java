@@ -1,11 +1,12 @@
 package com.openclassrooms.mddapi.service;
 
 import com.openclassrooms.mddapi.dto.SubjectDTO;
+import com.openclassrooms.mddapi.dto.response.CursorPage;
 import com.openclassrooms.mddapi.entity.Subject;
-import com.openclassrooms.mddapi.entity.User;
 import com.openclassrooms.mddapi.mapper.SubjectMapper;
 import com.openclassrooms.mddapi.repository.SubjectRepository;
 import com.openclassrooms.mddapi.repository.UserRepository;
+import com.openclassrooms.mddapi.utils.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -14,6 +15,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityNotFoundException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Service métier pour la gestion des sujets et abonnements.
@@ -29,18 +33,20 @@ public class SubjectService {
     private final SubjectRepository subjectRepository;
     private final UserRepository userRepository;
     private final SubjectMapper subjectMapper;
+    private final TimelineService timelineService;
+    private final VersionStampService versionStampService;
 
     /**
      * Récupère tous les sujets avec statut d'abonnement pour l'utilisateur connecté.
+     * Les abonnements sont lus par ID, sans charger l'utilisateur.
      * 
-     * @param userEmail email de l'utilisateur connecté
+     * @param userId ID de l'utilisateur connecté
      * @param page numéro de page (0-based)
      * @param size taille de page
      * @return Page de SubjectDTO avec indicateur d'abonnement
      */
-    public Page<SubjectDTO> getAllSubjects(String userEmail, int page, int size) {
-        // Récupération utilisateur connecté
-        User user = findUserByEmail(userEmail);
+    public Page<SubjectDTO> getAllSubjects(Long userId, int page, int size) {
+        Set<Long> subscribedIds = new HashSet<>(subjectRepository.findSubscribedSubjectIds(userId));
 
         Pageable pageable = PageRequest.of(page, size);
         Page<Subject> subjectsPage = subjectRepository.findAllByOrderByNameAsc(pageable);
@@ -48,80 +54,99 @@ public class SubjectService {
         // Conversion avec statut d'abonnement calculé
         return subjectsPage.map(subject -> {
             SubjectDTO dto = subjectMapper.toDTO(subject);
-            dto.setIsSubscribed(user.isSubscribedTo(subject));
+            dto.setIsSubscribed(subscribedIds.contains(subject.getId()));
             return dto;
         });
     }
 
+    /**
+     * Récupère les sujets en pagination par curseur, triés par nom.
+     * 
+     * @param userId ID de l'utilisateur connecté
+     * @param cursor curseur de la page précédente (null pour la première page)
+     * @param size taille de page
+     * @return CursorPage de SubjectDTO avec indicateur d'abonnement
+     * @throws IllegalArgumentException si le curseur est invalide
+     */
+    public CursorPage<SubjectDTO> scrollSubjects(Long userId, String cursor, int size) {
+        Set<Long> subscribedIds = new HashSet<>(subjectRepository.findSubscribedSubjectIds(userId));
+
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Subject> rows = cursor == null
+                ? subjectRepository.findAllByOrderByNameAscIdAsc(limit)
+                : subjectRepository.findByNameGreaterThanOrderByNameAscIdAsc(KeysetCursor.decode(cursor).getKey(), limit);
+
+        return CursorPage.of(rows, size,
+                subject -> {
+                    SubjectDTO dto = subjectMapper.toDTO(subject);
+                    dto.setIsSubscribed(subscribedIds.contains(subject.getId()));
+                    return dto;
+                },
+                subject -> KeysetCursor.of(subject.getName(), subject.getId()).encode());
+    }
+
     /**
      * Récupère un sujet par son ID avec statut d'abonnement.
      * 
      * @param id ID du sujet
-     * @param userEmail email de l'utilisateur connecté
+     * @param userId ID de l'utilisateur connecté
      * @return SubjectDTO avec indicateur d'abonnement
      */
-    public SubjectDTO getSubjectById(Long id, String userEmail) {
+    public SubjectDTO getSubjectById(Long id, Long userId) {
         Subject subject = findSubjectById(id);
-        User user = findUserByEmail(userEmail);
 
         SubjectDTO dto = subjectMapper.toDTO(subject);
-        dto.setIsSubscribed(user.isSubscribedTo(subject));
+        dto.setIsSubscribed(subjectRepository.isUserSubscribedToSubject(id, userId));
 
         return dto;
     }
 
     /**
      * Abonne un utilisateur à un sujet.
+     * Écriture directe dans la table de jointure, sans charger l'utilisateur ni le sujet.
+     * La révision du sujet (nombre d'abonnés) est incrémentée avant l'écriture : le nombre
+     * de lignes mises à jour vérifie l'existence du sujet, et le verrou exclusif de sa ligne
+     * précède le verrou partagé de la clé étrangère.
+     * La timeline de l'utilisateur est complétée avec les articles existants du sujet.
      * 
      * @param subjectId ID du sujet
-     * @param userEmail email de l'utilisateur
+     * @param userId ID de l'utilisateur
      * @throws IllegalStateException si l'utilisateur est déjà abonné
+     * @throws EntityNotFoundException si le sujet n'existe pas
      */
     @Transactional
-    public void subscribeToSubject(Long subjectId, String userEmail) {
-        User user = findUserByEmail(userEmail);
-        Subject subject = findSubjectById(subjectId);
-
+    public void subscribeToSubject(Long subjectId, Long userId) {
         // Vérification état métier
-        if (user.isSubscribedTo(subject)) {
+        if (subjectRepository.isUserSubscribedToSubject(subjectId, userId)) {
             throw new IllegalStateException("Vous êtes déjà abonné à ce sujet");
         }
 
-        // Abonnement via la logique métier de l'entité
-        boolean added = user.subscribe(subject);
-
-        if (added) {
-            userRepository.save(user);
-        } else {
-            throw new IllegalStateException("Échec de l'abonnement");
+        if (!versionStampService.subjectChanged(subjectId)) {
+            throw new EntityNotFoundException("Sujet non trouvé avec ID: " + subjectId);
         }
+
+        userRepository.addSubscription(userId, subjectId);
+        timelineService.backfill(userId, subjectId);
     }
 
     /**
      * Désabonne un utilisateur d'un sujet.
+     * Les articles du sujet sont retirés de sa timeline et la révision du sujet incrémentée.
      * 
      * @param subjectId ID du sujet
-     * @param userEmail email de l'utilisateur
+     * @param userId ID de l'utilisateur
      * @throws IllegalStateException si l'utilisateur n'est pas abonné
      */
     @Transactional
-    public void unsubscribeFromSubject(Long subjectId, String userEmail) {
-        User user = findUserByEmail(userEmail);
-        Subject subject = findSubjectById(subjectId);
+    public void unsubscribeFromSubject(Long subjectId, Long userId) {
+        int removed = userRepository.removeSubscription(userId, subjectId);
 
-        // Vérification état métier
-        if (!user.isSubscribedTo(subject)) {
+        if (removed == 0) {
             throw new IllegalStateException("Vous n'êtes pas abonné à ce sujet");
         }
 
-        // Désabonnement via la logique métier de l'entité
-        boolean removed = user.unsubscribe(subject);
-
-        if (removed) {
-            userRepository.save(user);
-        } else {
-            throw new IllegalStateException("Échec du désabonnement");
-        }
+        timelineService.prune(userId, subjectId);
+        versionStampService.subjectChanged(subjectId);
     }
 
     /**
@@ -136,6 +161,7 @@ public class SubjectService {
 
     /**
      * Crée un nouveau sujet.
+     * Sa révision initiale entre dans la révision du catalogue (ETag de la liste des sujets).
      * 
      * @param subjectDTO données du sujet à créer
      * @return SubjectDTO du sujet créé
@@ -148,23 +174,12 @@ public class SubjectService {
         }
 
         Subject subject = subjectMapper.toEntity(subjectDTO);
-        Subject savedSubject = subjectRepository.save(subject);
+        // INSERT immédiat (ID réservé par bloc) : dates renseignées dans le DTO
+        Subject savedSubject = subjectRepository.saveAndFlush(subject);
 
         return subjectMapper.toDTO(savedSubject);
     }
 
-    /**
-     * Récupère un utilisateur par email avec gestion d'exception unifiée.
-     * 
-     * @param email email de l'utilisateur
-     * @return entité User
-     * @throws EntityNotFoundException si l'utilisateur n'existe pas
-     */
-    private User findUserByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé: " + email));
-    }
-
     /**
      * Récupère un sujet par ID avec gestion d'exception unifiée.
      * 
@@ -0,0 +1,309 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.dto.ArticleSummaryDTO;
+import com.openclassrooms.mddapi.event.ArticleCreatedEvent;
+import com.openclassrooms.mddapi.repository.ArticleRepository;
+import com.openclassrooms.mddapi.repository.SubjectRepository;
+import com.openclassrooms.mddapi.repository.TimelineEntryRepository;
+import com.openclassrooms.mddapi.utils.KeysetCursor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service des timelines matérialisées du fil d'actualité (modèle hybride push/pull).
+ *
+ * - Push : à la publication, l'article est recopié dans la timeline de chaque abonné
+ *   (une instruction INSERT ... SELECT), lue ensuite par simple parcours d'index
+ * - Pull : au-delà du seuil d'abonnés, le sujet passe définitivement en mode pull ;
+ *   ses articles sont lus à la demande pour ses abonnés
+ *
+ * Le fil hybride (abonné à au moins un sujet en mode pull) est une fusion en mémoire de
+ * parcours d'intervalle indépendants, chacun avec le même curseur et la même limite :
+ * timeline (user_id, created_at, article_id) et articles de chaque sujet en mode pull
+ * (subject_id, created_at, id). Les entrées de timeline antérieures au passage d'un sujet
+ * en mode pull, présentes dans les deux sources, ne sont retenues qu'une fois.
+ *
+ * Les timelines sont complétées à l'abonnement et purgées au désabonnement.
+ * Le fan-out s'exécute après le commit de l'article : un fan-out en échec est rattrapé
+ * par un balayage périodique des articles récents (repairFanOut), idempotent.
+ * Les pages récentes sont servies par RecentArticleIndex (fusion en mémoire),
+ * les timelines restant la source des lectures au-delà de sa fenêtre.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TimelineService {
+
+    /**
+     * Recouvrement entre deux rattrapages, pour ne pas manquer un article horodaté avant son commit.
+     */
+    private static final long REPAIR_OVERLAP_SECONDS = 10;
+
+    /**
+     * Profondeur du premier rattrapage après le démarrage.
+     */
+    private static final long REPAIR_STARTUP_LOOKBACK_HOURS = 24;
+
+    /**
+     * Ordre du fil : du plus récent au plus ancien, ID décroissant à date égale.
+     */
+    private static final Comparator<ArticleSummaryDTO> NEWEST_FIRST = Comparator
+            .comparing(ArticleSummaryDTO::getCreatedAt)
+            .thenComparing(ArticleSummaryDTO::getId)
+            .reversed();
+
+    private final TimelineEntryRepository timelineEntryRepository;
+    private final SubjectRepository subjectRepository;
+    private final ArticleRepository articleRepository;
+    private final RecentArticleIndex recentArticleIndex;
+
+    /**
+     * Nombre d'abonnés au-delà duquel un sujet passe en mode pull.
+     */
+    @Value("${app.feed.fanout-max-subscribers:10000}")
+    private long fanOutMaxSubscribers;
+
+    /**
+     * Âge minimal d'un article avant rattrapage : le fan-out normal a eu lieu ou a échoué.
+     */
+    @Value("${app.feed.fanout-repair.delay-seconds:30}")
+    private long fanOutRepairDelaySeconds;
+
+    /**
+     * Borne haute du dernier rattrapage réussi, null avant le premier.
+     */
+    private volatile LocalDateTime lastRepair;
+
+    /**
+     * Diffuse un article dans les timelines des abonnés, après le commit de sa création.
+     * S'exécute dans sa propre transaction ; un échec n'annule pas la publication.
+     *
+     * @param event article créé
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onArticleCreated(ArticleCreatedEvent event) {
+        Long subjectId = event.getSubjectId();
+
+        if (subjectRepository.findPullFeedById(subjectId).orElse(true)) {
+            return;
+        }
+
+        long subscribers = subjectRepository.countSubscribers(subjectId);
+        if (subscribers > fanOutMaxSubscribers) {
+            subjectRepository.markPullFeed(subjectId);
+            log.info("Sujet {} passé en mode pull ({} abonnés)", subjectId, subscribers);
+            return;
+        }
+
+        int inserted = timelineEntryRepository.fanOut(event.getArticleId(), subjectId, event.getCreatedAt());
+        log.debug("Article {} diffusé dans {} timeline(s)", event.getArticleId(), inserted);
+    }
+
+    /**
+     * Rediffuse les articles créés depuis le dernier rattrapage dans les timelines
+     * qui ne les ont pas reçus (fan-out en échec ou instance arrêtée avant le fan-out).
+     * Le premier passage couvre les dernières 24 heures ; une plage en échec est reprise
+     * au passage suivant. Chaque instance exécute le balayage : l'écriture est idempotente.
+     *
+     * @return nombre d'entrées de timeline rattrapées
+     */
+    @Scheduled(initialDelayString = "${app.feed.fanout-repair.interval-ms:60000}",
+            fixedDelayString = "${app.feed.fanout-repair.interval-ms:60000}")
+    public int repairFanOut() {
+        LocalDateTime to = LocalDateTime.now().minusSeconds(fanOutRepairDelaySeconds);
+        LocalDateTime from = lastRepair != null
+                ? lastRepair.minusSeconds(REPAIR_OVERLAP_SECONDS)
+                : to.minusHours(REPAIR_STARTUP_LOOKBACK_HOURS);
+
+        int repaired = timelineEntryRepository.repairFanOut(from, to);
+        lastRepair = to;
+
+        if (repaired > 0) {
+            log.warn("{} entrée(s) de timeline rattrapée(s) (fan-out en échec)", repaired);
+        }
+        return repaired;
+    }
+
+    /**
+     * Complète la timeline d'un nouvel abonné avec les articles existants du sujet.
+     * Doit être appelé dans la transaction d'abonnement.
+     *
+     * @param userId    ID de l'utilisateur
+     * @param subjectId ID du sujet
+     */
+    @Transactional
+    public void backfill(Long userId, Long subjectId) {
+        int inserted = timelineEntryRepository.backfill(userId, subjectId);
+        log.debug("{} article(s) ajouté(s) à la timeline de l'utilisateur {}", inserted, userId);
+    }
+
+    /**
+     * Retire les articles d'un sujet de la timeline d'un utilisateur.
+     * Doit être appelé dans la transaction de désabonnement.
+     *
+     * @param userId    ID de l'utilisateur
+     * @param subjectId ID du sujet
+     */
+    @Transactional
+    public void prune(Long userId, Long subjectId) {
+        int deleted = timelineEntryRepository.prune(userId, subjectId);
+        log.debug("{} article(s) retiré(s) de la timeline de l'utilisateur {}", deleted, userId);
+    }
+
+    /**
+     * Lit une page du fil d'un utilisateur.
+     * Servie par l'index en mémoire tant que la page reste dans sa fenêtre ; sinon,
+     * sans abonnement à un sujet en mode pull, seule la timeline matérialisée est lue.
+     *
+     * @param userId   ID de l'utilisateur
+     * @param pageable pagination
+     * @return Slice de résumés d'articles, du plus récent au plus ancien (sans requête de comptage)
+     */
+    @Transactional(readOnly = true)
+    public Slice<ArticleSummaryDTO> getFeed(Long userId, Pageable pageable) {
+        int size = pageable.getPageSize();
+        // Borne calculée en long : une page très lointaine ne déborde pas et retombe sur la base
+        long limit = pageable.getOffset() + size + 1;
+
+        Optional<long[]> recent = recentArticleIndex.merge(
+                subjectRepository.findSubscribedSubjectIds(userId), null, (int) Math.min(limit, Integer.MAX_VALUE));
+        if (recent.isPresent()) {
+            int offset = (int) pageable.getOffset();
+            long[] ids = recent.get();
+            long[] pageIds = Arrays.copyOfRange(ids, Math.min(offset, ids.length), Math.min(offset + size, ids.length));
+            return new SliceImpl<>(hydrate(pageIds), pageable, ids.length > offset + size);
+        }
+
+        List<Long> pullSubjectIds = subjectRepository.findSubscribedPullSubjectIds(userId);
+
+        if (pullSubjectIds.isEmpty()) {
+            return timelineEntryRepository.findTimeline(userId, pageable);
+        }
+
+        // Chaque source lit les offset + size + 1 premières lignes, la page est découpée après fusion
+        int offset = (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE - size - 1);
+        List<ArticleSummaryDTO> rows = readHybridFeed(userId, pullSubjectIds, null, offset + size + 1);
+        List<ArticleSummaryDTO> page = rows.subList(Math.min(offset, rows.size()), Math.min(offset + size, rows.size()));
+        return new SliceImpl<>(page, pageable, rows.size() > offset + size);
+    }
+
+    /**
+     * Compte les articles du fil d'un utilisateur.
+     * Requête coûteuse en mode hybride : destinée au total approximatif mis en cache.
+     *
+     * @param userId ID de l'utilisateur
+     * @return nombre d'articles du fil
+     */
+    @Transactional(readOnly = true)
+    public long countFeed(Long userId) {
+        List<Long> pullSubjectIds = subjectRepository.findSubscribedPullSubjectIds(userId);
+
+        if (pullSubjectIds.isEmpty()) {
+            return timelineEntryRepository.countByUserId(userId);
+        }
+        return timelineEntryRepository.countHybridFeed(userId, pullSubjectIds);
+    }
+
+    /**
+     * Lit une page du fil en pagination par curseur (seek, sans OFFSET ni comptage).
+     * Servie par l'index en mémoire tant que le curseur reste dans sa fenêtre.
+     *
+     * @param userId ID de l'utilisateur
+     * @param cursor position du dernier article lu, null pour la première page
+     * @param limit  nombre maximal d'articles à lire
+     * @return résumés d'articles, du plus récent au plus ancien
+     */
+    @Transactional(readOnly = true)
+    public List<ArticleSummaryDTO> scrollFeed(Long userId, KeysetCursor cursor, int limit) {
+        Optional<long[]> recent = recentArticleIndex.merge(
+                subjectRepository.findSubscribedSubjectIds(userId), cursor, limit);
+        if (recent.isPresent()) {
+            return hydrate(recent.get());
+        }
+
+        List<Long> pullSubjectIds = subjectRepository.findSubscribedPullSubjectIds(userId);
+
+        if (pullSubjectIds.isEmpty()) {
+            return readTimeline(userId, cursor, PageRequest.of(0, limit));
+        }
+        return readHybridFeed(userId, pullSubjectIds, cursor, limit);
+    }
+
+    /**
+     * Fil hybride : une lecture par source (timeline, puis chaque sujet en mode pull),
+     * même curseur et même limite, fusionnées du plus récent au plus ancien sans doublon.
+     *
+     * @param userId         ID de l'utilisateur
+     * @param pullSubjectIds sujets suivis en mode pull
+     * @param cursor         position du dernier article lu, null pour la première page
+     * @param limit          nombre maximal d'articles à lire
+     * @return résumés d'articles, du plus récent au plus ancien
+     */
+    private List<ArticleSummaryDTO> readHybridFeed(Long userId, List<Long> pullSubjectIds,
+                                                   KeysetCursor cursor, int limit) {
+        Pageable pageable = PageRequest.of(0, limit);
+        List<ArticleSummaryDTO> rows = new ArrayList<>(readTimeline(userId, cursor, pageable));
+        for (Long subjectId : pullSubjectIds) {
+            rows.addAll(cursor == null
+                    ? articleRepository.findSubjectSummariesFirstPage(subjectId, pageable)
+                    : articleRepository.findSubjectSummariesBefore(subjectId,
+                            cursor.getCreatedAt(), cursor.getId(), pageable));
+        }
+
+        Set<Long> seen = new HashSet<>();
+        return rows.stream()
+                .sorted(NEWEST_FIRST)
+                .filter(article -> seen.add(article.getId()))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private List<ArticleSummaryDTO> readTimeline(Long userId, KeysetCursor cursor, Pageable pageable) {
+        return cursor == null
+                ? timelineEntryRepository.findTimelineFirstPage(userId, pageable)
+                : timelineEntryRepository.findTimelinePageBefore(userId, cursor.getCreatedAt(), cursor.getId(), pageable);
+    }
+
+    /**
+     * Charge les résumés d'articles par ID en une requête, dans l'ordre donné.
+     * Aucune requête pour une liste vide (fil sans abonnement, page hors de la fenêtre).
+     */
+    private List<ArticleSummaryDTO> hydrate(long[] ids) {
+        if (ids.length == 0) {
+            return List.of();
+        }
+        List<Long> orderedIds = Arrays.stream(ids).boxed().collect(Collectors.toList());
+        Map<Long, ArticleSummaryDTO> articles = articleRepository.findSummariesByIdIn(orderedIds).stream()
+                .collect(Collectors.toMap(ArticleSummaryDTO::getId, Function.identity()));
+
+        return orderedIds.stream()
+                .map(articles::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+}
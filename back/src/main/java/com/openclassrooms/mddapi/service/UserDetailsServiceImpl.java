@@ -2,9 +2,11 @@ package com.openclassrooms.mddapi.service;
 
 import com.openclassrooms.mddapi.entity.User;
 import com.openclassrooms.mddapi.repository.UserRepository;
+import com.openclassrooms.mddapi.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -16,40 +18,60 @@ import org.springframework.stereotype.Service;
  *
  * Charge les utilisateurs depuis la base de données MySQL
  * pour l'authentification JWT et login classique.
+ *
+ * Implémente UserDetailsPasswordService : après une connexion réussie avec un hash
+ * dont le coût diffère du coût calibré, le nouveau hash est persisté en asynchrone.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final PasswordUpgradeService passwordUpgradeService;
 
     /**
-     * Charge un utilisateur par son email pour l'authentification.
+     * Charge un utilisateur par son email ou son nom d'utilisateur pour l'authentification.
      * Méthode obligatoire de UserDetailsService.
      *
-     * @param email email de l'utilisateur
-     * @return UserDetails pour Spring Security
+     * Le principal retourné porte l'ID et le nom d'utilisateur : le contrôleur
+     * génère le JWT sans relire l'utilisateur en base.
+     *
+     * @param login email ou nom d'utilisateur
+     * @return UserPrincipal pour Spring Security
      * @throws UsernameNotFoundException si utilisateur non trouvé
      */
     @Override
-    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        log.debug("Chargement utilisateur : {}", email);
+    public UserDetails loadUserByUsername(String login) throws UsernameNotFoundException {
+        log.debug("Chargement utilisateur : {}", login);
 
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé : " + email));
+        User user = userRepository.findByEmailOrUsername(login)
+                .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé : " + login));
 
         log.debug("Utilisateur trouvé : {}", user.getUsername());
 
-        // Création UserDetails avec rôle USER par défaut
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())      // Spring Security utilise l'email comme username
-                .password(user.getPassword())   // Mot de passe déjà hashé en base
-                .authorities("ROLE_USER")       // Rôle par défaut pour le MVP
-                .accountExpired(false)          // MVP : compte jamais expiré
-                .accountLocked(false)           // MVP : compte jamais verrouillé
-                .credentialsExpired(false)      // MVP : credentials jamais expirés
-                .disabled(false)                // MVP : compte toujours actif
+        return UserPrincipal.withCredentials(user);
+    }
+
+    /**
+     * Persiste le hash recalculé par DaoAuthenticationProvider après une connexion réussie.
+     * L'écriture est déléguée en asynchrone, le login n'attend pas la base.
+     *
+     * @param user        utilisateur authentifié (avec l'ancien hash)
+     * @param newPassword nouveau hash au coût calibré
+     * @return UserDetails portant le nouveau hash
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        passwordUpgradeService.upgradePassword(user.getUsername(), user.getPassword(), newPassword);
+
+        if (user instanceof UserPrincipal) {
+            UserPrincipal principal = (UserPrincipal) user;
+            return new UserPrincipal(principal.getId(), principal.getEmail(), principal.getDisplayName(),
+                    newPassword, principal.getAuthorities());
+        }
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
                 .build();
     }
-}
\ No newline at end of file
+}
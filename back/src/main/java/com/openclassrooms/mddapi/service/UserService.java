@@ -7,6 +7,7 @@ import com.openclassrooms.mddapi.entity.User;
 import com.openclassrooms.mddapi.mapper.SubjectMapper;
 import com.openclassrooms.mddapi.mapper.UserMapper;
 import com.openclassrooms.mddapi.repository.UserRepository;
+import com.openclassrooms.mddapi.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -31,6 +32,8 @@ public class UserService {
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
     private final SubjectMapper subjectMapper;
+    private final PrincipalCache principalCache;
+    private final ArticleCache articleCache;
 
     /**
      * Crée un nouvel utilisateur.
@@ -43,7 +46,8 @@ public class UserService {
         log.info("Creating user with email: {}", registerRequest.getEmail());
         User user = userMapper.toUser(registerRequest);
         user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
-        User savedUser = userRepository.save(user);
+        // INSERT immédiat (ID réservé par bloc) : doublon détecté ici, dates renseignées dans le DTO
+        User savedUser = userRepository.saveAndFlush(user);
         log.info("User created successfully: {} (ID: {})", savedUser.getEmail(), savedUser.getId());
         return userMapper.toDto(savedUser);
     }
@@ -91,6 +95,7 @@ public class UserService {
         log.info("Updating profile for user: {}", currentEmail);
         User user = findUserByEmail(currentEmail);
 
+        String previousUsername = user.getUsername();
         Optional.ofNullable(userUpdate.getUsername())
                 .filter(username -> !username.trim().isEmpty())
                 .ifPresent(cleanUsername -> {
@@ -113,6 +118,11 @@ public class UserService {
                 });
 
         User updatedUser = userRepository.save(user);
+        principalCache.evict(currentEmail);
+        if (!updatedUser.getUsername().equals(previousUsername)) {
+            // Nom d'auteur dupliqué dans les articles en cache
+            articleCache.evictAll();
+        }
         log.info("Profile updated successfully for user: {}", updatedUser.getEmail());
         return userMapper.toDto(updatedUser);
     }
@@ -0,0 +1,160 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.dto.ArticleDTO;
+import com.openclassrooms.mddapi.repository.ArticleRepository;
+import com.openclassrooms.mddapi.repository.SubjectRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Révisions des sujets et des articles, et ETag dérivés pour les GET conditionnels.
+ *
+ * Les révisions sont des colonnes incrémentées dans la transaction de chaque écriture
+ * visible (article, commentaire, abonnement) : elles sont partagées par toutes les instances.
+ * La révision d'un article est incrémentée avec son nombre de commentaires
+ * (ArticleRepository.adjustCommentCount) ; celle de son sujet ne l'est pas : un commentaire
+ * ne verrouille pas la ligne du sujet et ne change pas l'ETag du fil de tous ses abonnés.
+ * Un ETag se calcule par une lecture de révisions, sans exécuter la requête de la page ;
+ * il est calculé avant la page, de sorte qu'une écriture concurrente produise au pire
+ * un ETag plus ancien que le contenu (réponse complète à la requête suivante).
+ *
+ * Le détail d'un article, servi par ArticleCache, tire son ETag de la révision du DTO,
+ * rechargé si elle est antérieure à la révision lue en base.
+ *
+ * ETag faibles : le contenu est équivalent à révisions égales, les totaux approximatifs
+ * et les nombres de commentaires des cartes pouvant varier (à jour au prochain article du sujet).
+ * Le nom d'un auteur modifié n'entre pas dans les révisions des listes.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class VersionStampService {
+
+    private final SubjectRepository subjectRepository;
+    private final ArticleRepository articleRepository;
+    private final RecentArticleIndex recentArticleIndex;
+
+    /**
+     * Signale un changement visible dans les listes d'un sujet (et le fil de ses abonnés).
+     * À appeler avant toute écriture référençant le sujet : le verrou exclusif de sa ligne
+     * est ainsi pris en premier.
+     *
+     * @param subjectId ID du sujet
+     * @return true si le sujet existe (révision incrémentée)
+     */
+    @Transactional
+    public boolean subjectChanged(Long subjectId) {
+        return subjectRepository.incrementRevision(subjectId) > 0;
+    }
+
+    /**
+     * ETag du fil d'un utilisateur : révisions de ses seuls sujets suivis (base) et filigranes
+     * de leurs anneaux dans l'index des articles récents (source des premières pages).
+     * Un abonnement ou un désabonnement modifie l'ensemble, donc l'ETag.
+     *
+     * Un index en retard sur la base (autre instance, ou avant le commit) garde un filigrane
+     * ancien : l'ETag change encore quand il rattrape la base, au lieu de figer en 304
+     * une page à laquelle manque le nouvel article.
+     *
+     * @param userId ID de l'utilisateur
+     * @return ETag faible
+     */
+    public String feedTag(Long userId) {
+        StringBuilder stamp = new StringBuilder("feed");
+        for (Object[] revision : subjectRepository.findSubscribedSubjectRevisions(userId)) {
+            Long subjectId = (Long) revision[0];
+            stamp.append(':').append(subjectId).append('.').append(revision[1])
+                    .append('.').append(recentArticleIndex.watermark(subjectId));
+        }
+        return weakTag(stamp.toString());
+    }
+
+    /**
+     * ETag de la liste des sujets vue par un utilisateur (indicateurs d'abonnement propres à l'utilisateur).
+     *
+     * @param userId ID de l'utilisateur
+     * @return ETag faible
+     */
+    public String subjectsTag(Long userId) {
+        return weakTag("subjects:" + userId + ":" + subjectRepository.sumRevisions());
+    }
+
+    /**
+     * ETag de la liste de tous les articles : tout nouvel article incrémente son sujet.
+     *
+     * @return ETag faible
+     */
+    public String articlesTag() {
+        return weakTag("articles:" + subjectRepository.sumRevisions());
+    }
+
+    /**
+     * ETag du détail d'un sujet vu par un utilisateur (nombre d'abonnés, indicateur d'abonnement).
+     *
+     * @param subjectId ID du sujet
+     * @param userId    ID de l'utilisateur
+     * @return ETag faible, null si le sujet n'existe pas (réponse non conditionnelle)
+     */
+    public String subjectTag(Long subjectId, Long userId) {
+        return subjectRepository.findRevisionById(subjectId)
+                .map(revision -> weakTag("subject:" + subjectId + "." + revision + ":" + userId))
+                .orElse(null);
+    }
+
+    /**
+     * ETag de la liste des articles d'un sujet.
+     *
+     * @param subjectId ID du sujet
+     * @return ETag faible, null si le sujet n'existe pas (réponse non conditionnelle)
+     */
+    public String subjectArticlesTag(Long subjectId) {
+        return subjectRepository.findRevisionById(subjectId)
+                .map(revision -> weakTag("subject-articles:" + subjectId + "." + revision))
+                .orElse(null);
+    }
+
+    /**
+     * ETag de la liste des commentaires d'un article.
+     *
+     * @param articleId ID de l'article
+     * @return ETag faible, null si l'article n'existe pas (réponse non conditionnelle)
+     */
+    public String commentsTag(Long articleId) {
+        return articleRepository.findRevisionById(articleId)
+                .map(revision -> weakTag("comments:" + articleId + "." + revision))
+                .orElse(null);
+    }
+
+    /**
+     * Révision courante d'un article, lue en base (clé primaire).
+     *
+     * @param articleId ID de l'article
+     * @return révision, vide si l'article n'existe pas
+     */
+    public Optional<Long> articleRevision(Long articleId) {
+        return articleRepository.findRevisionById(articleId);
+    }
+
+    /**
+     * ETag du détail d'un article, dérivé de la révision du DTO servi.
+     * Le DTO est lu à une révision au moins égale à celle de la base
+     * (ArticleService.getArticleById(id, revision)) : l'ETag ne confirme jamais
+     * une entrée en cache périmée par une écriture faite sur une autre instance.
+     *
+     * @param article détail de l'article
+     * @return ETag faible
+     */
+    public String articleTag(ArticleDTO article) {
+        return weakTag("article:" + article.getId() + "." + article.getRevision()
+                + ":" + article.getAuthorUsername());
+    }
+
+    private static String weakTag(String stamp) {
+        return "W/\"" + DigestUtils.md5DigestAsHex(stamp.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
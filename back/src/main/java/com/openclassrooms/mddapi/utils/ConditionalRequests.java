@@ -0,0 +1,47 @@
+package com.openclassrooms.mddapi.utils;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Classe utilitaire des GET conditionnels (ETag / If-None-Match).
+ *
+ * USAGE : l'ETag est calculé avant la requête de la page (voir VersionStampService) ;
+ * si le client possède déjà la représentation, la réponse est un 304 sans corps.
+ *
+ * Les réponses sont marquées "private, no-cache" : le navigateur les conserve
+ * et les revalide à chaque requête (au lieu du "no-store" par défaut de Spring Security).
+ */
+public final class ConditionalRequests {
+
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation.
+     * Classe utilitaire avec méthodes statiques uniquement.
+     */
+    private ConditionalRequests() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Répond 304 si l'en-tête If-None-Match correspond à l'ETag courant,
+     * sinon 200 avec le corps produit (la page n'est lue que dans ce cas).
+     * L'en-tête ETag est ajouté à la réponse dans les deux cas.
+     *
+     * @param request requête courante
+     * @param eTag    ETag courant, null si la ressource n'existe pas (jamais de 304)
+     * @param body    production du corps de la réponse
+     * @return ResponseEntity 304 sans corps, ou 200
+     */
+    public static <T> ResponseEntity<T> ifNoneMatch(WebRequest request, String eTag, Supplier<T> body) {
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(body.get());
+    }
+}
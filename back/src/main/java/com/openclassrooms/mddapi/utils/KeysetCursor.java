@@ -0,0 +1,83 @@
+package com.openclassrooms.mddapi.utils;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Curseur opaque de pagination par clé (keyset pagination).
+ *
+ * Encode la position du dernier élément d'une page : clé de tri (date de création
+ * ou nom) et ID pour départager les égalités. La page suivante est lue par une
+ * recherche indexée (created_at, id) &lt; (clé, ID), sans OFFSET.
+ *
+ * Format : Base64 URL de "clé|id". Le contenu n'est pas un contrat d'API.
+ */
+@Getter
+public final class KeysetCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final String key;
+    private final Long id;
+
+    private KeysetCursor(String key, Long id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    /**
+     * Curseur positionné sur un élément trié par date de création.
+     */
+    public static KeysetCursor of(LocalDateTime createdAt, Long id) {
+        return new KeysetCursor(createdAt.toString(), id);
+    }
+
+    /**
+     * Curseur positionné sur un élément trié par une clé texte unique (nom de sujet).
+     */
+    public static KeysetCursor of(String key, Long id) {
+        return new KeysetCursor(key, id);
+    }
+
+    /**
+     * Décode un curseur reçu du client.
+     *
+     * @param cursor curseur encodé
+     * @return curseur décodé
+     * @throws IllegalArgumentException si le curseur est mal formé (400)
+     */
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf(SEPARATOR);
+            return new KeysetCursor(decoded.substring(0, separator), Long.valueOf(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+
+    /**
+     * Encode le curseur pour le client.
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((key + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Clé interprétée comme date de création.
+     *
+     * @throws IllegalArgumentException si la clé n'est pas une date (400)
+     */
+    public LocalDateTime getCreatedAt() {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.openclassrooms.mddapi.utils;
 
+import com.openclassrooms.mddapi.security.UserPrincipal;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -11,7 +12,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
  * d'authentification depuis le SecurityContext Spring Security.
  *
  * USAGE :
- * - Extraction de l'email utilisateur connecté
+ * - Extraction de l'email, de l'ID et du nom de l'utilisateur connecté
  * - Vérification du statut d'authentification
  * - Utilitaires de sécurité réutilisables
  *
@@ -51,6 +52,29 @@ public final class SecurityUtils {
         return userEmail;
     }
 
+    /**
+     * Récupère l'ID de l'utilisateur connecté depuis le principal.
+     *
+     * PERFORMANCE : l'ID est résolu une fois par le filtre JWT (via le cache des principaux),
+     * les services peuvent donc travailler par ID sans findByEmail.
+     *
+     * @return ID de l'utilisateur connecté
+     * @throws IllegalStateException si aucun utilisateur n'est authentifié
+     */
+    public static Long getCurrentUserId() {
+        return getCurrentPrincipal().getId();
+    }
+
+    /**
+     * Récupère le nom d'utilisateur (pseudo) de l'utilisateur connecté.
+     *
+     * @return nom d'utilisateur affiché
+     * @throws IllegalStateException si aucun utilisateur n'est authentifié
+     */
+    public static String getCurrentUsername() {
+        return getCurrentPrincipal().getDisplayName();
+    }
+
     /**
      * Vérifie si un utilisateur est authentifié.
      *
@@ -70,4 +94,21 @@ public final class SecurityUtils {
     public static Authentication getCurrentAuthentication() {
         return SecurityContextHolder.getContext().getAuthentication();
     }
-}
\ No newline at end of file
+
+    /**
+     * Récupère le principal de l'utilisateur connecté.
+     *
+     * @return UserPrincipal de l'utilisateur connecté
+     * @throws IllegalStateException si aucun utilisateur n'est authentifié
+     */
+    private static UserPrincipal getCurrentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof UserPrincipal)) {
+            throw new IllegalStateException("Aucun utilisateur authentifié");
+        }
+
+        return (UserPrincipal) authentication.getPrincipal();
+    }
+}
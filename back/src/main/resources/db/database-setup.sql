@@ -13,18 +13,23 @@ USE mdd_db;
 
 -- Supprimer les tables existantes (dans l'ordre inverse des dépendances)
 SET FOREIGN_KEY_CHECKS = 0;
+DROP TABLE IF EXISTS timeline_entries;
+DROP TABLE IF EXISTS revoked_tokens;
+DROP TABLE IF EXISTS refresh_tokens;
 DROP TABLE IF EXISTS comments;
+DROP TABLE IF EXISTS article_bodies;
 DROP TABLE IF EXISTS subscriptions;
 DROP TABLE IF EXISTS articles;
 DROP TABLE IF EXISTS subjects;
 DROP TABLE IF EXISTS users;
+DROP TABLE IF EXISTS id_generators;
 SET FOREIGN_KEY_CHECKS = 1;
 
 -- ============================================================================
 -- TABLE USERS
 -- ============================================================================
 CREATE TABLE users (
-    id BIGINT NOT NULL AUTO_INCREMENT,
+    id BIGINT NOT NULL, -- attribué par l'application (table id_generators)
     email VARCHAR(100) NOT NULL,
     username VARCHAR(50) NOT NULL,
     password VARCHAR(255) NOT NULL,
@@ -45,10 +50,12 @@ CREATE TABLE users (
 -- TABLE SUBJECTS
 -- ============================================================================
 CREATE TABLE subjects (
-    id BIGINT NOT NULL AUTO_INCREMENT,
+    id BIGINT NOT NULL, -- attribué par l'application (table id_generators)
     name VARCHAR(100) NOT NULL,
     description TEXT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    pull_feed BOOLEAN NOT NULL DEFAULT FALSE,
+    revision BIGINT NOT NULL DEFAULT 0,
 
     -- Contraintes
     PRIMARY KEY (id),
@@ -62,11 +69,13 @@ CREATE TABLE subjects (
 -- TABLE ARTICLES
 -- ============================================================================
 CREATE TABLE articles (
-    id BIGINT NOT NULL AUTO_INCREMENT,
+    id BIGINT NOT NULL, -- attribué par l'application (table id_generators)
     title VARCHAR(200) NOT NULL,
-    content TEXT NOT NULL,
+    excerpt VARCHAR(200) NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    revision BIGINT NOT NULL DEFAULT 0,
+    comment_count BIGINT NOT NULL DEFAULT 0,
     author_id BIGINT NOT NULL,
     subject_id BIGINT NOT NULL,
 
@@ -83,16 +92,32 @@ CREATE TABLE articles (
 
     -- Index pour les performances
     INDEX idx_articles_author_id (author_id),
-    INDEX idx_articles_subject_id (subject_id),
-    INDEX idx_articles_created_at (created_at DESC),
+    INDEX idx_articles_subject_created (subject_id, created_at DESC, id DESC),
+    INDEX idx_articles_created_at (created_at DESC, id DESC),
     INDEX idx_articles_title (title)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- ============================================================================
+-- TABLE ARTICLE_BODIES (contenu complet, séparé des lignes parcourues par les listes)
+-- ============================================================================
+CREATE TABLE article_bodies (
+    article_id BIGINT NOT NULL,
+    content TEXT NOT NULL,
+
+    -- Contraintes
+    PRIMARY KEY (article_id),
+
+    -- Clés étrangères
+    CONSTRAINT fk_article_bodies_article
+        FOREIGN KEY (article_id) REFERENCES articles(id)
+        ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- ============================================================================
 -- TABLE COMMENTS
 -- ============================================================================
 CREATE TABLE comments (
-    id BIGINT NOT NULL AUTO_INCREMENT,
+    id BIGINT NOT NULL, -- attribué par l'application (table id_generators)
     content TEXT NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
@@ -112,7 +137,7 @@ CREATE TABLE comments (
 
     -- Index pour les performances
     INDEX idx_comments_author_id (author_id),
-    INDEX idx_comments_article_id (article_id),
+    INDEX idx_comments_article_created (article_id, created_at ASC, id ASC),
     INDEX idx_comments_created_at (created_at ASC)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
@@ -143,6 +168,90 @@ CREATE TABLE subscriptions (
     INDEX idx_subscriptions_subscribed_at (subscribed_at DESC)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- ============================================================================
+-- TABLE TIMELINE_ENTRIES (fil d'actualité matérialisé)
+-- ============================================================================
+CREATE TABLE timeline_entries (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    article_id BIGINT NOT NULL,
+    subject_id BIGINT NOT NULL,
+
+    -- Contraintes
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_timeline_entries_user_article (user_id, article_id),
+
+    -- Clés étrangères
+    CONSTRAINT fk_timeline_entries_user
+        FOREIGN KEY (user_id) REFERENCES users(id)
+        ON DELETE CASCADE ON UPDATE CASCADE,
+    CONSTRAINT fk_timeline_entries_article
+        FOREIGN KEY (article_id) REFERENCES articles(id)
+        ON DELETE CASCADE ON UPDATE CASCADE,
+
+    -- Index pour les performances
+    INDEX idx_timeline_entries_user_created (user_id, created_at DESC, article_id DESC),
+    INDEX idx_timeline_entries_user_subject (user_id, subject_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ============================================================================
+-- TABLE REFRESH_TOKENS
+-- ============================================================================
+CREATE TABLE refresh_tokens (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    token_hash VARCHAR(64) NOT NULL,
+    family_id VARCHAR(36) NOT NULL,
+    user_id BIGINT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NULL,
+
+    -- Contraintes
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_refresh_tokens_token_hash (token_hash),
+
+    -- Clés étrangères
+    CONSTRAINT fk_refresh_tokens_user
+        FOREIGN KEY (user_id) REFERENCES users(id)
+        ON DELETE CASCADE ON UPDATE CASCADE,
+
+    -- Index pour les performances
+    INDEX idx_refresh_tokens_family_id (family_id),
+    INDEX idx_refresh_tokens_user_id (user_id),
+    INDEX idx_refresh_tokens_expires_at (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ============================================================================
+-- TABLE REVOKED_TOKENS
+-- ============================================================================
+CREATE TABLE revoked_tokens (
+    jti VARCHAR(36) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    -- Contraintes
+    PRIMARY KEY (jti),
+
+    -- Index pour les performances
+    INDEX idx_revoked_tokens_revoked_at (revoked_at),
+    INDEX idx_revoked_tokens_expires_at (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ============================================================================
+-- TABLE ID_GENERATORS (générateur d'IDs par blocs, pooled-lo)
+-- ============================================================================
+-- Une ligne par table : next_val est le premier ID du prochain bloc réservé.
+-- Chaque instance réserve un bloc (allocationSize) en une requête, puis attribue
+-- les IDs en mémoire : les insertions peuvent être regroupées en lots JDBC.
+CREATE TABLE id_generators (
+    sequence_name VARCHAR(64) NOT NULL,
+    next_val BIGINT NOT NULL,
+
+    -- Contraintes
+    PRIMARY KEY (sequence_name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- ============================================================================
 -- DONNÉES MAÎTRES - SUJETS
 -- ============================================================================
@@ -151,22 +260,22 @@ CREATE TABLE subscriptions (
  * Insertion des données de référence pour les sujets
  * Ces données sont stables et communes à l'application
  */
-INSERT INTO subjects (name, description) VALUES
-('Java', 'Langage de programmation orienté objet, plateforme de développement complète pour applications d''entreprise et mobiles.'),
-('Spring Framework', 'Framework de développement Java pour créer des applications robustes avec l''inversion de contrôle et la programmation orientée aspect.'),
-('JavaScript', 'Langage de script dynamique pour le développement web front-end et back-end, essentiel pour l''interactivité des pages web.'),
-('React', 'Bibliothèque JavaScript pour construire des interfaces utilisateur interactives et des applications web modernes.'),
-('Angular', 'Framework TypeScript pour développer des applications web dynamiques avec une architecture basée sur les composants.'),
-('Node.js', 'Environnement d''exécution JavaScript côté serveur, permettant de créer des applications web rapides et scalables.'),
-('Python', 'Langage de programmation polyvalent, idéal pour le développement web, l''analyse de données et l''intelligence artificielle.'),
-('DevOps', 'Méthodologie combinant développement et opérations pour améliorer la collaboration et accélérer le déploiement d''applications.'),
-('Base de données', 'Systèmes de gestion de données relationnelles et NoSQL, optimisation des requêtes et conception de schémas.'),
-('Sécurité informatique', 'Pratiques et technologies pour protéger les applications, données et infrastructures contre les cybermenaces.'),
-('Architecture logicielle', 'Conception et organisation des systèmes complexes, patterns architecturaux et bonnes pratiques de développement.'),
-('Tests unitaires', 'Méthodologies et outils pour tester automatiquement le code, assurer la qualité et faciliter la maintenance.'),
-('Docker', 'Plateforme de conteneurisation pour empaqueter, distribuer et exécuter des applications de manière portable.'),
-('Git', 'Système de contrôle de version distribué pour suivre les modifications du code et collaborer efficacement en équipe.'),
-('Microservices', 'Architecture distribuée décomposant les applications en services indépendants et faiblement couplés.');
+INSERT INTO subjects (id, name, description) VALUES
+(1, 'Java', 'Langage de programmation orienté objet, plateforme de développement complète pour applications d''entreprise et mobiles.'),
+(2, 'Spring Framework', 'Framework de développement Java pour créer des applications robustes avec l''inversion de contrôle et la programmation orientée aspect.'),
+(3, 'JavaScript', 'Langage de script dynamique pour le développement web front-end et back-end, essentiel pour l''interactivité des pages web.'),
+(4, 'React', 'Bibliothèque JavaScript pour construire des interfaces utilisateur interactives et des applications web modernes.'),
+(5, 'Angular', 'Framework TypeScript pour développer des applications web dynamiques avec une architecture basée sur les composants.'),
+(6, 'Node.js', 'Environnement d''exécution JavaScript côté serveur, permettant de créer des applications web rapides et scalables.'),
+(7, 'Python', 'Langage de programmation polyvalent, idéal pour le développement web, l''analyse de données et l''intelligence artificielle.'),
+(8, 'DevOps', 'Méthodologie combinant développement et opérations pour améliorer la collaboration et accélérer le déploiement d''applications.'),
+(9, 'Base de données', 'Systèmes de gestion de données relationnelles et NoSQL, optimisation des requêtes et conception de schémas.'),
+(10, 'Sécurité informatique', 'Pratiques et technologies pour protéger les applications, données et infrastructures contre les cybermenaces.'),
+(11, 'Architecture logicielle', 'Conception et organisation des systèmes complexes, patterns architecturaux et bonnes pratiques de développement.'),
+(12, 'Tests unitaires', 'Méthodologies et outils pour tester automatiquement le code, assurer la qualité et faciliter la maintenance.'),
+(13, 'Docker', 'Plateforme de conteneurisation pour empaqueter, distribuer et exécuter des applications de manière portable.'),
+(14, 'Git', 'Système de contrôle de version distribué pour suivre les modifications du code et collaborer efficacement en équipe.'),
+(15, 'Microservices', 'Architecture distribuée décomposant les applications en services indépendants et faiblement couplés.');
 
 -- ============================================================================
 -- DONNÉES MAÎTRES - UTILISATEURS DE BASE
@@ -176,10 +285,19 @@ INSERT INTO subjects (name, description) VALUES
  * Insertion des utilisateurs de base pour le démarrage de l'application
  * Mots de passe hashés avec BCrypt (strength 10)
  */
-INSERT INTO users (email, username, password) VALUES
-('admin@mdd.com', 'admin', '$2a$10$GxBhPOrT7k6dLEB5b1R.v.n6Zl/BZwNozml3HRCKP7zrZBimnL5tO'),
-('author@mdd.com', 'author', '$2a$10$N9qo8uLOickgx2ZMRZoMye.Uo0v.4GVDYlHcvklJcM9LxrJPz/1Hi'),
-('user@mdd.com', 'user', '$2b$12$YZePMILFOezjsJVkenuAJ.5WBRt5DJwWvM///gKZzfoyN3GO0.uu.');
+INSERT INTO users (id, email, username, password) VALUES
+(1, 'admin@mdd.com', 'admin', '$2a$10$GxBhPOrT7k6dLEB5b1R.v.n6Zl/BZwNozml3HRCKP7zrZBimnL5tO'),
+(2, 'author@mdd.com', 'author', '$2a$10$N9qo8uLOickgx2ZMRZoMye.Uo0v.4GVDYlHcvklJcM9LxrJPz/1Hi'),
+(3, 'user@mdd.com', 'user', '$2b$12$YZePMILFOezjsJVkenuAJ.5WBRt5DJwWvM///gKZzfoyN3GO0.uu.');
+
+-- ============================================================================
+-- GÉNÉRATEURS D'IDS (premier ID libre de chaque table)
+-- ============================================================================
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'users', COALESCE(MAX(id), 0) + 1 FROM users
+UNION ALL SELECT 'subjects', COALESCE(MAX(id), 0) + 1 FROM subjects
+UNION ALL SELECT 'articles', COALESCE(MAX(id), 0) + 1 FROM articles
+UNION ALL SELECT 'comments', COALESCE(MAX(id), 0) + 1 FROM comments;
 
 -- ============================================================================
 -- VÉRIFICATION DES DONNÉES INSÉRÉES
@@ -0,0 +1,46 @@
+-- ============================================================================
+-- MIGRATION 001 : TIMELINES MATÉRIALISÉES DU FIL D'ACTUALITÉ
+-- À appliquer sur une base existante (database-setup.sql inclut déjà ces changements)
+-- ============================================================================
+
+USE mdd_db;
+
+-- Mode de diffusion des sujets (push par défaut, pull au-delà du seuil d'abonnés)
+ALTER TABLE subjects
+    ADD COLUMN pull_feed BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE TABLE timeline_entries (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    article_id BIGINT NOT NULL,
+    subject_id BIGINT NOT NULL,
+
+    -- Contraintes
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_timeline_entries_user_article (user_id, article_id),
+
+    -- Clés étrangères
+    CONSTRAINT fk_timeline_entries_user
+        FOREIGN KEY (user_id) REFERENCES users(id)
+        ON DELETE CASCADE ON UPDATE CASCADE,
+    CONSTRAINT fk_timeline_entries_article
+        FOREIGN KEY (article_id) REFERENCES articles(id)
+        ON DELETE CASCADE ON UPDATE CASCADE,
+
+    -- Index pour les performances
+    INDEX idx_timeline_entries_user_created (user_id, created_at DESC, article_id DESC),
+    INDEX idx_timeline_entries_user_subject (user_id, subject_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Sujets déjà au-delà du seuil de fan-out (app.feed.fanout-max-subscribers)
+UPDATE subjects s
+SET s.pull_feed = TRUE
+WHERE (SELECT COUNT(*) FROM subscriptions sub WHERE sub.subject_id = s.id) > 10000;
+
+-- Remplissage initial des timelines à partir des abonnements existants
+INSERT INTO timeline_entries (user_id, created_at, article_id, subject_id)
+SELECT sub.user_id, a.created_at, a.id, a.subject_id
+FROM subscriptions sub
+JOIN subjects s ON s.id = sub.subject_id AND s.pull_feed = FALSE
+JOIN articles a ON a.subject_id = sub.subject_id;
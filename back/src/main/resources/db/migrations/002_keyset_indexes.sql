@@ -0,0 +1,24 @@
+-- ============================================================================
+-- MIGRATION 002 : INDEX COMPOSITES DE LA PAGINATION PAR CURSEUR
+-- À appliquer sur une base existante (database-setup.sql inclut déjà ces changements)
+-- ============================================================================
+
+USE mdd_db;
+
+-- Articles : tri (created_at, id) pour les listes et le fil par sujet.
+-- Les index composites sont créés avant la suppression des anciens,
+-- qui servent encore d'index aux clés étrangères.
+ALTER TABLE articles
+    ADD INDEX idx_articles_subject_created (subject_id, created_at DESC, id DESC),
+    DROP INDEX idx_articles_created_at,
+    ADD INDEX idx_articles_created_at (created_at DESC, id DESC);
+
+ALTER TABLE articles
+    DROP INDEX idx_articles_subject_id;
+
+-- Commentaires : tri (created_at, id) par article
+ALTER TABLE comments
+    ADD INDEX idx_comments_article_created (article_id, created_at ASC, id ASC);
+
+ALTER TABLE comments
+    DROP INDEX idx_comments_article_id;
@@ -0,0 +1,35 @@
+-- ============================================================================
+-- MIGRATION 003 : PARTITION VERTICALE DU CONTENU DES ARTICLES
+-- À appliquer sur une base existante (database-setup.sql inclut déjà ces changements)
+-- ============================================================================
+
+USE mdd_db;
+
+-- Contenu complet, une ligne par article (clé partagée)
+CREATE TABLE article_bodies (
+    article_id BIGINT NOT NULL,
+    content TEXT NOT NULL,
+
+    -- Contraintes
+    PRIMARY KEY (article_id),
+
+    -- Clés étrangères
+    CONSTRAINT fk_article_bodies_article
+        FOREIGN KEY (article_id) REFERENCES articles(id)
+        ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Copie des contenus existants
+INSERT INTO article_bodies (article_id, content)
+SELECT id, content FROM articles;
+
+-- Extrait conservé dans la ligne de l'article pour les listes
+ALTER TABLE articles
+    ADD COLUMN excerpt VARCHAR(200) NOT NULL DEFAULT '' AFTER title;
+
+UPDATE articles SET excerpt = LEFT(content, 200);
+
+-- Suppression du contenu : les lignes parcourues par les listes redeviennent compactes
+ALTER TABLE articles
+    ALTER COLUMN excerpt DROP DEFAULT,
+    DROP COLUMN content;
@@ -0,0 +1,14 @@
+-- ============================================================================
+-- MIGRATION 004 : RÉVISIONS DES SUJETS ET DES ARTICLES (ETAG DES GET CONDITIONNELS)
+-- À appliquer sur une base existante (database-setup.sql inclut déjà ces changements)
+-- ============================================================================
+
+USE mdd_db;
+
+-- Incrémentée à chaque nouvel article, abonnement ou désabonnement
+ALTER TABLE subjects
+    ADD COLUMN revision BIGINT NOT NULL DEFAULT 0;
+
+-- Incrémentée à chaque nouveau commentaire (updated_at conservé par l'application)
+ALTER TABLE articles
+    ADD COLUMN revision BIGINT NOT NULL DEFAULT 0 AFTER updated_at;
@@ -0,0 +1,15 @@
+-- ============================================================================
+-- MIGRATION 005 : COMPTEUR DÉNORMALISÉ DES COMMENTAIRES PAR ARTICLE
+-- À appliquer sur une base existante (database-setup.sql inclut déjà ces changements)
+-- ============================================================================
+
+USE mdd_db;
+
+-- Ajusté par UPDATE atomique à chaque commentaire, réconcilié périodiquement par l'application
+ALTER TABLE articles
+    ADD COLUMN comment_count BIGINT NOT NULL DEFAULT 0 AFTER revision;
+
+-- Initialisation à partir des commentaires existants (updated_at conservé)
+UPDATE articles a
+SET a.comment_count = (SELECT COUNT(*) FROM comments c WHERE c.article_id = a.id),
+    a.updated_at = a.updated_at;
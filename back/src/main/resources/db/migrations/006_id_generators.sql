@@ -0,0 +1,31 @@
+-- ============================================================================
+-- MIGRATION 006 : IDS ATTRIBUÉS PAR BLOCS (TABLE ID_GENERATORS) ET INSERTIONS EN LOTS
+-- À appliquer sur une base existante (database-setup.sql inclut déjà ces changements)
+-- À exécuter application arrêtée : les IDs réservés doivent partir du maximum existant
+-- ============================================================================
+
+USE mdd_db;
+
+-- Une ligne par table : next_val est le premier ID du prochain bloc réservé (pooled-lo)
+CREATE TABLE id_generators (
+    sequence_name VARCHAR(64) NOT NULL,
+    next_val BIGINT NOT NULL,
+
+    -- Contraintes
+    PRIMARY KEY (sequence_name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'users', COALESCE(MAX(id), 0) + 1 FROM users
+UNION ALL SELECT 'subjects', COALESCE(MAX(id), 0) + 1 FROM subjects
+UNION ALL SELECT 'articles', COALESCE(MAX(id), 0) + 1 FROM articles
+UNION ALL SELECT 'comments', COALESCE(MAX(id), 0) + 1 FROM comments;
+
+-- Plus d'AUTO_INCREMENT : un ID attribué par la base pourrait entrer en collision
+-- avec un bloc déjà réservé par une instance (colonnes référencées par des clés étrangères)
+SET FOREIGN_KEY_CHECKS = 0;
+ALTER TABLE users MODIFY id BIGINT NOT NULL;
+ALTER TABLE subjects MODIFY id BIGINT NOT NULL;
+ALTER TABLE articles MODIFY id BIGINT NOT NULL;
+ALTER TABLE comments MODIFY id BIGINT NOT NULL;
+SET FOREIGN_KEY_CHECKS = 1;
@@ -0,0 +1,33 @@
+-- ============================================================================
+-- MIGRATION 007 : JETONS DE RAFRAÎCHISSEMENT (ROTATION ET DÉTECTION DE RÉUTILISATION)
+-- À appliquer sur une base existante (database-setup.sql inclut déjà ces changements)
+-- Sans cette table, connexion, rafraîchissement et déconnexion échouent
+-- ============================================================================
+
+USE mdd_db;
+
+-- Un jeton par rotation : seul son empreinte SHA-256 est stockée,
+-- family_id regroupe les rotations d'une même connexion (révocation en bloc)
+CREATE TABLE refresh_tokens (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    token_hash VARCHAR(64) NOT NULL,
+    family_id VARCHAR(36) NOT NULL,
+    user_id BIGINT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NULL,
+
+    -- Contraintes
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_refresh_tokens_token_hash (token_hash),
+
+    -- Clés étrangères
+    CONSTRAINT fk_refresh_tokens_user
+        FOREIGN KEY (user_id) REFERENCES users(id)
+        ON DELETE CASCADE ON UPDATE CASCADE,
+
+    -- Index pour les performances
+    INDEX idx_refresh_tokens_family_id (family_id),
+    INDEX idx_refresh_tokens_user_id (user_id),
+    INDEX idx_refresh_tokens_expires_at (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
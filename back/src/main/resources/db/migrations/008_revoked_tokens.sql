@@ -0,0 +1,22 @@
+-- ============================================================================
+-- MIGRATION 008 : JETONS D'ACCÈS RÉVOQUÉS (DÉCONNEXION)
+-- À appliquer sur une base existante (database-setup.sql inclut déjà ces changements)
+-- Sans cette table, la déconnexion et le chargement du filtre de révocation échouent
+-- ============================================================================
+
+USE mdd_db;
+
+-- Identifiant (jti) des jetons d'accès révoqués avant leur expiration,
+-- rechargés dans le filtre de Bloom de chaque instance ; purgés après expiration
+CREATE TABLE revoked_tokens (
+    jti VARCHAR(36) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    -- Contraintes
+    PRIMARY KEY (jti),
+
+    -- Index pour les performances
+    INDEX idx_revoked_tokens_revoked_at (revoked_at),
+    INDEX idx_revoked_tokens_expires_at (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
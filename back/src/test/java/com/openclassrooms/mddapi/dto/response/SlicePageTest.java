@@ -0,0 +1,63 @@
+package com.openclassrooms.mddapi.dto.response;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie les totaux approximatifs : corrigés par ce que la page prouve,
+ * jamais déduits de l'offset d'une page vide.
+ */
+class SlicePageTest {
+
+    private static final int SIZE = 20;
+
+    @Test
+    void totalIsExactOnTheLastPage() {
+        SlicePage<Integer> page = SlicePage.of(slice(2, 5, false), Function.identity(), 500);
+
+        assertThat(page.getTotalElements()).isEqualTo(45);
+        assertThat(page.getTotalPages()).isEqualTo(3);
+    }
+
+    @Test
+    void totalIsNeverBelowWhatWasSeen() {
+        SlicePage<Integer> page = SlicePage.of(slice(3, SIZE, true), Function.identity(), 10);
+
+        assertThat(page.getTotalElements()).isEqualTo(81);
+    }
+
+    @Test
+    void emptyPagePastTheEndReportsTheEstimate() {
+        SlicePage<Integer> page = SlicePage.of(slice(1000, 0, false), Function.identity(), 50);
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getTotalElements()).isEqualTo(50);
+        assertThat(page.getTotalPages()).isEqualTo(3);
+    }
+
+    @Test
+    void emptyPagePastTheEndCapsAStaleEstimateAtItsOffset() {
+        SlicePage<Integer> page = SlicePage.of(slice(2, 0, false), Function.identity(), 500);
+
+        assertThat(page.getTotalElements()).isEqualTo(40);
+    }
+
+    @Test
+    void emptyFirstPageIsAnEmptyList() {
+        SlicePage<Integer> page = SlicePage.of(slice(0, 0, false), Function.identity(), 12);
+
+        assertThat(page.getTotalElements()).isZero();
+    }
+
+    private static SliceImpl<Integer> slice(int number, int elements, boolean hasNext) {
+        List<Integer> content = Collections.nCopies(elements, 1);
+        return new SliceImpl<>(content, PageRequest.of(number, SIZE), hasNext);
+    }
+}
@@ -0,0 +1,52 @@
+package com.openclassrooms.mddapi.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie, sur un Tomcat embarqué, que la limitation par adresse IP des connexions
+ * s'applique à l'adresse du client transmise par un proxy de confiance (X-Forwarded-For),
+ * et non à l'adresse du proxy partagée par tous ses clients.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "app.security.login-throttle.ip.capacity=2")
+@ActiveProfiles("test")
+class LoginClientAddressTest {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void clientsBehindTheSameProxyHaveTheirOwnAddressLimit() throws Exception {
+        // Requêtes émises depuis 127.0.0.1 : proxy de confiance
+        assertThat(login("forwarded1", "203.0.113.1")).isNotEqualTo(TOO_MANY_REQUESTS);
+        assertThat(login("forwarded2", "203.0.113.1")).isNotEqualTo(TOO_MANY_REQUESTS);
+        assertThat(login("forwarded3", "203.0.113.1")).isEqualTo(TOO_MANY_REQUESTS);
+
+        assertThat(login("forwarded4", "203.0.113.2")).isNotEqualTo(TOO_MANY_REQUESTS);
+    }
+
+    private int login(String login, String clientAddress) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .header("X-Forwarded-For", clientAddress)
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"emailOrUsername\":\"" + login + "\",\"password\":\"password\"}"))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
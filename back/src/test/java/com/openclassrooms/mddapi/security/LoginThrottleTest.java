@@ -0,0 +1,131 @@
+package com.openclassrooms.mddapi.security;
+
+import com.openclassrooms.mddapi.exception.TooManyRequestsException;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Vérifie la limitation des tentatives de connexion : seau par compte partagé entre
+ * email et nom d'utilisateur, seau par adresse IP, aucune requête pour une tentative refusée
+ * en amont, remise à zéro après une connexion réussie et purge des seaux redevenus pleins.
+ */
+class LoginThrottleTest {
+
+    private static final int ACCOUNT_CAPACITY = 3;
+    private static final int IP_CAPACITY = 5;
+    private static final long ALICE_ID = 1L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void createThrottle() {
+        when(userRepository.findIdByEmailOrUsername(anyString())).thenReturn(Optional.empty());
+        when(userRepository.findIdByEmailOrUsername("alice@test.com")).thenReturn(Optional.of(ALICE_ID));
+        when(userRepository.findIdByEmailOrUsername("alice")).thenReturn(Optional.of(ALICE_ID));
+        throttle = new LoginThrottle(userRepository, meterRegistry, ACCOUNT_CAPACITY, 60_000, IP_CAPACITY, 60_000);
+    }
+
+    @Test
+    void emailAndUsernameShareTheAccountLimit() {
+        throttle.acquire("alice@test.com", "10.0.0.1");
+        throttle.acquire("alice", "10.0.0.2");
+        throttle.acquire("alice@test.com", "10.0.0.3");
+
+        assertThatThrownBy(() -> throttle.acquire("alice", "10.0.0.4"))
+                .isInstanceOf(TooManyRequestsException.class)
+                .extracting("retryAfterSeconds").isEqualTo(60L);
+        assertThat(throttled("account")).isEqualTo(1);
+    }
+
+    @Test
+    void unknownLoginsAreThrottledByNormalizedInput() {
+        throttle.acquire("Bob", "10.0.0.1");
+        throttle.acquire(" bob ", "10.0.0.2");
+        throttle.acquire("BOB", "10.0.0.3");
+
+        assertThatThrownBy(() -> throttle.acquire("bob", "10.0.0.4")).isInstanceOf(TooManyRequestsException.class);
+        assertThatCode(() -> throttle.acquire("carol", "10.0.0.5")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void addressIsLimitedAcrossAccounts() {
+        for (int i = 0; i < IP_CAPACITY; i++) {
+            throttle.acquire("user" + i, "10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> throttle.acquire("other", "10.0.0.1")).isInstanceOf(TooManyRequestsException.class);
+        assertThat(throttled("ip")).isEqualTo(1);
+        assertThatCode(() -> throttle.acquire("other", "10.0.0.2")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void rejectedAttemptsDoNotQueryTheDatabase() {
+        for (int i = 0; i < ACCOUNT_CAPACITY; i++) {
+            throttle.acquire("flood", "10.0.1." + i);
+        }
+        for (int i = 0; i < 10; i++) {
+            String address = "10.0.2." + i;
+            assertThatThrownBy(() -> throttle.acquire("FLOOD", address)).isInstanceOf(TooManyRequestsException.class);
+        }
+        verify(userRepository, times(ACCOUNT_CAPACITY)).findIdByEmailOrUsername(anyString());
+
+        for (int i = 0; i < IP_CAPACITY; i++) {
+            throttle.acquire("user" + i, "10.0.3.1");
+        }
+        assertThatThrownBy(() -> throttle.acquire("other", "10.0.3.1")).isInstanceOf(TooManyRequestsException.class);
+        verify(userRepository, never()).findIdByEmailOrUsername("other");
+    }
+
+    @Test
+    void successfulLoginResetsTheAccountBucket() {
+        for (int i = 0; i < ACCOUNT_CAPACITY; i++) {
+            throttle.acquire("alice", "10.0.0." + i);
+        }
+
+        throttle.reset(ALICE_ID, "alice");
+
+        assertThatCode(() -> throttle.acquire("alice@test.com", "10.0.0.9")).doesNotThrowAnyException();
+        assertThatCode(() -> throttle.acquire("alice", "10.0.0.9")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void sweepRemovesBucketsThatAreFullAgain() throws InterruptedException {
+        throttle.acquire("alice", "10.0.0.1");
+        throttle.sweep();
+        // Refill de 60 s : les seaux entamés (identifiant saisi et ID du compte) sont conservés
+        assertThat(keys(meterRegistry, "account")).isEqualTo(2);
+        assertThat(keys(meterRegistry, "ip")).isEqualTo(1);
+
+        SimpleMeterRegistry fastRegistry = new SimpleMeterRegistry();
+        LoginThrottle fastRefill = new LoginThrottle(userRepository, fastRegistry, 1, 1, 1, 1);
+        fastRefill.acquire("alice", "10.0.0.1");
+        Thread.sleep(10);
+        fastRefill.sweep();
+        assertThat(keys(fastRegistry, "account")).isZero();
+        assertThat(keys(fastRegistry, "ip")).isZero();
+    }
+
+    private double throttled(String scope) {
+        return meterRegistry.get("auth.login.throttled").tag("scope", scope).counter().count();
+    }
+
+    private static double keys(SimpleMeterRegistry registry, String scope) {
+        return registry.get("auth.login.throttle.keys").tag("scope", scope).gauge().value();
+    }
+}
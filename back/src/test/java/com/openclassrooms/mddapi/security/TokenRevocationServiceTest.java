@@ -0,0 +1,100 @@
+package com.openclassrooms.mddapi.security;
+
+import com.openclassrooms.mddapi.entity.RevokedToken;
+import com.openclassrooms.mddapi.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Vérifie la révocation des access tokens : filtre de Bloom consulté sans accès base
+ * pour les tokens non révoqués, confirmation en base des réponses positives,
+ * révocations des autres instances récupérées par interrogation, purge au rebuild.
+ */
+class TokenRevocationServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RevokedTokenRepository revokedTokenRepository = mock(RevokedTokenRepository.class);
+    private final JwtUtils jwtUtils = mock(JwtUtils.class);
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void createService() {
+        when(revokedTokenRepository.findActiveJtis(any())).thenReturn(List.of("deja-revoque"));
+        service = new TokenRevocationService(revokedTokenRepository, jwtUtils, meterRegistry, 1000, 0.001);
+        service.init();
+    }
+
+    @Test
+    void tokenAbsentFromTheFilterIsAcceptedWithoutDatabaseAccess() {
+        assertThat(service.isRevoked("valide")).isFalse();
+        assertThat(service.isRevoked(null)).isFalse();
+
+        verify(revokedTokenRepository, never()).existsById(anyString());
+        assertThat(checks("bloom_negative")).isEqualTo(1);
+    }
+
+    @Test
+    void revokedTokensAreConfirmedInDatabase() {
+        when(revokedTokenRepository.existsById("deja-revoque")).thenReturn(true);
+        assertThat(service.isRevoked("deja-revoque")).isTrue();
+
+        Claims claims = Jwts.claims().setId("deconnecte").setExpiration(new Date(System.currentTimeMillis() + 60_000));
+        when(jwtUtils.verify("Bearer jeton")).thenReturn(Optional.of(claims));
+        when(revokedTokenRepository.existsById("deconnecte")).thenReturn(true);
+
+        service.revoke("Bearer jeton");
+
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+        assertThat(service.isRevoked("deconnecte")).isTrue();
+        assertThat(checks("revoked")).isEqualTo(2);
+    }
+
+    @Test
+    void positiveNotFoundInDatabaseIsAFalsePositive() {
+        when(revokedTokenRepository.existsById("deja-revoque")).thenReturn(false);
+
+        assertThat(service.isRevoked("deja-revoque")).isFalse();
+        assertThat(checks("false_positive")).isEqualTo(1);
+    }
+
+    @Test
+    void revocationsOfOtherInstancesArePickedUpByPolling() {
+        when(revokedTokenRepository.existsById("autre-instance")).thenReturn(true);
+        assertThat(service.isRevoked("autre-instance")).isFalse();
+
+        when(revokedTokenRepository.findJtisRevokedSince(any(), any())).thenReturn(List.of("autre-instance"));
+        service.pollRevocations();
+
+        assertThat(service.isRevoked("autre-instance")).isTrue();
+    }
+
+    @Test
+    void rebuildDropsExpiredRevocations() {
+        when(revokedTokenRepository.findActiveJtis(any())).thenReturn(List.of());
+
+        service.purgeAndRebuild();
+
+        verify(revokedTokenRepository).deleteExpired(any());
+        assertThat(service.isRevoked("deja-revoque")).isFalse();
+        verify(revokedTokenRepository, never()).existsById(anyString());
+    }
+
+    private double checks(String result) {
+        return meterRegistry.get("security.revocation.checks").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,232 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.event.ArticlePublishedEvent;
+import com.openclassrooms.mddapi.security.JwtUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie, sur un Tomcat embarqué, le flux SSE des nouveaux articles : plafond de connexions
+ * par utilisateur (429), fermeture d'un client qui ne lit plus, par délai d'écriture ou file pleine,
+ * sans retenir l'unique thread d'envoi (les autres clients continuent de recevoir).
+ *
+ * Le client qui ne lit plus est un socket à petit tampon de réception : les écritures
+ * du serveur attendent réellement le socket.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.articles.stream.max-connections-per-user=2",
+        "app.articles.stream.queue-capacity=10000",
+        "app.articles.stream.sender-threads=1",
+        "app.articles.stream.write-timeout-ms=500",
+        "app.articles.stream.write-check-interval-ms=50"})
+@ActiveProfiles("test")
+class ArticleStreamServiceTest {
+
+    private static final AtomicLong ARTICLE_IDS = new AtomicLong();
+    private static final int STALLED_RECEIVE_BUFFER = 1024;
+    private static final int BURST = 30_000;
+
+    @Autowired
+    private ArticleStreamService articleStreamService;
+    @Autowired
+    private SubjectService subjectService;
+    @Autowired
+    private TestData testData;
+    @Autowired
+    private JwtUtils jwtUtils;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @LocalServerPort
+    private int port;
+
+    private final List<Socket> sockets = new ArrayList<>();
+    private Long subjectId;
+
+    @BeforeEach
+    void createSubject() {
+        subjectId = testData.saveSubject("Flux");
+    }
+
+    @AfterEach
+    void closeSockets() throws IOException {
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+    }
+
+    @Test
+    void connectionCapRejectsWithRetryAfter() throws Exception {
+        String token = subscriber();
+        open(token, 0);
+        open(token, 0);
+
+        BufferedReader rejected = reader(connect(token, 0));
+        assertThat(rejected.readLine()).contains(" 429 ");
+        assertThat(headers(rejected)).contains("Retry-After: 30");
+    }
+
+    @Test
+    void stalledClientIsClosedWhileOthersKeepReceiving() throws Exception {
+        Socket stalled = open(subscriber(), STALLED_RECEIVE_BUFFER);
+        Socket active = open(subscriber(), 0);
+        Semaphore received = readNotices(active);
+        double timeouts = evictions("timeout");
+
+        // Un seul thread d'envoi : chaque notification reçue prouve qu'il n'attend pas le client bloqué
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (evictions("timeout") == timeouts && System.nanoTime() < deadline) {
+            publish();
+            assertThat(received.tryAcquire(5, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(evictions("timeout")).isEqualTo(timeouts + 1);
+
+        publish();
+        assertThat(received.tryAcquire(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(endsWithin(stalled, 10)).isTrue();
+    }
+
+    @Test
+    void clientThatFallsBehindIsClosedWhenItsQueueIsFull() throws Exception {
+        Socket stalled = open(subscriber(), STALLED_RECEIVE_BUFFER);
+        double slow = evictions("slow");
+
+        for (int i = 0; i < BURST; i++) {
+            publish();
+        }
+
+        assertThat(evictions("slow")).isEqualTo(slow + 1);
+        assertThat(endsWithin(stalled, 10)).isTrue();
+    }
+
+    /**
+     * Crée un utilisateur abonné au sujet du test.
+     *
+     * @return access token de l'utilisateur
+     */
+    private String subscriber() {
+        User user = testData.saveUser("stream");
+        subjectService.subscribeToSubject(subjectId, user.getId());
+        return jwtUtils.generateToken(user.getId(), user.getEmail(), user.getUsername());
+    }
+
+    /**
+     * Ouvre un flux et attend son enregistrement (commentaire "connected"), puis cesse de lire.
+     */
+    private Socket open(String token, int receiveBuffer) throws IOException {
+        Socket socket = connect(token, receiveBuffer);
+        BufferedReader reader = reader(socket);
+        assertThat(reader.readLine()).contains(" 200 ");
+        String line;
+        do {
+            line = reader.readLine();
+        } while (line != null && !line.startsWith(":connected"));
+        assertThat(line).isNotNull();
+        return socket;
+    }
+
+    /**
+     * Requête HTTP/1.0 : le corps n'est pas découpé en chunks, les lignes SSE arrivent telles quelles.
+     */
+    private Socket connect(String token, int receiveBuffer) throws IOException {
+        Socket socket = new Socket();
+        sockets.add(socket);
+        if (receiveBuffer > 0) {
+            socket.setReceiveBufferSize(receiveBuffer);
+        }
+        socket.connect(new InetSocketAddress("localhost", port));
+        socket.setSoTimeout(10_000);
+        socket.getOutputStream().write(("GET /api/articles/stream HTTP/1.0\r\n"
+                + "Authorization: Bearer " + token + "\r\n"
+                + "Accept: text/event-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        return socket;
+    }
+
+    /**
+     * Lit les notifications d'un flux en continu.
+     *
+     * @return un permis par notification reçue
+     */
+    private static Semaphore readNotices(Socket socket) throws IOException {
+        Semaphore received = new Semaphore(0);
+        BufferedReader reader = reader(socket);
+        Thread thread = new Thread(() -> {
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.equals("event:article")) {
+                        received.release();
+                    }
+                }
+            } catch (IOException e) {
+                // Socket fermé en fin de test
+            }
+        }, "stream-test-reader");
+        thread.setDaemon(true);
+        thread.start();
+        return received;
+    }
+
+    /**
+     * Lit le flux d'un client jusqu'à sa fin : la réponse a été terminée par le serveur.
+     */
+    private static boolean endsWithin(Socket socket, int seconds) throws IOException {
+        socket.setSoTimeout(seconds * 1000);
+        InputStream in = socket.getInputStream();
+        byte[] buffer = new byte[8192];
+        try {
+            while (in.read(buffer) != -1) {
+                // Données en attente avant la fermeture
+            }
+            return true;
+        } catch (SocketTimeoutException e) {
+            return false;
+        }
+    }
+
+    private static String headers(BufferedReader reader) throws IOException {
+        StringBuilder headers = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null && !line.isEmpty()) {
+            headers.append(line).append('\n');
+        }
+        return headers.toString();
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private void publish() {
+        articleStreamService.onArticlePublished(
+                new ArticlePublishedEvent(ARTICLE_IDS.incrementAndGet(), subjectId, LocalDateTime.now()));
+    }
+
+    private double evictions(String reason) {
+        return meterRegistry.get("articles.stream.evictions").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,138 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.dto.ArticleDTO;
+import com.openclassrooms.mddapi.dto.CommentDTO;
+import com.openclassrooms.mddapi.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérifie les compteurs de commentaires dénormalisés (articles.comment_count) :
+ * ajustement à la création et à la suppression, unitaire ou par lot,
+ * lecture avec le détail et les cartes d'articles, détail rechargé à la révision lue
+ * en base après une écriture d'une autre instance, et réparation d'une dérive
+ * par la réconciliation.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CommentCountTest {
+
+    @Autowired
+    private CommentService commentService;
+    @Autowired
+    private ArticleService articleService;
+    @Autowired
+    private CommentCountReconciler commentCountReconciler;
+    @Autowired
+    private VersionStampService versionStampService;
+    @Autowired
+    private TestData testData;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User author;
+    private Long subjectId;
+
+    @BeforeEach
+    void createSubject() {
+        author = testData.saveUser("countauthor");
+        subjectId = testData.saveSubject("Compteurs");
+    }
+
+    @Test
+    void createAndDeleteAdjustTheCountReadWithArticles() {
+        Long articleId = publish();
+        assertThat(comment(articleId).getArticleTitle()).isEqualTo("Article compté");
+        Long deletedId = comment(articleId).getId();
+        comment(articleId);
+
+        commentService.deleteComment(deletedId, author.getId());
+
+        assertThat(articleService.getArticleById(articleId).getCommentCount()).isEqualTo(2);
+        assertThat(articleService.getArticlesBySubject(subjectId, 0, 20).getContent())
+                .singleElement()
+                .satisfies(article -> assertThat(article.getCommentCount()).isEqualTo(2));
+    }
+
+    @Test
+    void commentOnAMissingArticleIsRejected() {
+        assertThatThrownBy(() -> comment(Long.MAX_VALUE)).isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void batchAdjustsEachArticleAndSkipsMissingOnes() {
+        Long first = publish();
+        Long second = publish();
+
+        List<CommentDTO> created = commentService.createComments(List.of(
+                pending(second), pending(first), pending(Long.MAX_VALUE), pending(first)));
+
+        assertThat(created).extracting(comment -> comment == null ? null : comment.getArticleId())
+                .containsExactly(second, first, null, first);
+        assertThat(articleService.getArticleById(first).getCommentCount()).isEqualTo(2);
+        assertThat(articleService.getArticleById(second).getCommentCount()).isEqualTo(1);
+    }
+
+    @Test
+    void detailCachedBeforeAWriteOnAnotherInstanceIsReloadedAtTheDatabaseRevision() {
+        Long articleId = publish();
+        ArticleDTO cached = articleService.getArticleById(articleId);
+        String cachedTag = versionStampService.articleTag(cached);
+
+        // Commentaire créé par une autre instance : ce cache n'a pas été vidé
+        jdbcTemplate.update("UPDATE articles SET comment_count = comment_count + 1, revision = revision + 1 "
+                + "WHERE id = ?", articleId);
+        assertThat(articleService.getArticleById(articleId).getCommentCount()).isZero();
+
+        long revision = versionStampService.articleRevision(articleId).orElseThrow();
+        ArticleDTO current = articleService.getArticleById(articleId, revision);
+
+        assertThat(current.getRevision()).isEqualTo(revision);
+        assertThat(current.getCommentCount()).isEqualTo(1);
+        assertThat(versionStampService.articleTag(current)).isNotEqualTo(cachedTag);
+        assertThat(articleService.getArticleById(articleId, revision)).isSameAs(current);
+    }
+
+    @Test
+    void reconcilerRepairsDriftedCounts() {
+        Long articleId = publish();
+        comment(articleId);
+        assertThat(articleService.getArticleById(articleId).getCommentCount()).isEqualTo(1);
+
+        // Dérive simulée (écriture hors application)
+        jdbcTemplate.update("UPDATE articles SET comment_count = 42 WHERE id = ?", articleId);
+
+        assertThat(commentCountReconciler.reconcile()).isGreaterThanOrEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT comment_count FROM articles WHERE id = ?", Long.class, articleId))
+                .isEqualTo(1);
+        assertThat(articleService.getArticleById(articleId).getCommentCount()).isEqualTo(1);
+    }
+
+    private Long publish() {
+        ArticleDTO created = testData.publish(author, subjectId, "Article compté");
+        assertThat(created.getSubjectName()).startsWith("Compteurs ");
+        return created.getId();
+    }
+
+    private CommentDTO comment(Long articleId) {
+        return commentService.createComment(articleId, new CommentDTO("Commentaire"), author.getId(), author.getUsername());
+    }
+
+    private CommentDTO pending(Long articleId) {
+        CommentDTO comment = new CommentDTO("Commentaire en lot");
+        comment.setArticleId(articleId);
+        comment.setAuthorId(author.getId());
+        comment.setAuthorUsername(author.getUsername());
+        return comment;
+    }
+}
@@ -0,0 +1,123 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.dto.CommentDTO;
+import com.openclassrooms.mddapi.dto.response.CursorPage;
+import com.openclassrooms.mddapi.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérifie le suivi d'un fil de commentaires (?since=) : pagination par curseur,
+ * curseur conservé sans nouveauté, et délai de grâce qui empêche le curseur
+ * de dépasser un commentaire validé en retard.
+ *
+ * Les commentaires sont vieillis en base (created_at) pour simuler l'écoulement du délai.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CommentThreadPollingTest {
+
+    @Autowired
+    private CommentService commentService;
+    @Autowired
+    private TestData testData;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User author;
+    private Long articleId;
+
+    @BeforeEach
+    void createArticle() {
+        author = testData.saveUser("pollauthor");
+        articleId = testData.publish(author, testData.saveSubject("Polling"), "Fil suivi").getId();
+    }
+
+    @Test
+    void pollingPagesThroughTheThreadAndKeepsTheCursorWhenIdle() {
+        for (int i = 0; i < 8; i++) {
+            comment("Commentaire " + i);
+        }
+        ageComments();
+
+        CursorPage<CommentDTO> first = commentService.getCommentsSince(articleId, "", 5);
+        assertThat(first.getContent()).hasSize(5);
+        assertThat(first.isHasNext()).isTrue();
+
+        CursorPage<CommentDTO> rest = commentService.getCommentsSince(articleId, first.getNextCursor(), 5);
+        assertThat(rest.getContent()).hasSize(3);
+        assertThat(rest.isHasNext()).isFalse();
+
+        CursorPage<CommentDTO> idle = commentService.getCommentsSince(articleId, rest.getNextCursor(), 5);
+        assertThat(idle.getContent()).isEmpty();
+        assertThat(idle.getNextCursor()).isEqualTo(rest.getNextCursor());
+        assertThatThrownBy(() -> commentService.getCommentsSince(Long.MAX_VALUE, rest.getNextCursor(), 5))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void recentCommentsAreReturnedOnceTheGracePeriodHasPassed() {
+        comment("Trop récent");
+
+        CursorPage<CommentDTO> early = commentService.getCommentsSince(articleId, "", 5);
+        assertThat(early.getContent()).isEmpty();
+        assertThat(early.getNextCursor()).isEmpty();
+
+        ageComments();
+        assertThat(commentService.getCommentsSince(articleId, early.getNextCursor(), 5).getContent())
+                .extracting(CommentDTO::getContent)
+                .containsExactly("Trop récent");
+    }
+
+    @Test
+    void commentCommittedAfterTheCursorWithALowerIdIsNotSkipped() {
+        comment("Déjà lu");
+        ageComments();
+        CursorPage<CommentDTO> read = commentService.getCommentsSince(articleId, "", 5);
+        assertThat(read.getContent()).hasSize(1);
+
+        // ID réservé avant celui du commentaire suivant, transaction validée après lui
+        CommentDTO late = comment("Validé en retard");
+        Map<String, Object> lateRow = jdbcTemplate.queryForMap(
+                "SELECT content, created_at, author_id, article_id FROM comments WHERE id = ?", late.getId());
+        jdbcTemplate.update("DELETE FROM comments WHERE id = ?", late.getId());
+        comment("Validé à temps");
+
+        CursorPage<CommentDTO> poll = commentService.getCommentsSince(articleId, read.getNextCursor(), 5);
+        assertThat(poll.getContent()).isEmpty();
+
+        jdbcTemplate.update("INSERT INTO comments (id, content, created_at, author_id, article_id) VALUES (?, ?, ?, ?, ?)",
+                late.getId(), lateRow.get("content"), lateRow.get("created_at"),
+                lateRow.get("author_id"), lateRow.get("article_id"));
+        ageComments();
+
+        assertThat(commentService.getCommentsSince(articleId, poll.getNextCursor(), 5).getContent())
+                .extracting(CommentDTO::getContent)
+                .containsExactly("Validé en retard", "Validé à temps");
+    }
+
+    private CommentDTO comment(String content) {
+        CommentDTO comment = new CommentDTO();
+        comment.setContent(content);
+        return commentService.createComment(articleId, comment, author.getId(), author.getUsername());
+    }
+
+    /**
+     * Recule les dates de création des commentaires de l'article au-delà du délai de grâce
+     * (ordre conservé).
+     */
+    private void ageComments() {
+        jdbcTemplate.update("UPDATE comments SET created_at = DATEADD('MINUTE', -1, created_at) WHERE article_id = ?",
+                articleId);
+    }
+}
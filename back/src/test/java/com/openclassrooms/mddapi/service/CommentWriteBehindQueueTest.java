@@ -0,0 +1,305 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.controller.CommentController;
+import com.openclassrooms.mddapi.dto.CommentDTO;
+import com.openclassrooms.mddapi.exception.GlobalExceptionHandler;
+import com.openclassrooms.mddapi.exception.ServiceUnavailableException;
+import com.openclassrooms.mddapi.security.UserPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.persistence.EntityNotFoundException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Vérifie la file d'écriture différée des commentaires : lots, article inexistant,
+ * réécriture un par un après un lot en échec, file pleine (503), vidage à l'arrêt
+ * et réponses synchrones (201/404) du contrôleur.
+ */
+class CommentWriteBehindQueueTest {
+
+    private static final Long MISSING_ARTICLE_ID = 404L;
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CommentService commentService = mock(CommentService.class);
+    private final AtomicLong ids = new AtomicLong();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private CommentWriteBehindQueue queue;
+
+    @AfterEach
+    void close() throws InterruptedException {
+        release.countDown();
+        queue.destroy();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void acceptedCommentsAreWrittenInBatchesOfAtMostBatchSize() throws Exception {
+        when(commentService.createComments(anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+        queue = createQueue(10, 2, 200, 10_000);
+
+        List<CommentWriteBehindQueue.Ticket> tickets = List.of(submit(1L), submit(1L), submit(2L));
+
+        for (CommentWriteBehindQueue.Ticket ticket : tickets) {
+            CommentDTO comment = ticket.getResult().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertThat(comment.getId()).isNotNull();
+            assertThat(comment.getProvisionalId()).isEqualTo(ticket.getAccepted().getProvisionalId());
+        }
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CommentDTO>> batches = ArgumentCaptor.forClass(List.class);
+        verify(commentService, times(2)).createComments(batches.capture());
+        assertThat(batches.getAllValues()).extracting(List::size).containsExactly(2, 1);
+        assertThat(meterRegistry.get("comments.write-behind.batch.size").summary().totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void commentOnAMissingArticleFailsWithNotFound() throws Exception {
+        when(commentService.createComments(anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+        queue = createQueue(10, 10, 200, 10_000);
+
+        CommentWriteBehindQueue.Ticket saved = submit(1L);
+        CommentWriteBehindQueue.Ticket lost = submit(MISSING_ARTICLE_ID);
+
+        assertThat(saved.getResult().get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getId()).isNotNull();
+        assertThatThrownBy(() -> lost.getResult().get(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(EntityNotFoundException.class);
+        assertThat(meterRegistry.get("comments.write-behind.failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failedBatchIsRewrittenOneByOne() throws Exception {
+        when(commentService.createComments(anyList()))
+                .thenThrow(new DataIntegrityViolationException("Article supprimé pendant le lot"));
+        when(commentService.createComment(anyLong(), any(CommentDTO.class), anyLong(), anyString()))
+                .thenAnswer(invocation -> createdOne(invocation.getArgument(1)));
+        queue = createQueue(10, 10, 200, 10_000);
+
+        CommentWriteBehindQueue.Ticket saved = submit(1L);
+        CommentWriteBehindQueue.Ticket lost = submit(MISSING_ARTICLE_ID);
+        assertThatThrownBy(() -> lost.getResult().get(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(EntityNotFoundException.class);
+
+        assertThat(saved.getResult().get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getId()).isNotNull();
+        verify(commentService, times(1)).createComments(anyList());
+        verify(commentService, times(2)).createComment(anyLong(), any(CommentDTO.class), anyLong(), anyString());
+    }
+
+    @Test
+    void fullQueueRejectsWithServiceUnavailable() throws Exception {
+        CountDownLatch writing = blockWriter();
+        queue = createQueue(1, 10, 0, 10_000);
+
+        submit(1L);
+        assertThat(writing.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        submit(1L);
+
+        assertThatThrownBy(() -> submit(1L))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .extracting("retryAfterSeconds").isEqualTo(1L);
+        assertThat(meterRegistry.get("comments.write-behind.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shutdownWritesQueuedCommentsAndRejectsNewOnes() throws Exception {
+        CountDownLatch writing = blockWriter();
+        queue = createQueue(10, 1, 0, 10_000);
+
+        submit(1L);
+        assertThat(writing.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        List<CommentWriteBehindQueue.Ticket> queued = List.of(submit(1L), submit(2L));
+
+        CompletableFuture<Void> shutdown = CompletableFuture.runAsync(this::destroyQueue);
+        // Arrêt engagé : les dépôts sont refusés pendant que la file se vide
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!rejectsSubmissions() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        shutdown.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        for (CommentWriteBehindQueue.Ticket ticket : queued) {
+            assertThat(ticket.getResult()).isCompleted();
+            assertThat(ticket.getResult().get().getId()).isNotNull();
+        }
+        assertThatThrownBy(() -> submit(1L)).isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    void shutdownTimeoutFailsCommentsStillQueued() throws Exception {
+        CountDownLatch writing = blockWriter();
+        queue = createQueue(10, 1, 0, 100);
+
+        submit(1L);
+        assertThat(writing.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        CommentWriteBehindQueue.Ticket stranded = submit(1L);
+
+        queue.destroy();
+
+        assertThatThrownBy(() -> stranded.getResult().get(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    void syncCreationAnswers201OrNotFound() throws Exception {
+        when(commentService.createComments(anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+        queue = createQueue(10, 10, 0, 10_000);
+        MockMvc mockMvc = controller();
+
+        MvcResult saved = mockMvc.perform(post("/api/articles/1/comments").param("sync", "true")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"content\":\"Synchrone\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(saved))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").isNumber())
+                .andExpect(jsonPath("$.provisionalId").isString());
+
+        MvcResult missing = mockMvc.perform(post("/api/articles/" + MISSING_ARTICLE_ID + "/comments")
+                        .param("sync", "true")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"content\":\"Perdu\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(missing))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void asyncCreationAnswers202OrServiceUnavailable() throws Exception {
+        CountDownLatch writing = blockWriter();
+        queue = createQueue(1, 10, 0, 10_000);
+        MockMvc mockMvc = controller();
+
+        MvcResult accepted = mockMvc.perform(post("/api/articles/1/comments")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"content\":\"Différé\"}"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(accepted))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").doesNotExist())
+                .andExpect(jsonPath("$.provisionalId").isString());
+
+        assertThat(writing.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        submit(1L);
+        mockMvc.perform(post("/api/articles/1/comments")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"content\":\"Refusé\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    private CommentWriteBehindQueue createQueue(int capacity, int batchSize, long lingerMs, long shutdownTimeoutMs) {
+        return new CommentWriteBehindQueue(commentService, meterRegistry, true,
+                capacity, batchSize, lingerMs, shutdownTimeoutMs, 1);
+    }
+
+    private CommentWriteBehindQueue.Ticket submit(Long articleId) {
+        return queue.submit(articleId, "Commentaire", 7L, "writer");
+    }
+
+    private boolean rejectsSubmissions() {
+        try {
+            submit(3L);
+            return false;
+        } catch (ServiceUnavailableException e) {
+            return true;
+        }
+    }
+
+    private void destroyQueue() {
+        try {
+            queue.destroy();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Bloque le thread d'écriture sur le premier lot jusqu'à la fin du test.
+     *
+     * @return verrou levé quand le premier lot est en cours d'écriture
+     */
+    private CountDownLatch blockWriter() {
+        CountDownLatch writing = new CountDownLatch(1);
+        when(commentService.createComments(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return created(invocation.getArgument(0));
+        });
+        return writing;
+    }
+
+    /**
+     * Réponse de CommentService.createComments : null pour l'article inexistant.
+     */
+    private List<CommentDTO> created(List<CommentDTO> comments) {
+        return comments.stream()
+                .map(comment -> MISSING_ARTICLE_ID.equals(comment.getArticleId()) ? null : saved(comment))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Réponse de CommentService.createComment : 404 pour l'article inexistant.
+     */
+    private CommentDTO createdOne(CommentDTO comment) {
+        if (MISSING_ARTICLE_ID.equals(comment.getArticleId())) {
+            throw new EntityNotFoundException("Article non trouvé avec ID: " + MISSING_ARTICLE_ID);
+        }
+        return saved(comment);
+    }
+
+    private CommentDTO saved(CommentDTO comment) {
+        return CommentDTO.builder()
+                .id(ids.incrementAndGet())
+                .content(comment.getContent())
+                .articleId(comment.getArticleId())
+                .authorId(comment.getAuthorId())
+                .authorUsername(comment.getAuthorUsername())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private MockMvc controller() {
+        UserPrincipal principal = new UserPrincipal(7L, "writer@test.com", "writer", null, Collections.emptyList());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        return MockMvcBuilders
+                .standaloneSetup(new CommentController(commentService, mock(VersionStampService.class), queue))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+}
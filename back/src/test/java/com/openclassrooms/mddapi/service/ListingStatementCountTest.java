@@ -0,0 +1,200 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.dto.CommentDTO;
+import com.openclassrooms.mddapi.dto.response.CursorPage;
+import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérifie que les listes d'articles et de commentaires sont chargées
+ * en un nombre constant de requêtes, quel que soit le nombre d'auteurs,
+ * de sujets ou d'articles distincts dans la page (pas de N+1),
+ * que le détail d'un article est servi par le cache une fois chargé,
+ * et que les insertions d'un lot de commentaires sont regroupées (IDs réservés par blocs).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ListingStatementCountTest {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private ArticleService articleService;
+    @Autowired
+    private CommentService commentService;
+    @Autowired
+    private SubjectService subjectService;
+    @Autowired
+    private ArticleCache articleCache;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TestData testData;
+
+    private Long readerId;
+    private Long subjectId;
+    private Long articleId;
+    private Long uncommentedArticleId;
+    private Long commenterId;
+
+    @BeforeAll
+    void createData() {
+        List<User> authors = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            authors.add(testData.saveUser("fetchauthor"));
+        }
+        readerId = testData.saveUser("fetchreader").getId();
+
+        List<Long> subjectIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Long planSubjectId = testData.saveSubject("Fetch plan");
+            subjectIds.add(planSubjectId);
+            subjectService.subscribeToSubject(planSubjectId, readerId);
+        }
+        subjectId = subjectIds.get(0);
+
+        for (int i = 0; i < 12; i++) {
+            User author = authors.get(i % authors.size());
+            articleId = testData.publish(author, subjectIds.get(i % subjectIds.size()), "Article " + i, "Contenu " + i)
+                    .getId();
+            if (uncommentedArticleId == null) {
+                uncommentedArticleId = articleId;
+            }
+        }
+
+        commenterId = authors.get(0).getId();
+        for (int i = 0; i < 8; i++) {
+            User author = authors.get(i % authors.size());
+            CommentDTO comment = new CommentDTO();
+            comment.setContent("Commentaire " + i);
+            commentService.createComment(articleId, comment, author.getId(), author.getUsername());
+        }
+    }
+
+    @Test
+    void articleListsUseOneStatement() {
+        assertThat(statements(() -> articleService.getAllArticles(0, PAGE_SIZE, Sort.Direction.DESC))).isEqualTo(1);
+        assertThat(statements(() -> articleService.getArticlesBySubject(subjectId, 0, PAGE_SIZE))).isEqualTo(1);
+        assertThat(statements(() -> articleService.scrollAllArticles(null, PAGE_SIZE, Sort.Direction.ASC))).isEqualTo(1);
+        assertThat(statements(() -> articleService.scrollArticlesBySubject(subjectId, null, PAGE_SIZE))).isEqualTo(1);
+    }
+
+    @Test
+    void articleDetailLoadsBodyWithArticleInOneStatementThenCaches() {
+        articleCache.evictAll();
+        assertThat(StatementCounter.count(() -> articleService.getArticleById(articleId))).isEqualTo(1);
+        assertThat(StatementCounter.count(() -> articleService.getArticleById(articleId))).isZero();
+        assertThat(articleService.getArticleById(articleId).getContent()).isEqualTo("Contenu 11");
+    }
+
+    @Test
+    void unknownArticleIsCachedAsMissing() {
+        Runnable probe = () -> assertThatThrownBy(() -> articleService.getArticleById(Long.MAX_VALUE))
+                .isInstanceOf(EntityNotFoundException.class);
+        assertThat(StatementCounter.count(probe)).isEqualTo(1);
+        assertThat(StatementCounter.count(probe)).isZero();
+    }
+
+    @Test
+    void feedUsesSubscriptionLookupAndOneBatchLoad() {
+        assertThat(statements(() -> articleService.getPersonalizedFeed(readerId, 0, PAGE_SIZE))).isEqualTo(2);
+        assertThat(statements(() -> articleService.scrollPersonalizedFeed(readerId, null, PAGE_SIZE))).isEqualTo(2);
+    }
+
+    @Test
+    void commentThreadUsesOneStatement() {
+        assertThat(StatementCounter.count(() -> commentService.getCommentsByArticle(articleId, 0, PAGE_SIZE))).isEqualTo(1);
+        assertThat(statements(() -> commentService.getCommentsByArticle(articleId, 0, 3))).isEqualTo(1);
+        assertThat(commentService.getCommentsByArticle(articleId, 0, PAGE_SIZE).getContent())
+                .hasSize(8)
+                .allSatisfy(comment -> assertThat(comment.getArticleTitle()).isEqualTo("Article 11"));
+        assertThat(StatementCounter.count(() -> assertThat(
+                commentService.getCommentsByArticle(uncommentedArticleId, 0, PAGE_SIZE).getContent()).isEmpty()))
+                .isEqualTo(1);
+        assertThatThrownBy(() -> commentService.getCommentsByArticle(Long.MAX_VALUE, 0, PAGE_SIZE))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void commentsSinceCursorUseOneStatement() {
+        // Commentaires créés à l'instant : délai de grâce désactivé pour les lire
+        CommentService target = AopTestUtils.getTargetObject(commentService);
+        ReflectionTestUtils.setField(target, "sinceGraceSeconds", 0L);
+        try {
+            assertThat(statements(() -> commentService.getCommentsSince(articleId, "", 5))).isEqualTo(1);
+            CursorPage<CommentDTO> first = commentService.getCommentsSince(articleId, "", 5);
+            assertThat(first.getContent()).hasSize(5);
+
+            assertThat(statements(() -> commentService.getCommentsSince(articleId, first.getNextCursor(), 5)))
+                    .isEqualTo(1);
+        } finally {
+            ReflectionTestUtils.setField(target, "sinceGraceSeconds", 5L);
+        }
+    }
+
+    @Test
+    void commentListsUseOneStatement() {
+        assertThat(statements(() -> commentService.scrollCommentsByArticle(articleId, null, PAGE_SIZE))).isEqualTo(1);
+        CursorPage<CommentDTO> first = commentService.scrollCommentsByArticle(articleId, null, 5);
+        assertThat(first.getContent()).hasSize(5)
+                .allSatisfy(comment -> assertThat(comment.getArticleTitle()).isEqualTo("Article 11"));
+        assertThat(statements(() -> commentService.scrollCommentsByArticle(articleId, first.getNextCursor(), 5)))
+                .isEqualTo(1);
+        assertThat(commentService.scrollCommentsByArticle(articleId, first.getNextCursor(), 5).getContent()).hasSize(3);
+        assertThat(commentService.scrollCommentsByArticle(uncommentedArticleId, null, PAGE_SIZE).getContent()).isEmpty();
+        assertThatThrownBy(() -> commentService.scrollCommentsByArticle(Long.MAX_VALUE, null, PAGE_SIZE))
+                .isInstanceOf(EntityNotFoundException.class);
+
+        assertThat(statements(() -> commentService.getCommentsByUser(commenterId, 0, PAGE_SIZE))).isEqualTo(1);
+    }
+
+    @Test
+    void batchOfCommentsIsWrittenWithOneUpdateAndOneInsertBatch() {
+        User author = userRepository.findById(commenterId).orElseThrow();
+        Long batchArticleId = testData.publish(author, subjectId, "Article en lot").getId();
+
+        List<CommentDTO> comments = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            CommentDTO comment = new CommentDTO();
+            comment.setContent("Commentaire en lot " + i);
+            comment.setArticleId(batchArticleId);
+            comment.setAuthorId(author.getId());
+            comment.setAuthorUsername(author.getUsername());
+            comments.add(comment);
+        }
+
+        // UPDATE du compteur de l'article, lecture des titres, puis un lot d'INSERT
+        // (IDs réservés par blocs, hors comptage)
+        List<CommentDTO> created = new ArrayList<>();
+        assertThat(StatementCounter.count(() -> created.addAll(commentService.createComments(comments)))).isEqualTo(3);
+        assertThat(created).extracting(CommentDTO::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(created).extracting(CommentDTO::getArticleTitle).containsOnly("Article en lot");
+    }
+
+    /**
+     * Nombre de requêtes d'un appel, totaux approximatifs déjà en cache
+     * (le premier appel d'une liste exécute son comptage).
+     */
+    private int statements(Supplier<?> call) {
+        call.get();
+        return StatementCounter.count(call::get);
+    }
+}
@@ -0,0 +1,110 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.event.ArticleCreatedEvent;
+import com.openclassrooms.mddapi.repository.ArticleRepository;
+import com.openclassrooms.mddapi.repository.SubjectRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Vérifie la fusion de l'index des articles récents : bornes de lecture
+ * (pages au-delà de la fenêtre servies par la base), filigranes des anneaux
+ * et interrogation des articles validés en retard.
+ */
+class RecentArticleIndexTest {
+
+    private static final int CAPACITY = 8;
+    private static final long POLL_OVERLAP_SECONDS = 30;
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private ArticleRepository articleRepository;
+    private RecentArticleIndex index;
+
+    @BeforeEach
+    void createIndex() {
+        articleRepository = mock(ArticleRepository.class);
+        index = new RecentArticleIndex(articleRepository, mock(SubjectRepository.class),
+                mock(ApplicationEventPublisher.class), new SimpleMeterRegistry(), CAPACITY, POLL_OVERLAP_SECONDS);
+    }
+
+    @Test
+    void mergeReturnsNewestFirstSizedToTheAvailableKeys() {
+        add(1L, 10L, 1);
+        add(2L, 11L, 2);
+        add(1L, 12L, 3);
+
+        Optional<long[]> ids = index.merge(List.of(1L, 2L), null, 5);
+
+        assertThat(ids).hasValueSatisfying(merged -> assertThat(merged).containsExactly(12L, 11L, 10L));
+    }
+
+    @Test
+    void limitBeyondCapacityFallsBackToTheDatabase() {
+        add(1L, 10L, 1);
+
+        assertThat(index.merge(List.of(1L), null, CAPACITY + 1)).isEmpty();
+        assertThat(index.merge(List.of(1L), null, Integer.MAX_VALUE)).isEmpty();
+    }
+
+    @Test
+    void pollingPicksUpAnArticleCommittedLongAfterItsCreationDate() {
+        index.init();
+        // Article d'une autre instance, daté avant le démarrage et validé après
+        LocalDateTime createdAt = LocalDateTime.now().minusSeconds(POLL_OVERLAP_SECONDS - 5);
+        when(articleRepository.findKeysCreatedSince(argThat(since -> !since.isAfter(createdAt))))
+                .thenReturn(List.<Object[]>of(new Object[]{20L, 1L, createdAt}));
+
+        index.pollArticles();
+
+        assertThat(index.merge(List.of(1L), null, 5))
+                .hasValueSatisfying(ids -> assertThat(ids).containsExactly(20L));
+    }
+
+    @Test
+    void watermarkFollowsRingContent() {
+        assertThat(index.watermark(1L)).isZero();
+        add(1L, 10L, 1);
+        long afterFirst = index.watermark(1L);
+        assertThat(afterFirst).isNotZero();
+
+        // Clé déjà indexée (commit local puis interrogation) : filigrane inchangé
+        add(1L, 10L, 1);
+        assertThat(index.watermark(1L)).isEqualTo(afterFirst);
+
+        add(1L, 11L, 2);
+        assertThat(index.watermark(1L)).isNotEqualTo(afterFirst);
+    }
+
+    @Test
+    void sameContentGivesTheSameWatermarkOnEveryInstance() {
+        RecentArticleIndex other = new RecentArticleIndex(articleRepository, mock(SubjectRepository.class),
+                mock(ApplicationEventPublisher.class), new SimpleMeterRegistry(), CAPACITY, POLL_OVERLAP_SECONDS);
+        add(1L, 10L, 1);
+        add(1L, 11L, 2);
+
+        when(articleRepository.findCreatedAtById(11L)).thenReturn(Optional.of(BASE.plusSeconds(2)));
+        other.onArticleCreated(new ArticleCreatedEvent(11L, 1L, BASE.plusSeconds(2)));
+        when(articleRepository.findCreatedAtById(10L)).thenReturn(Optional.of(BASE.plusSeconds(1)));
+        other.onArticleCreated(new ArticleCreatedEvent(10L, 1L, BASE.plusSeconds(1)));
+
+        assertThat(other.watermark(1L)).isEqualTo(index.watermark(1L));
+    }
+
+    private void add(Long subjectId, Long articleId, int second) {
+        LocalDateTime createdAt = BASE.plusSeconds(second);
+        when(articleRepository.findCreatedAtById(anyLong())).thenReturn(Optional.of(createdAt));
+        index.onArticleCreated(new ArticleCreatedEvent(articleId, subjectId, createdAt));
+    }
+}
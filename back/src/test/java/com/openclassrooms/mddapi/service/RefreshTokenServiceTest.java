@@ -0,0 +1,149 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.exception.InvalidRefreshTokenException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérifie les refresh tokens : rotation dans la même famille et à expiration constante,
+ * rotation idempotente dans le délai de grâce (renouvellements simultanés), détection de la
+ * réutilisation d'un token tourné au-delà (famille entière révoquée), expiration et déconnexion.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private TestData testData;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        user = testData.saveUser("refresh");
+    }
+
+    @Test
+    void rotationIssuesANewTokenForTheSameUserWithTheSameExpiry() {
+        String issued = refreshTokenService.issue(user.getId());
+        LocalDateTime expiresAt = expiries().get(0);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(issued);
+
+        assertThat(rotation.getPrincipal().getId()).isEqualTo(user.getId());
+        assertThat(rotation.getRefreshToken()).isNotEqualTo(issued);
+        assertThat(refreshTokenService.rotate(rotation.getRefreshToken()).getPrincipal().getId())
+                .isEqualTo(user.getId());
+        // Session active : l'expiration fixée à la connexion n'est pas repoussée
+        assertThat(expiries()).hasSize(3).containsOnly(expiresAt);
+    }
+
+    @Test
+    void concurrentRefreshesOfOneTokenReceiveTheSameSuccessor() throws Exception {
+        String shared = refreshTokenService.issue(user.getId());
+
+        ExecutorService tabs = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            Callable<String> refresh = () -> {
+                start.await();
+                return refreshTokenService.rotate(shared).getRefreshToken();
+            };
+            Future<String> first = tabs.submit(refresh);
+            Future<String> second = tabs.submit(refresh);
+            start.countDown();
+
+            String successor = first.get(10, TimeUnit.SECONDS);
+            assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo(successor);
+            // Présentation tardive dans le délai de grâce : même successeur, session intacte
+            assertThat(refreshTokenService.rotate(shared).getRefreshToken()).isEqualTo(successor);
+            assertThat(refreshTokenService.rotate(successor).getPrincipal().getId()).isEqualTo(user.getId());
+        } finally {
+            tabs.shutdownNow();
+        }
+    }
+
+    @Test
+    void reusingARotatedTokenAfterTheGracePeriodRevokesTheWholeFamily() {
+        String stolen = refreshTokenService.issue(user.getId());
+        String current = refreshTokenService.rotate(stolen).getRefreshToken();
+        agePastGracePeriod();
+        String otherSession = refreshTokenService.issue(user.getId());
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(stolen)).isInstanceOf(InvalidRefreshTokenException.class);
+
+        // Le détenteur légitime doit aussi se reconnecter ; les autres sessions sont intactes
+        assertThatThrownBy(() -> refreshTokenService.rotate(current)).isInstanceOf(InvalidRefreshTokenException.class);
+        assertThat(refreshTokenService.rotate(otherSession).getPrincipal().getId()).isEqualTo(user.getId());
+    }
+
+    @Test
+    void loggedOutSuccessorIsNotHandedOutAgain() {
+        String rotated = refreshTokenService.issue(user.getId());
+        String successor = refreshTokenService.rotate(rotated).getRefreshToken();
+
+        refreshTokenService.revoke(successor);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(rotated)).isInstanceOf(InvalidRefreshTokenException.class);
+    }
+
+    @Test
+    void unknownBlankOrExpiredTokensAreRejected() {
+        assertThatThrownBy(() -> refreshTokenService.rotate(null)).isInstanceOf(InvalidRefreshTokenException.class);
+        assertThatThrownBy(() -> refreshTokenService.rotate(" ")).isInstanceOf(InvalidRefreshTokenException.class);
+        assertThatThrownBy(() -> refreshTokenService.rotate("inconnu")).isInstanceOf(InvalidRefreshTokenException.class);
+
+        String expired = refreshTokenService.issue(user.getId());
+        jdbcTemplate.update("UPDATE refresh_tokens SET expires_at = DATEADD('SECOND', -1, CURRENT_TIMESTAMP) "
+                + "WHERE user_id = ?", user.getId());
+        assertThatThrownBy(() -> refreshTokenService.rotate(expired)).isInstanceOf(InvalidRefreshTokenException.class);
+    }
+
+    @Test
+    void logoutRevokesTheSessionAndRevokeAllEveryOther() {
+        String loggedOut = refreshTokenService.issue(user.getId());
+        String rotated = refreshTokenService.rotate(loggedOut).getRefreshToken();
+        refreshTokenService.revoke(rotated);
+        assertThatThrownBy(() -> refreshTokenService.rotate(rotated)).isInstanceOf(InvalidRefreshTokenException.class);
+
+        String first = refreshTokenService.issue(user.getId());
+        String second = refreshTokenService.issue(user.getId());
+        refreshTokenService.revokeAll(user.getId());
+        assertThatThrownBy(() -> refreshTokenService.rotate(first)).isInstanceOf(InvalidRefreshTokenException.class);
+        assertThatThrownBy(() -> refreshTokenService.rotate(second)).isInstanceOf(InvalidRefreshTokenException.class);
+    }
+
+    private List<LocalDateTime> expiries() {
+        return jdbcTemplate.queryForList("SELECT expires_at FROM refresh_tokens WHERE user_id = ? ORDER BY id",
+                LocalDateTime.class, user.getId());
+    }
+
+    /**
+     * Recule les dates de création des tokens de l'utilisateur au-delà du délai de grâce.
+     */
+    private void agePastGracePeriod() {
+        jdbcTemplate.update("UPDATE refresh_tokens SET created_at = DATEADD('MINUTE', -1, created_at) "
+                + "WHERE user_id = ?", user.getId());
+    }
+}
@@ -0,0 +1,29 @@
+package com.openclassrooms.mddapi.service;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Compte les requêtes SQL préparées par Hibernate sur le thread courant.
+ *
+ * Enregistré via hibernate.session_factory.statement_inspector (profil test) ;
+ * le comptage par thread ignore les tâches planifiées exécutées en parallèle.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Integer> COUNT = ThreadLocal.withInitial(() -> 0);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.set(COUNT.get() + 1);
+        return sql;
+    }
+
+    /**
+     * Exécute l'action et retourne le nombre de requêtes qu'elle a émises.
+     */
+    public static int count(Runnable action) {
+        COUNT.set(0);
+        action.run();
+        return COUNT.get();
+    }
+}
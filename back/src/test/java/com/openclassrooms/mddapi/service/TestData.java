@@ -0,0 +1,73 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.dto.ArticleDTO;
+import com.openclassrooms.mddapi.entity.Subject;
+import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.repository.SubjectRepository;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Jeu de données des tests d'intégration : utilisateurs, sujets et articles.
+ *
+ * La base H2 est partagée par les classes de test d'un même contexte : les noms
+ * d'utilisateurs et de sujets reçoivent un suffixe unique pour rester distincts.
+ */
+@Component
+@RequiredArgsConstructor
+class TestData {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private final UserRepository userRepository;
+    private final SubjectRepository subjectRepository;
+    private final ArticleService articleService;
+
+    /**
+     * Crée un utilisateur (mot de passe non utilisé par les tests).
+     *
+     * @param prefix préfixe du nom d'utilisateur, complété d'un suffixe unique
+     * @return utilisateur enregistré
+     */
+    User saveUser(String prefix) {
+        String username = prefix + SEQUENCE.incrementAndGet();
+        return userRepository.save(User.builder()
+                .username(username)
+                .email(username + "@test.com")
+                .password("hash")
+                .build());
+    }
+
+    /**
+     * Crée un sujet.
+     *
+     * @param prefix préfixe du nom du sujet, complété d'un suffixe unique
+     * @return ID du sujet
+     */
+    Long saveSubject(String prefix) {
+        return subjectRepository.save(Subject.builder()
+                .name(prefix + " " + SEQUENCE.incrementAndGet())
+                .description("Sujet de test")
+                .build()).getId();
+    }
+
+    /**
+     * Publie un article par le service (compteurs, révisions et diffusion compris).
+     *
+     * @return article créé
+     */
+    ArticleDTO publish(User author, Long subjectId, String title) {
+        return publish(author, subjectId, title, "Contenu");
+    }
+
+    ArticleDTO publish(User author, Long subjectId, String title, String content) {
+        ArticleDTO article = new ArticleDTO();
+        article.setTitle(title);
+        article.setContent(content);
+        article.setSubjectId(subjectId);
+        return articleService.createArticle(article, author.getId(), author.getUsername());
+    }
+}
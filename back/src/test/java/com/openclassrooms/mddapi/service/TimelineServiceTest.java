@@ -0,0 +1,143 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.dto.ArticleSummaryDTO;
+import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.repository.TimelineEntryRepository;
+import com.openclassrooms.mddapi.utils.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie la diffusion des articles dans les timelines matérialisées :
+ * fan-out après commit, complément à l'abonnement, purge au désabonnement,
+ * rattrapage des fan-out perdus et fil hybride (timeline et sujets en mode pull).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TimelineServiceTest {
+
+    private static final int BEYOND_RECENT_INDEX = 600;
+
+    @Autowired
+    private TimelineService timelineService;
+    @Autowired
+    private SubjectService subjectService;
+    @Autowired
+    private TestData testData;
+    @Autowired
+    private TimelineEntryRepository timelineEntryRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User author;
+    private Long subjectId;
+
+    @BeforeEach
+    void createSubject() {
+        author = testData.saveUser("tlauthor");
+        subjectId = testData.saveSubject("Timeline");
+    }
+
+    @Test
+    void publishedArticleIsFannedOutToSubscribers() {
+        Long readerId = testData.saveUser("tlreader").getId();
+        subjectService.subscribeToSubject(subjectId, readerId);
+
+        publish("Diffusé");
+
+        assertThat(timelineEntryRepository.countByUserId(readerId)).isEqualTo(1);
+        assertThat(timelineEntryRepository.countByUserId(author.getId())).isZero();
+    }
+
+    @Test
+    void subscribingBackfillsAndUnsubscribingPrunes() {
+        publish("Avant abonnement 1");
+        publish("Avant abonnement 2");
+        Long readerId = testData.saveUser("tllate").getId();
+
+        subjectService.subscribeToSubject(subjectId, readerId);
+        assertThat(timelineEntryRepository.countByUserId(readerId)).isEqualTo(2);
+
+        subjectService.unsubscribeFromSubject(subjectId, readerId);
+        assertThat(timelineEntryRepository.countByUserId(readerId)).isZero();
+        // Aucun abonnement : fil vide, sans requête sur une liste d'IDs vide
+        assertThat(timelineService.getFeed(readerId, PageRequest.of(0, 10))).isEmpty();
+        assertThat(timelineService.scrollFeed(readerId, null, 10)).isEmpty();
+    }
+
+    @Test
+    void repairRestoresEntriesOfAFailedFanOut() {
+        Long readerId = testData.saveUser("tlrepair").getId();
+        subjectService.subscribeToSubject(subjectId, readerId);
+        publish("Fan-out perdu 1");
+        publish("Fan-out perdu 2");
+
+        // Fan-out en échec simulé : l'abonné reste inscrit, ses entrées ont disparu
+        timelineService.prune(readerId, subjectId);
+        assertThat(timelineEntryRepository.countByUserId(readerId)).isZero();
+
+        TimelineService target = AopTestUtils.getTargetObject(timelineService);
+        ReflectionTestUtils.setField(target, "fanOutRepairDelaySeconds", 0L);
+        try {
+            assertThat(timelineService.repairFanOut()).isGreaterThanOrEqualTo(2);
+            assertThat(timelineEntryRepository.countByUserId(readerId)).isEqualTo(2);
+            // Idempotent : un second passage ne duplique rien
+            timelineService.repairFanOut();
+            assertThat(timelineEntryRepository.countByUserId(readerId)).isEqualTo(2);
+        } finally {
+            ReflectionTestUtils.setField(target, "fanOutRepairDelaySeconds", 30L);
+        }
+    }
+
+    @Test
+    void hybridFeedMergesTimelineAndPullSubjectsWithoutDuplicates() {
+        Long readerId = testData.saveUser("tlhybrid").getId();
+        Long pushSubjectId = testData.saveSubject("Timeline push");
+        subjectService.subscribeToSubject(subjectId, readerId);
+        subjectService.subscribeToSubject(pushSubjectId, readerId);
+
+        publish("Avant pull 1");
+        publish("Avant pull 2");
+        // Passage en mode pull : les entrées déjà diffusées restent dans la timeline
+        jdbcTemplate.update("UPDATE subjects SET pull_feed = TRUE WHERE id = ?", subjectId);
+        publish("Pull");
+        publish(pushSubjectId, "Push");
+
+        // Lectures au-delà de la fenêtre de l'index en mémoire : servies par la base
+        List<ArticleSummaryDTO> feed = timelineService.scrollFeed(readerId, null, BEYOND_RECENT_INDEX);
+        assertThat(feed).extracting(ArticleSummaryDTO::getTitle)
+                .containsExactly("Push", "Pull", "Avant pull 2", "Avant pull 1");
+
+        ArticleSummaryDTO second = feed.get(1);
+        assertThat(timelineService.scrollFeed(readerId,
+                KeysetCursor.of(second.getCreatedAt(), second.getId()), BEYOND_RECENT_INDEX))
+                .extracting(ArticleSummaryDTO::getTitle)
+                .containsExactly("Avant pull 2", "Avant pull 1");
+
+        Slice<ArticleSummaryDTO> page = timelineService.getFeed(readerId, PageRequest.of(0, BEYOND_RECENT_INDEX));
+        assertThat(page.getContent()).extracting(ArticleSummaryDTO::getId)
+                .containsExactlyElementsOf(feed.stream().map(ArticleSummaryDTO::getId).collect(Collectors.toList()));
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    private void publish(String title) {
+        publish(subjectId, title);
+    }
+
+    private void publish(Long articleSubjectId, String title) {
+        testData.publish(author, articleSubjectId, title);
+    }
+}
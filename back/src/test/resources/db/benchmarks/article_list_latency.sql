@@ -0,0 +1,121 @@
+-- ============================================================================
+-- BENCHMARK : LATENCE DES LISTES D'ARTICLES AVANT / APRÈS PARTITION VERTICALE
+-- MySQL 8.0.18+ (EXPLAIN ANALYZE). Base dédiée mdd_bench, mdd_db n'est pas modifiée.
+--
+-- Usage : mysql -u root -p < article_list_latency.sql
+-- Relancer les requêtes plusieurs fois et comparer les temps à cache chaud et à froid
+-- (innodb_buffer_pool_size inférieur à la taille des données pour le cas à froid).
+-- ============================================================================
+
+CREATE DATABASE IF NOT EXISTS mdd_bench
+CHARACTER SET utf8mb4
+COLLATE utf8mb4_unicode_ci;
+
+USE mdd_bench;
+
+SET @rows = 2000000;
+SET @subjects = 15;
+SET SESSION cte_max_recursion_depth = 10000000;
+
+DROP TABLE IF EXISTS articles_before;
+DROP TABLE IF EXISTS article_bodies_after;
+DROP TABLE IF EXISTS articles_after;
+
+-- Avant : contenu TEXT dans la ligne de l'article
+CREATE TABLE articles_before (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    title VARCHAR(200) NOT NULL,
+    content TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    author_id BIGINT NOT NULL,
+    subject_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_articles_subject_created (subject_id, created_at DESC, id DESC),
+    INDEX idx_articles_created_at (created_at DESC, id DESC)
+) ENGINE=InnoDB;
+
+-- Après : extrait dans la ligne, contenu dans article_bodies
+CREATE TABLE articles_after (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    title VARCHAR(200) NOT NULL,
+    excerpt VARCHAR(200) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    author_id BIGINT NOT NULL,
+    subject_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_articles_subject_created (subject_id, created_at DESC, id DESC),
+    INDEX idx_articles_created_at (created_at DESC, id DESC)
+) ENGINE=InnoDB;
+
+CREATE TABLE article_bodies_after (
+    article_id BIGINT NOT NULL,
+    content TEXT NOT NULL,
+    PRIMARY KEY (article_id)
+) ENGINE=InnoDB;
+
+-- Données synthétiques : contenus de 600 à 2000 caractères (limite de l'API)
+INSERT INTO articles_before (title, content, created_at, author_id, subject_id)
+WITH RECURSIVE seq (n) AS (
+    SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < @rows
+)
+SELECT CONCAT('Article ', n),
+       REPEAT(MD5(n), 20 + n % 44),
+       TIMESTAMP('2020-01-01') + INTERVAL n * 60 SECOND,
+       1 + n % 1000,
+       1 + n % @subjects
+FROM seq;
+
+INSERT INTO articles_after (id, title, excerpt, created_at, author_id, subject_id)
+SELECT id, title, LEFT(content, 200), created_at, author_id, subject_id FROM articles_before;
+
+INSERT INTO article_bodies_after (article_id, content)
+SELECT id, content FROM articles_before;
+
+ANALYZE TABLE articles_before, articles_after, article_bodies_after;
+
+-- Taille des tables (données + index)
+SELECT table_name, table_rows,
+       ROUND(data_length / 1024 / 1024) AS data_mb,
+       ROUND(index_length / 1024 / 1024) AS index_mb
+FROM information_schema.tables
+WHERE table_schema = 'mdd_bench'
+ORDER BY table_name;
+
+-- Page 1 de tous les articles (20 lignes)
+EXPLAIN ANALYZE
+SELECT id, title, SUBSTRING(content, 1, 200), created_at, author_id, subject_id
+FROM articles_before ORDER BY created_at DESC, id DESC LIMIT 21;
+
+EXPLAIN ANALYZE
+SELECT id, title, excerpt, created_at, author_id, subject_id
+FROM articles_after ORDER BY created_at DESC, id DESC LIMIT 21;
+
+-- Page profonde en offset (pagination historique, parcours de l'index et des lignes)
+EXPLAIN ANALYZE
+SELECT id, title, SUBSTRING(content, 1, 200), created_at, author_id, subject_id
+FROM articles_before ORDER BY created_at DESC, id DESC LIMIT 20 OFFSET 100000;
+
+EXPLAIN ANALYZE
+SELECT id, title, excerpt, created_at, author_id, subject_id
+FROM articles_after ORDER BY created_at DESC, id DESC LIMIT 20 OFFSET 100000;
+
+-- Articles d'un sujet, page par curseur
+EXPLAIN ANALYZE
+SELECT id, title, SUBSTRING(content, 1, 200), created_at, author_id, subject_id
+FROM articles_before
+WHERE subject_id = 3 AND (created_at < '2022-01-01' OR (created_at = '2022-01-01' AND id < 1000000))
+ORDER BY created_at DESC, id DESC LIMIT 21;
+
+EXPLAIN ANALYZE
+SELECT id, title, excerpt, created_at, author_id, subject_id
+FROM articles_after
+WHERE subject_id = 3 AND (created_at < '2022-01-01' OR (created_at = '2022-01-01' AND id < 1000000))
+ORDER BY created_at DESC, id DESC LIMIT 21;
+
+-- Détail d'un article (après : une jointure sur la clé primaire)
+EXPLAIN ANALYZE
+SELECT * FROM articles_before WHERE id = 1234567;
+
+EXPLAIN ANALYZE
+SELECT a.*, b.content FROM articles_after a JOIN article_bodies_after b ON b.article_id = a.id
+WHERE a.id = 1234567;
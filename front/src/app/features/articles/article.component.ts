@@ -1,6 +1,6 @@
 import { Component, OnInit, OnDestroy } from '@angular/core';
 import { Router, ActivatedRoute } from '@angular/router';
-import { Subject, takeUntil } from 'rxjs';
+import { Subject, debounceTime, filter, takeUntil } from 'rxjs';
 import { ArticleService } from './article.service';
 import { CommentService } from '../comments/comment.service';
 import { Article, ArticlesPage } from '../../interfaces/article.interface';
@@ -46,6 +46,13 @@ export class ArticleComponent implements OnInit, OnDestroy {
         this.loadArticles(); 
       }
     });
+
+    // Nouveaux articles des sujets suivis : rechargement de la liste (regroupé)
+    this.articleService.streamNewArticles().pipe(
+      filter(() => !this.showDetailView),
+      debounceTime(1000),
+      takeUntil(this.destroy$)
+    ).subscribe(() => this.loadArticles());
   }
 
   ngOnDestroy(): void {
@@ -1,5 +1,5 @@
 // article.service.ts - Service pour la gestion des articles
-import { Injectable } from '@angular/core';
+import { Injectable, NgZone } from '@angular/core';
 import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable, throwError } from 'rxjs';
 import { catchError, map } from 'rxjs/operators';
@@ -9,7 +9,8 @@ import {
   ArticlesPage, 
   CreateArticleRequest, 
   UpdateArticleRequest,
-  ArticleDetail 
+  ArticleDetail,
+  NewArticleNotice
 } from '../../interfaces/article.interface';
 
 @Injectable({
@@ -20,7 +21,8 @@ export class ArticleService {
 
   constructor(
     private http: HttpClient,
-    private errorService: ErrorService
+    private errorService: ErrorService,
+    private zone: NgZone
   ) {}
 
   /**
@@ -89,6 +91,21 @@ export class ArticleService {
       .pipe(catchError(this.handleError));
   }
 
+  /**
+   * Flux des nouveaux articles des sujets suivis (Server-Sent Events, cookie d'authentification).
+   * EventSource se reconnecte seul ; la connexion est fermée au désabonnement.
+   */
+  streamNewArticles(): Observable<NewArticleNotice> {
+    return new Observable<NewArticleNotice>(subscriber => {
+      const source = new EventSource(`${this.API_URL}/stream`, { withCredentials: true });
+      source.addEventListener('article', event => {
+        const notice = JSON.parse((event as MessageEvent).data) as NewArticleNotice;
+        this.zone.run(() => subscriber.next(notice));
+      });
+      return () => source.close();
+    });
+  }
+
   /**
    * Gestion centralisée des erreurs HTTP
    */
@@ -65,11 +65,14 @@ export class AuthService {
 
   /**
    * Déconnexion utilisateur.
-   * Réinitialise l'état local et redirige vers la landing page.
+   * Révoque la session côté serveur (refresh token, cookies),
+   * puis réinitialise l'état local et redirige vers la landing page.
    */
   logout(): void {
-    this.currentUserSubject.next(null);
-    this.router.navigate(['/landing']);
+    this.http.post(`${this.API_URL}/logout`, null, { withCredentials: true }).subscribe({
+      complete: () => this.clearSession(),
+      error: () => this.clearSession()
+    });
   }
 
   /**
@@ -120,7 +123,7 @@ export class AuthService {
         updatedAt: userProfile.updatedAt
       })),
       catchError(error => {
-        this.logout();
+        this.clearSession();
         return throwError(() => error);
       })
     );
@@ -144,7 +147,7 @@ export class AuthService {
   public loadUserFromServer(): void {
     this.checkAuthStatus().subscribe({
       next: (user) => this.currentUserSubject.next(user),
-      error: () => this.logout()
+      error: () => this.clearSession()
     });
   }
 
@@ -152,6 +155,14 @@ export class AuthService {
   // MÉTHODES PRIVÉES
   // ============================================================================
 
+  /**
+   * Réinitialise l'état local et redirige vers la landing page.
+   */
+  private clearSession(): void {
+    this.currentUserSubject.next(null);
+    this.router.navigate(['/landing']);
+  }
+
   private handleAuthSuccess(response: AuthResponse): void {
     // ⚠️ Token géré par HttpOnly cookie côté serveur → rien à stocker ici
     const user: User = {
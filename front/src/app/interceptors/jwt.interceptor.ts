@@ -1,7 +1,7 @@
 import { Injectable } from '@angular/core';
-import { HttpRequest, HttpHandler, HttpEvent, HttpInterceptor, HttpErrorResponse } from '@angular/common/http';
+import { HttpRequest, HttpHandler, HttpEvent, HttpInterceptor, HttpErrorResponse, HttpClient } from '@angular/common/http';
 import { Observable, throwError } from 'rxjs';
-import { catchError } from 'rxjs/operators';
+import { catchError, finalize, shareReplay, switchMap } from 'rxjs/operators';
 import { Router } from '@angular/router';
 
 /**
@@ -9,27 +9,61 @@ import { Router } from '@angular/router';
  *
  * Le backend lit le JWT depuis le cookie, donc
  * aucune gestion du token côté frontend.
+ *
+ * L'access token étant de courte durée, une réponse 401 déclenche un unique
+ * renouvellement (/api/auth/refresh, cookie refresh_token) puis la requête est rejouée.
  */
 @Injectable()
 export class JwtInterceptor implements HttpInterceptor {
 
   private readonly PUBLIC_ENDPOINTS = [
     '/api/auth/login',
-    '/api/auth/register'
+    '/api/auth/register',
+    '/api/auth/refresh',
+    '/api/auth/logout'
   ];
 
-  constructor(private router: Router) {}
+  /** Renouvellement en cours, partagé par les requêtes concurrentes */
+  private refresh$: Observable<unknown> | null = null;
+
+  constructor(private router: Router, private http: HttpClient) {}
 
   intercept(request: HttpRequest<unknown>, next: HttpHandler): Observable<HttpEvent<unknown>> {
     // Les cookies sont envoyés automatiquement si { withCredentials: true } est utilisé dans les services
     return next.handle(request).pipe(
       catchError((error: HttpErrorResponse) => {
+        if (error.status === 401 && !this.isPublicEndpoint(request.url)) {
+          return this.refreshSession().pipe(
+            switchMap(() => next.handle(request)),
+            catchError(() => {
+              this.handleError(error);
+              return throwError(() => error);
+            })
+          );
+        }
         this.handleError(error);
         return throwError(() => error);
       })
     );
   }
 
+  /**
+   * Renouvelle la session une seule fois pour toutes les requêtes en échec simultané.
+   */
+  private refreshSession(): Observable<unknown> {
+    if (!this.refresh$) {
+      this.refresh$ = this.http.post('/api/auth/refresh', null, { withCredentials: true }).pipe(
+        finalize(() => this.refresh$ = null),
+        shareReplay(1)
+      );
+    }
+    return this.refresh$;
+  }
+
+  private isPublicEndpoint(url: string): boolean {
+    return this.PUBLIC_ENDPOINTS.some(endpoint => url.includes(endpoint));
+  }
+
   /**
    * Gestion d'erreurs simplifiée
    */
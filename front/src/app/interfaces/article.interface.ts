@@ -5,7 +5,8 @@ import { Comment } from './comment.interface';
 export interface Article {
   id: number;
   title: string;
-  content: string;
+  content?: string; // Absent des listes : seul le détail charge le contenu complet
+  excerpt?: string; // Début du contenu, fourni par les listes
   authorUsername: string; 
   createdAt: string;
   updatedAt: string;
@@ -13,36 +14,20 @@ export interface Article {
   subjectName: string; 
   themeId: number; 
   themeName: string; 
-  commentsCount?: number; 
+  commentCount?: number; // Compteur dénormalisé, fourni par les listes et le détail
 }
 
 export interface ArticlesPage {
   content: Article[];
-  pageable: {
-    sort: {
-      empty: boolean;
-      sorted: boolean;
-      unsorted: boolean;
-    };
-    offset: number;
-    pageSize: number;
-    pageNumber: number;
-    paged: boolean;
-    unpaged: boolean;
-  };
-  totalElements: number;
-  totalPages: number;
-  size: number;
   number: number;
-  sort?: {
-    empty: boolean;
-    sorted: boolean;
-    unsorted: boolean;
-  };
+  size: number;
+  numberOfElements: number;
   first: boolean;
   last: boolean;
-  numberOfElements: number;
-  empty: boolean;
+  hasNext: boolean;
+  // Totaux approximatifs (estimation mise en cache côté serveur)
+  totalElements: number;
+  totalPages: number;
 }
 
 export interface CreateArticleRequest {
@@ -60,4 +45,13 @@ export interface UpdateArticleRequest {
 // ArticleDetail inclut désormais les commentaires directement
 export interface ArticleDetail extends Article {
   comments: Comment[]; 
-}
\ No newline at end of file
+}
+
+/**
+ * Notification du flux SSE des nouveaux articles (GET /api/articles/stream)
+ */
+export interface NewArticleNotice {
+  articleId: number;
+  subjectId: number;
+  createdAt: string;
+}
@@ -15,29 +15,13 @@ export interface CreateCommentRequest {
 
 export interface CommentsPage {
   content: Comment[];
-  pageable: {
-    sort: {
-      empty: boolean;
-      sorted: boolean;
-      unsorted: boolean;
-    };
-    offset: number;
-    pageSize: number;
-    pageNumber: number;
-    paged: boolean;
-    unpaged: boolean;
-  };
-  totalElements: number;
-  totalPages: number;
-  size: number;
   number: number;
-  sort: { 
-    empty: boolean;
-    sorted: boolean;
-    unsorted: boolean;
-  };
+  size: number;
+  numberOfElements: number;
   first: boolean;
   last: boolean;
-  numberOfElements: number;
-  empty: boolean;
+  hasNext: boolean;
+  // Totaux approximatifs (estimation mise en cache côté serveur)
+  totalElements: number;
+  totalPages: number;
 }
\ No newline at end of file
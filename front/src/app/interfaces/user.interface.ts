@@ -64,6 +64,7 @@ export interface AuthResponse {
   email: string;
   createdAt: string; 
   updatedAt: string; 
+  refreshToken?: string;
 }
 
 // ===========================